@@ -0,0 +1,158 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.openqa.selenium.WebDriver;
+
+import benchmarks.Scenarios;
+
+/**
+ * Реализация сценариев бенчмарков над настоящими классами test-annotations
+ * и заглушкой WebDriver вместо браузера.
+ */
+public class AnnotationScenarios implements Scenarios {
+    private final BrowserArgumentProvider provider = new BrowserArgumentProvider();
+    private final WebDriverExtension webDriverExtension = new WebDriverExtension();
+    private final TimingExtension timingExtension = new TimingExtension();
+    private final WebDriverPool pool = new WebDriverPool(true, 2, Duration.ofMinutes(5), new SessionLimiter(4));
+    private final WebDriver pooledDriver = StubWebDriver.create();
+
+    private final Method testMethod;
+    private final BenchmarkTest testInstance = new BenchmarkTest();
+    private final ExtensionContext methodContext;
+    private final ExtensionContext invocationContext;
+    private final ReflectiveInvocationContext<Method> reflectiveContext;
+
+    public AnnotationScenarios() {
+        try {
+            testMethod = BenchmarkTest.class.getDeclaredMethod("check", Browser.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+        methodContext = StubExtensionContext.forMethod(testInstance, testMethod);
+        invocationContext = StubExtensionContext.forInvocation(methodContext, 1);
+        reflectiveContext = new StubInvocationContext(testMethod, testInstance, Browser.CHROME);
+
+        pool.release(Browser.CHROME, LaunchProfile.DEFAULT, pool.acquire(
+            Browser.CHROME, LaunchProfile.DEFAULT, () -> pooledDriver));
+        prepareDriverManifest();
+        DriverBinaryResolver.resolve(Browser.CHROME);
+    }
+
+    @Override
+    public Object provideArgumentsCached() {
+        return provider.provideArguments(methodContext).count();
+    }
+
+    @Override
+    public Object provideArgumentsCold() {
+        ExtensionContext freshContext = StubExtensionContext.forMethod(testInstance, testMethod);
+        return provider.provideArguments(freshContext).count();
+    }
+
+    @Override
+    public void invokeTest() throws Throwable {
+        InvocationInterceptor.Invocation<Void> body = () -> null;
+        webDriverExtension.interceptTestTemplateMethod(
+            () -> {
+                timingExtension.interceptTestTemplateMethod(body, reflectiveContext, invocationContext);
+                return null;
+            },
+            reflectiveContext, invocationContext);
+    }
+
+    @Override
+    public Object poolRoundTrip() {
+        WebDriver driver = pool.acquire(Browser.CHROME, LaunchProfile.DEFAULT, StubWebDriver::create);
+        pool.release(Browser.CHROME, LaunchProfile.DEFAULT, driver);
+        return driver;
+    }
+
+    @Override
+    public Object resolveDriver() {
+        return DriverBinaryResolver.resolve(Browser.CHROME);
+    }
+
+    @Override
+    public void recordTiming() {
+        PerfRecorder.record(Browser.CHROME, PerfRecorder.COMMAND, "WebDriver.get", 1_500_000);
+    }
+
+    /**
+     * Манифест с фиктивным драйвером, чтобы резолвер не обращался к WebDriverManager.
+     */
+    private static void prepareDriverManifest() {
+        try {
+            Path dir = Files.createTempDirectory("autobrowser-bench");
+            Path driver = Files.createFile(dir.resolve("chromedriver"));
+            driver.toFile().setExecutable(true);
+            Path manifest = dir.resolve("drivers.properties");
+            Files.writeString(manifest, "CHROME.path=" + driver.toAbsolutePath().toString().replace("\\", "/")
+                + "\nCHROME.resolvedAt=" + System.currentTimeMillis() + "\n");
+            System.setProperty(DriverBinaryResolver.MANIFEST_PROPERTY, manifest.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Тестовый класс, вызовы которого прогоняются через расширения.
+     */
+    public static class BenchmarkTest implements BaseBrowserTestI {
+
+        @Override
+        public String getBaseUrl() {
+            return "about:blank";
+        }
+
+        @Override
+        public WebDriver setupDriver(Browser browser, LaunchProfile profile) {
+            return StubWebDriver.create();
+        }
+
+        @AutoBrowser
+        void check(Browser browser) {
+        }
+    }
+
+    private static class StubInvocationContext implements ReflectiveInvocationContext<Method> {
+        private final Method method;
+        private final Object target;
+        private final List<Object> arguments;
+
+        StubInvocationContext(Method method, Object target, Browser browser) {
+            this.method = method;
+            this.target = target;
+            this.arguments = Collections.singletonList(browser);
+        }
+
+        @Override
+        public Class<?> getTargetClass() {
+            return target.getClass();
+        }
+
+        @Override
+        public Method getExecutable() {
+            return method;
+        }
+
+        @Override
+        public List<Object> getArguments() {
+            return arguments;
+        }
+
+        @Override
+        public Optional<Object> getTarget() {
+            return Optional.of(target);
+        }
+    }
+}
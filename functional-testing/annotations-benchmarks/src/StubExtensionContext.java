@@ -0,0 +1,122 @@
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Минимальный ExtensionContext для вызова расширений вне JUnit.
+ * Поддерживает иерархию root - метод - вызов, хранилища и сведения о тесте.
+ */
+final class StubExtensionContext {
+
+    private StubExtensionContext() {
+    }
+
+    /**
+     * Контекст параметризированного метода (родитель вызовов).
+     */
+    static ExtensionContext forMethod(Object testInstance, Method method) {
+        ExtensionContext root = create(null, null, null, "[engine:junit-jupiter]");
+        return create(root, testInstance, method, "[engine:junit-jupiter]/[test-template:" + method.getName() + "]");
+    }
+
+    /**
+     * Контекст вызова с номером index (начиная с 1).
+     */
+    static ExtensionContext forInvocation(ExtensionContext methodContext, int index) {
+        return create(methodContext, methodContext.getRequiredTestInstance(),
+            methodContext.getRequiredTestMethod(),
+            methodContext.getUniqueId() + "/[test-template-invocation:#" + index + "]");
+    }
+
+    private static ExtensionContext create(ExtensionContext parent, Object testInstance, Method method,
+            String uniqueId) {
+        Map<ExtensionContext.Namespace, ExtensionContext.Store> stores = new ConcurrentHashMap<>();
+        ExtensionContext[] self = new ExtensionContext[1];
+        self[0] = (ExtensionContext) Proxy.newProxyInstance(StubExtensionContext.class.getClassLoader(),
+            new Class<?>[] {ExtensionContext.class}, (proxy, m, args) -> {
+                switch (m.getName()) {
+                    case "getStore":
+                        return stores.computeIfAbsent((ExtensionContext.Namespace) args[0], ns -> new MapStore());
+                    case "getRoot":
+                        return parent == null ? self[0] : parent.getRoot();
+                    case "getParent":
+                        return Optional.ofNullable(parent);
+                    case "getUniqueId":
+                        return uniqueId;
+                    case "getDisplayName":
+                        return uniqueId;
+                    case "getTestMethod":
+                        return Optional.ofNullable(method);
+                    case "getRequiredTestMethod":
+                        return method;
+                    case "getTestClass":
+                        return Optional.ofNullable(testInstance).map(Object::getClass);
+                    case "getRequiredTestClass":
+                        return testInstance.getClass();
+                    case "getTestInstance":
+                        return Optional.ofNullable(testInstance);
+                    case "getRequiredTestInstance":
+                        return testInstance;
+                    case "getConfigurationParameter":
+                        return Optional.empty();
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return uniqueId;
+                    default:
+                        throw new UnsupportedOperationException(m.getName());
+                }
+            });
+        return self[0];
+    }
+
+    /**
+     * Хранилище на основе ConcurrentHashMap без закрытия ресурсов.
+     */
+    private static class MapStore implements ExtensionContext.Store {
+        private final Map<Object, Object> values = new ConcurrentHashMap<>();
+
+        @Override
+        public Object get(Object key) {
+            return values.get(key);
+        }
+
+        @Override
+        public <V> V get(Object key, Class<V> requiredType) {
+            return requiredType.cast(values.get(key));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> Object getOrComputeIfAbsent(K key, Function<K, V> defaultCreator) {
+            return values.computeIfAbsent(key, k -> defaultCreator.apply((K) k));
+        }
+
+        @Override
+        public <K, V> V getOrComputeIfAbsent(K key, Function<K, V> defaultCreator, Class<V> requiredType) {
+            return requiredType.cast(getOrComputeIfAbsent(key, defaultCreator));
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            values.put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return values.remove(key);
+        }
+
+        @Override
+        public <V> V remove(Object key, Class<V> requiredType) {
+            return requiredType.cast(values.remove(key));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Заглушка WebDriver без браузера: команды ничего не делают и сразу возвращают результат.
+ * Вложенные объекты (manage(), navigate(), switchTo() и т.д.) тоже заглушки.
+ */
+final class StubWebDriver {
+    private static final String WINDOW = "stub-window";
+
+    private StubWebDriver() {
+    }
+
+    static WebDriver create() {
+        return (WebDriver) stub(WebDriver.class);
+    }
+
+    private static Object stub(Class<?> type) {
+        Class<?>[] interfaces = type == WebDriver.class
+            ? new Class<?>[] {WebDriver.class, JavascriptExecutor.class}
+            : new Class<?>[] {type};
+        return Proxy.newProxyInstance(StubWebDriver.class.getClassLoader(), interfaces, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getWindowHandles":
+                    return new LinkedHashSet<>(Collections.singleton(WINDOW));
+                case "getWindowHandle":
+                    return WINDOW;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "StubWebDriver";
+                default:
+                    break;
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == List.class) {
+                return Collections.emptyList();
+            }
+            if (returnType == Set.class) {
+                return Collections.emptySet();
+            }
+            if (returnType.isInterface()) {
+                return stub(returnType);
+            }
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType == String.class) {
+                return "";
+            }
+            return null;
+        });
+    }
+}
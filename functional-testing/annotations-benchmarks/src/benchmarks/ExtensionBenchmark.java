@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Накладные расходы test-annotations на один вызов теста.
+ * Браузер заменен заглушкой WebDriver, поэтому в замер попадает только
+ * работа расширений: выдача аргументов, перехват вызова, пул, резолвер и замеры.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ExtensionBenchmark {
+    private Scenarios scenarios;
+
+    @Setup
+    public void setup() {
+        scenarios = Scenarios.load();
+    }
+
+    @Benchmark
+    public Object provideArgumentsCached() {
+        return scenarios.provideArgumentsCached();
+    }
+
+    @Benchmark
+    public Object provideArgumentsCold() {
+        return scenarios.provideArgumentsCold();
+    }
+
+    @Benchmark
+    public void invokeTest() throws Throwable {
+        scenarios.invokeTest();
+    }
+
+    @Benchmark
+    public Object poolRoundTrip() {
+        return scenarios.poolRoundTrip();
+    }
+
+    @Benchmark
+    public Object resolveDriver() {
+        return scenarios.resolveDriver();
+    }
+
+    @Benchmark
+    public void recordTiming() {
+        scenarios.recordTiming();
+    }
+}
@@ -0,0 +1,48 @@
+package benchmarks;
+
+/**
+ * Сценарии, которые замеряют бенчмарки.
+ * JMH не допускает бенчмарки в пакете по умолчанию, а классы test-annotations
+ * лежат именно там, поэтому сценарии реализует класс AnnotationScenarios
+ * из пакета по умолчанию и подгружается один раз при инициализации.
+ */
+public interface Scenarios {
+
+    /**
+     * Выдача аргументов @AutoBrowser при уже разобранной аннотации.
+     */
+    Object provideArgumentsCached();
+
+    /**
+     * Выдача аргументов с разбором аннотации (первый вызов для метода).
+     */
+    Object provideArgumentsCold();
+
+    /**
+     * Полный вызов теста через WebDriverExtension и TimingExtension.
+     */
+    void invokeTest() throws Throwable;
+
+    /**
+     * Выдача сессии из пула и возврат в пул.
+     */
+    Object poolRoundTrip();
+
+    /**
+     * Повторное разрешение драйвера, уже найденного в этой JVM.
+     */
+    Object resolveDriver();
+
+    /**
+     * Запись одного замера в PerfRecorder.
+     */
+    void recordTiming();
+
+    static Scenarios load() {
+        try {
+            return (Scenarios) Class.forName("AnnotationScenarios").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не найден класс AnnotationScenarios", e);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Встроенный в JVM стенд, заменяющий FastPic в функциональных тестах.
+ * Отдает форму загрузки с теми же элементами, что и настоящий сайт
+ * (#file, #uploadButton, #switch_to_copy, .upload_settings), принимает multipart-загрузки,
+ * показывает страницу результата (.picinfo, .codes-list) и страницу /my.php.
+ * Как и на настоящем сайте, /my.php показывает только загрузки своей сессии:
+ * сессию задает cookie fastpic_sid, которую стенд выдает при первой загрузке.
+ * Как и настоящий сайт, после загрузки перенаправляет на страницу результата /view/id-id...,
+ * поэтому ее можно открыть повторно по адресу.
+ * Загрузки по URL не скачиваются - стенд работает без доступа в интернет.
+ *
+ * Включается свойством -Dfastpic.stub=true: тогда resolveBaseUrl возвращает
+ * адрес общего на JVM стенда вместо настоящего сайта.
+ */
+public class FastPicStubServer implements AutoCloseable {
+    public static final String ENABLED_PROPERTY = "fastpic.stub";
+    public static final String PORT_PROPERTY = "fastpic.stub.port";
+    public static final String SESSION_COOKIE = "fastpic_sid";
+
+    // Прозрачный GIF 1x1 - картинка для загрузок по URL
+    private static final byte[] PLACEHOLDER_IMAGE = Base64.getDecoder()
+        .decode("R0lGODlhAQABAIAAAAAAAP///yH5BAEAAAAALAAAAAABAAEAAAIBRAA7");
+
+    private static FastPicStubServer shared;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Path storage;
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private FastPicStubServer(HttpServer server, ExecutorService executor, Path storage) {
+        this.server = server;
+        this.executor = executor;
+        this.storage = storage;
+    }
+
+    /**
+     * Запускает стенд на указанном порту (0 - любой свободный) на loopback-интерфейсе.
+     */
+    public static FastPicStubServer start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        FastPicStubServer stub = new FastPicStubServer(server, executor, Files.createTempDirectory("fastpic-stub"));
+
+        server.createContext("/", stub::handle);
+        server.setExecutor(executor);
+        server.start();
+        return stub;
+    }
+
+    /**
+     * Возвращает адрес общего стенда, если он включен свойством fastpic.stub,
+     * иначе - адрес настоящего сайта.
+     */
+    public static synchronized String resolveBaseUrl(String realUrl) {
+        if (!Boolean.getBoolean(ENABLED_PROPERTY)) {
+            return realUrl;
+        }
+        if (shared == null) {
+            try {
+                shared = start(Integer.getInteger(PORT_PROPERTY, 0));
+            } catch (IOException e) {
+                throw new IllegalStateException("Не удалось запустить стенд FastPic", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(shared::close));
+            System.out.println("Стенд FastPic запущен: " + shared.getBaseUrl());
+        }
+        return shared.getBaseUrl();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int getUploadCount() {
+        return uploads.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        try (Stream<Path> files = Files.walk(storage)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            // Временные файлы удалит ОС
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+
+            if ("GET".equals(method) && ("/".equals(path) || "/index.php".equals(path))) {
+                sendHtml(exchange, 200, Pages.index());
+            } else if ("POST".equals(method) && "/upload".equals(path)) {
+                handleUpload(exchange);
+            } else if ("GET".equals(method) && path.startsWith("/view/")) {
+                handleView(exchange, path.substring("/view/".length()));
+            } else if ("GET".equals(method) && "/my.php".equals(path)) {
+                sendHtml(exchange, 200, Pages.myUploads(sortedUploads(sessionOf(exchange))));
+            } else if ("GET".equals(method) && (path.startsWith("/big/") || path.startsWith("/thumb/"))) {
+                sendImage(exchange, path);
+            } else {
+                sendHtml(exchange, 404, Pages.notFound());
+            }
+        } catch (RuntimeException e) {
+            sendHtml(exchange, 500, Pages.error(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleUpload(HttpExchange exchange) throws IOException {
+        String boundary = MultipartReader.boundaryOf(exchange.getRequestHeaders().getFirst("Content-Type"));
+        if (boundary == null) {
+            sendHtml(exchange, 400, Pages.error("Ожидается multipart/form-data"));
+            return;
+        }
+
+        String session = sessionOf(exchange);
+        if (session == null) {
+            session = UUID.randomUUID().toString();
+            exchange.getResponseHeaders().add("Set-Cookie", SESSION_COOKIE + "=" + session + "; Path=/");
+        }
+
+        List<Upload> batch = new ArrayList<>();
+        MultipartReader reader = new MultipartReader(exchange.getRequestBody(), boundary);
+        MultipartReader.Part part;
+        while ((part = reader.next()) != null) {
+            String filename = part.getFilename();
+            if (filename != null && !filename.isEmpty()) {
+                batch.add(store(session, filename, part.getContentType(), part.getBody()));
+            } else if ("files".equals(part.getName())) {
+                for (String url : part.readString().split("\\s+")) {
+                    if (!url.isEmpty()) {
+                        String name = url.substring(url.lastIndexOf('/') + 1);
+                        batch.add(store(session, name.isEmpty() ? "image.gif" : name, "image/gif",
+                            new ByteArrayInputStream(PLACEHOLDER_IMAGE)));
+                    }
+                }
+            }
+        }
+
+        if (batch.isEmpty()) {
+            sendHtml(exchange, 400, Pages.error("Не выбраны файлы для загрузки"));
+            return;
+        }
+        StringBuilder view = new StringBuilder("/view/");
+        for (Upload upload : batch) {
+            view.append(view.length() > "/view/".length() ? "-" : "").append(upload.id);
+        }
+        exchange.getResponseHeaders().set("Location", view.toString());
+        exchange.sendResponseHeaders(303, -1);
+    }
+
+    private void handleView(HttpExchange exchange, String ids) throws IOException {
+        List<Upload> batch = new ArrayList<>();
+        for (String id : ids.split("-")) {
+            Upload upload = uploads.get(id);
+            if (upload == null) {
+                sendHtml(exchange, 404, Pages.notFound());
+                return;
+            }
+            batch.add(upload);
+        }
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        sendHtml(exchange, 200, Pages.uploaded(batch, imageHost(host)));
+    }
+
+    private Upload store(String session, String filename, String contentType, InputStream body)
+            throws IOException {
+        String id = String.valueOf(ids.incrementAndGet());
+        Path file = storage.resolve(id);
+        long size = Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+        Upload upload = new Upload(id, session, filename, contentType, size, file);
+        uploads.put(id, upload);
+        return upload;
+    }
+
+    private void sendImage(HttpExchange exchange, String path) throws IOException {
+        String[] segments = path.split("/");
+        Upload upload = segments.length > 2 ? uploads.get(segments[2]) : null;
+        if (upload == null) {
+            sendHtml(exchange, 404, Pages.notFound());
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", upload.contentType);
+        exchange.sendResponseHeaders(200, upload.size);
+        try (OutputStream out = exchange.getResponseBody()) {
+            Files.copy(upload.file, out);
+        }
+    }
+
+    /**
+     * Загрузки сессии, новые первыми; без сессии список пуст.
+     */
+    private List<Upload> sortedUploads(String session) {
+        List<Upload> sorted = new ArrayList<>();
+        for (Upload upload : uploads.values()) {
+            if (upload.session.equals(session)) {
+                sorted.add(upload);
+            }
+        }
+        sorted.sort(Comparator.comparingLong((Upload upload) -> Long.parseLong(upload.id)).reversed());
+        return sorted;
+    }
+
+    private static String sessionOf(HttpExchange exchange) {
+        for (String header : exchange.getRequestHeaders().getOrDefault("Cookie", List.of())) {
+            for (String cookie : header.split(";")) {
+                String[] pair = cookie.trim().split("=", 2);
+                if (pair.length == 2 && SESSION_COOKIE.equals(pair[0]) && !pair[1].isEmpty()) {
+                    return pair[1];
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Ссылки на картинки ведут на *.localhost: браузеры направляют такие имена на loopback,
+     * а проверки тестов ожидают домен вида fastpic.*.
+     */
+    private String imageHost(String host) {
+        String port = String.valueOf(server.getAddress().getPort());
+        if (host != null && host.contains(":")) {
+            port = host.substring(host.lastIndexOf(':') + 1);
+        }
+        return "http://i.fastpic.localhost:" + port;
+    }
+
+    private static void sendHtml(HttpExchange exchange, int status, String html) throws IOException {
+        byte[] body = html.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Запуск стенда отдельным процессом: gradle fastpic-stub:run --args=8080
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        FastPicStubServer stub = start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+        System.out.println("Стенд FastPic запущен: " + stub.getBaseUrl());
+    }
+
+    static class Upload {
+        final String id;
+        final String session;
+        final String filename;
+        final String contentType;
+        final long size;
+        final Path file;
+
+        Upload(String id, String session, String filename, String contentType, long size, Path file) {
+            this.id = id;
+            this.session = session;
+            this.filename = filename;
+            this.contentType = contentType;
+            this.size = size;
+            this.file = file;
+        }
+    }
+}
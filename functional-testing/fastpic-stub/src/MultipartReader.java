@@ -0,0 +1,272 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Потоковый разбор тела multipart/form-data.
+ * Части читаются по одной через небольшой буфер, поэтому файлы любого размера
+ * не загружаются в память целиком.
+ */
+class MultipartReader {
+    private static final Pattern DISPOSITION_PARAM = Pattern.compile("(\\w+)=\"([^\"]*)\"");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int pos;
+    private int limit;
+    private boolean eof;
+    private boolean started;
+    private boolean finished;
+    private Part current;
+
+    MultipartReader(InputStream in, String boundary) {
+        this(in, boundary, BUFFER_SIZE);
+    }
+
+    /**
+     * Буфер должен вмещать разделитель целиком вместе с остатком предыдущего чтения.
+     */
+    MultipartReader(InputStream in, String boundary, int bufferSize) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        if (bufferSize < 2 * delimiter.length) {
+            throw new IllegalArgumentException("Буфер " + bufferSize + " байт меньше двух разделителей");
+        }
+        this.buffer = new byte[bufferSize];
+        // Первый разделитель идет без перевода строки перед ним - добавляем его сами
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        limit = 2;
+    }
+
+    /**
+     * Извлекает boundary из заголовка Content-Type или возвращает null.
+     */
+    static String boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/form-data")) {
+            return null;
+        }
+        int index = contentType.indexOf("boundary=");
+        if (index < 0) {
+            return null;
+        }
+        String boundary = contentType.substring(index + "boundary=".length());
+        int end = boundary.indexOf(';');
+        if (end >= 0) {
+            boundary = boundary.substring(0, end);
+        }
+        return boundary.replace("\"", "").trim();
+    }
+
+    /**
+     * Переходит к следующей части. Непрочитанный остаток текущей части пропускается.
+     */
+    Part next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (current != null) {
+            current.body.transferTo(OutputStream.nullOutputStream());
+        } else if (!started) {
+            skipToDelimiter();
+        }
+        started = true;
+
+        if (!ensure(2)) {
+            finished = true;
+            return null;
+        }
+        if (buffer[pos] == '-' && buffer[pos + 1] == '-') {
+            finished = true;
+            skipEpilogue();
+            return null;
+        }
+        readLine();
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        String line;
+        while ((line = readLine()) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+        }
+        current = new Part(headers, new PartStream());
+        return current;
+    }
+
+    /**
+     * Дочитывает тело после завершающего разделителя: HttpServer закрывает соединение,
+     * если тело запроса прочитано не до конца, и клиент не может его переиспользовать.
+     */
+    private void skipEpilogue() throws IOException {
+        pos = limit;
+        while (!eof) {
+            eof = in.read(buffer, 0, buffer.length) < 0;
+        }
+    }
+
+    private void skipToDelimiter() throws IOException {
+        PartStream preamble = new PartStream();
+        preamble.transferTo(OutputStream.nullOutputStream());
+    }
+
+    /**
+     * Читает байты текущей части до ближайшего разделителя.
+     */
+    private int readBody(byte[] target, int offset, int length) throws IOException {
+        ensure(delimiter.length);
+        int found = indexOfDelimiter();
+        int available;
+        if (found == pos) {
+            pos += delimiter.length;
+            return -1;
+        } else if (found > 0) {
+            available = found - pos;
+        } else if (eof) {
+            available = limit - pos;
+            if (available == 0) {
+                throw new IOException("Тело multipart оборвалось без завершающего разделителя");
+            }
+        } else {
+            // Хвост буфера может оказаться началом разделителя - его оставляем
+            available = limit - pos - (delimiter.length - 1);
+        }
+        int count = Math.min(length, available);
+        System.arraycopy(buffer, pos, target, offset, count);
+        pos += count;
+        return count;
+    }
+
+    private int indexOfDelimiter() {
+        outer:
+        for (int i = pos; i <= limit - delimiter.length; i++) {
+            for (int j = 0; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        byte[] bytes = new byte[256];
+        int length = 0;
+        while (true) {
+            if (!ensure(1)) {
+                return length == 0 && line.length() == 0 ? null : line.toString();
+            }
+            byte b = buffer[pos++];
+            if (b == '\n') {
+                if (length > 0 && bytes[length - 1] == '\r') {
+                    length--;
+                }
+                return new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, length * 2);
+            }
+            bytes[length++] = b;
+        }
+    }
+
+    /**
+     * Дочитывает буфер так, чтобы в нем было не меньше count байт (если поток не кончился).
+     */
+    private boolean ensure(int count) throws IOException {
+        if (limit - pos >= count) {
+            return true;
+        }
+        System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+        limit -= pos;
+        pos = 0;
+        while (limit < count && !eof) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                eof = true;
+            } else {
+                limit += read;
+            }
+        }
+        return limit - pos >= count;
+    }
+
+    /**
+     * Одна часть формы: заголовки и поток с содержимым.
+     */
+    static class Part {
+        private final Map<String, String> headers;
+        private final InputStream body;
+        private final Map<String, String> disposition = new LinkedHashMap<>();
+
+        Part(Map<String, String> headers, InputStream body) {
+            this.headers = headers;
+            this.body = body;
+            Matcher matcher = DISPOSITION_PARAM.matcher(headers.getOrDefault("content-disposition", ""));
+            while (matcher.find()) {
+                disposition.put(matcher.group(1), matcher.group(2));
+            }
+        }
+
+        String getName() {
+            return disposition.get("name");
+        }
+
+        /**
+         * Имя файла или null, если часть - обычное поле формы.
+         */
+        String getFilename() {
+            return disposition.get("filename");
+        }
+
+        String getContentType() {
+            return headers.getOrDefault("content-type", "application/octet-stream");
+        }
+
+        InputStream getBody() {
+            return body;
+        }
+
+        String readString() throws IOException {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private class PartStream extends InputStream {
+        private boolean ended;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int count = read(single, 0, 1);
+            return count < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (ended) {
+                return -1;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            int count = readBody(target, offset, length);
+            if (count < 0) {
+                ended = true;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.List;
+
+/**
+ * HTML-страницы стенда FastPic.
+ * Содержат только те элементы и классы, на которые опираются тесты.
+ */
+final class Pages {
+
+    private Pages() {
+    }
+
+    static String index() {
+        return page("FastPic - бесплатный хостинг картинок", ""
+            + "<form id=\"upload_form\" action=\"/upload\" method=\"post\" enctype=\"multipart/form-data\">\n"
+            + "  <div class=\"tabs\">\n"
+            + "    <a id=\"switch_to_upload\" href=\"#\" onclick=\"return switchTab(false)\">С компьютера</a>\n"
+            + "    <a id=\"switch_to_copy\" href=\"#\" onclick=\"return switchTab(true)\">По ссылке</a>\n"
+            + "  </div>\n"
+            + "  <div id=\"upload_block\"><input type=\"file\" id=\"file\" name=\"file[]\" multiple></div>\n"
+            + "  <div id=\"copy_block\" style=\"display:none\">"
+            + "<textarea id=\"upload_files\" name=\"files\" rows=\"5\" cols=\"60\"></textarea></div>\n"
+            + "  <div class=\"upload_settings\">\n"
+            + "    <label><input type=\"checkbox\" id=\"check_orig_resize\" name=\"check_orig_resize\">"
+            + " Уменьшить до</label>\n"
+            + "    <input type=\"text\" id=\"orig-resize\" name=\"orig-resize\" value=\"500\">\n"
+            + "  </div>\n"
+            + "  <input type=\"submit\" id=\"uploadButton\" value=\"Загрузить\">\n"
+            + "</form>\n"
+            + "<script>\n"
+            + "function switchTab(copy) {\n"
+            + "  document.getElementById('upload_block').style.display = copy ? 'none' : 'block';\n"
+            + "  document.getElementById('copy_block').style.display = copy ? 'block' : 'none';\n"
+            + "  return false;\n"
+            + "}\n"
+            + "</script>\n");
+    }
+
+    static String uploaded(List<FastPicStubServer.Upload> uploads, String imageHost) {
+        StringBuilder body = new StringBuilder();
+        for (FastPicStubServer.Upload upload : uploads) {
+            String direct = imageHost + "/big/" + upload.id + "/" + escape(upload.filename);
+            String thumb = imageHost + "/thumb/" + upload.id;
+            body.append("<div class=\"picinfo\">\n")
+                .append("  <img src=\"/thumb/").append(upload.id).append("\" width=\"150\" height=\"150\" alt=\"\">\n")
+                .append("  <span>").append(escape(upload.filename)).append(", ")
+                .append(upload.size).append(" байт</span>\n")
+                .append("</div>\n")
+                .append("<ul class=\"codes-list\">\n")
+                .append(code("Прямая ссылка", direct))
+                .append(code("BB-код", "[URL=" + direct + "][IMG]" + thumb + "[/IMG][/URL]"))
+                .append(code("HTML", "<a href=\"" + direct + "\"><img src=\"" + thumb + "\"></a>"))
+                .append("</ul>\n");
+        }
+        return page("FastPic - картинка загружена", body.toString());
+    }
+
+    static String myUploads(List<FastPicStubServer.Upload> uploads) {
+        StringBuilder body = new StringBuilder()
+            .append("<a id=\"check_all\" href=\"#\">выбрать всё</a>\n")
+            .append("<form id=\"manage-form\" action=\"/my.php\" method=\"post\">\n");
+        for (FastPicStubServer.Upload upload : uploads) {
+            body.append("  <div class=\"thumb\"><img src=\"/thumb/").append(upload.id)
+                .append("\" width=\"150\" height=\"150\" alt=\"").append(escape(upload.filename))
+                .append("\"></div>\n");
+        }
+        body.append("</form>\n");
+        return page("FastPic - мои загрузки", body.toString());
+    }
+
+    static String notFound() {
+        return page("FastPic - страница не найдена", "<p>Страница не найдена</p>");
+    }
+
+    static String error(String message) {
+        return page("FastPic - ошибка", "<p class=\"error\">" + escape(String.valueOf(message)) + "</p>");
+    }
+
+    private static String code(String title, String value) {
+        return "  <li>" + title + ": <input type=\"text\" readonly value=\"" + escape(value) + "\"></li>\n";
+    }
+
+    private static String page(String title, String body) {
+        return "<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>" + escape(title) + "</title></head>\n"
+            + "<body>\n" + body + "</body></html>\n";
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;")
+            .replace("<", "&lt;")
+            .replace(">", "&gt;")
+            .replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,78 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FastPicStubServerTest {
+    private static final String BOUNDARY = "----stub-test";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private FastPicStubServer stub;
+
+    @BeforeEach
+    void start() throws Exception {
+        stub = FastPicStubServer.start(0);
+    }
+
+    @AfterEach
+    void stop() {
+        stub.close();
+    }
+
+    @Test
+    void myUploadsShowsOnlyUploadsOfSession() throws Exception {
+        HttpResponse<String> first = upload("first.jpg", null);
+        assertEquals(303, first.statusCode());
+        String cookie = first.headers().firstValue("Set-Cookie").orElseThrow().split(";")[0];
+        assertTrue(cookie.startsWith(FastPicStubServer.SESSION_COOKIE + "="), cookie);
+
+        // Вторая загрузка в той же сессии не выдает новую cookie
+        HttpResponse<String> second = upload("second.jpg", cookie);
+        assertFalse(second.headers().firstValue("Set-Cookie").isPresent());
+        String other = upload("other.jpg", null).headers().firstValue("Set-Cookie").orElseThrow().split(";")[0];
+
+        String mine = myUploads(cookie);
+        assertTrue(mine.contains("first.jpg") && mine.contains("second.jpg"), mine);
+        assertFalse(mine.contains("other.jpg"), mine);
+        assertTrue(myUploads(other).contains("other.jpg"));
+
+        String anonymous = myUploads(null);
+        assertTrue(anonymous.contains("manage-form"), anonymous);
+        assertFalse(anonymous.contains("class=\"thumb\""), anonymous);
+        assertEquals(3, stub.getUploadCount());
+    }
+
+    private HttpResponse<String> upload(String filename, String cookie) throws Exception {
+        String body = "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"file[]\"; filename=\"" + filename + "\"\r\n"
+            + "Content-Type: image/jpeg\r\n\r\n"
+            + "jpeg bytes\r\n"
+            + "--" + BOUNDARY + "--\r\n";
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(stub.getBaseUrl() + "/upload"))
+            .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+            .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+        if (cookie != null) {
+            request.header("Cookie", cookie);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String myUploads(String cookie) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(stub.getBaseUrl() + "/my.php"));
+        if (cookie != null) {
+            request.header("Cookie", cookie);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return response.body();
+    }
+}
@@ -0,0 +1,127 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MultipartReaderTest {
+    private static final String BOUNDARY = "----boundary42";
+    private static final int[] CHUNKS = {1, 2, 3, 7, 17, 64};
+    private static final int[] BUFFERS = {2 * (BOUNDARY.length() + 4), 41, 128, 64 * 1024};
+
+    @Test
+    void readsPartsFromChunkedInput() throws IOException {
+        // В файле есть CRLF, начало разделителя и boundary без CRLF перед ним
+        byte[] file = ("line 1\r\nline 2\r\n\r\n--" + BOUNDARY.substring(0, 8) + "\r\nx--" + BOUNDARY + "\r\n")
+            .getBytes(StandardCharsets.ISO_8859_1);
+        byte[] body = concat(
+            "preamble\r\n--" + BOUNDARY + "\r\n",
+            "Content-Disposition: form-data; name=\"resize\"\r\n\r\n",
+            "500\r\n--" + BOUNDARY + "\r\n",
+            "Content-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\n",
+            "Content-Type: text/plain\r\n\r\n",
+            file,
+            "\r\n--" + BOUNDARY + "--\r\nepilogue");
+
+        for (int chunk : CHUNKS) {
+            for (int buffer : BUFFERS) {
+                String where = "chunk " + chunk + ", buffer " + buffer;
+                ChunkedInputStream in = new ChunkedInputStream(body, chunk);
+                MultipartReader reader = new MultipartReader(in, BOUNDARY, buffer);
+
+                MultipartReader.Part field = reader.next();
+                assertEquals("resize", field.getName(), where);
+                assertNull(field.getFilename(), where);
+                assertEquals("500", field.readString(), where);
+
+                MultipartReader.Part upload = reader.next();
+                assertEquals("a.txt", upload.getFilename(), where);
+                assertEquals("text/plain", upload.getContentType(), where);
+                assertArrayEquals(file, upload.getBody().readAllBytes(), where);
+
+                assertNull(reader.next(), where);
+                assertNull(reader.next(), where);
+                assertEquals(0, in.available(), "Эпилог должен быть дочитан, " + where);
+            }
+        }
+    }
+
+    @Test
+    void skipsUnreadPartsAndKeepsBinaryBody() throws IOException {
+        byte[] file = new byte[10_000];
+        new Random(1).nextBytes(file);
+        byte[] body = concat(
+            "--" + BOUNDARY + "\r\n",
+            "Content-Disposition: form-data; name=\"skipped\"; filename=\"b.bin\"\r\n\r\n",
+            file,
+            "\r\n--" + BOUNDARY + "\r\n",
+            "Content-Disposition: form-data; name=\"empty\"\r\n\r\n",
+            "\r\n--" + BOUNDARY + "\r\n",
+            "Content-Disposition: form-data; name=\"file\"; filename=\"c.bin\"\r\n\r\n",
+            file,
+            "\r\n--" + BOUNDARY + "--");
+
+        for (int chunk : CHUNKS) {
+            String where = "chunk " + chunk;
+            MultipartReader reader = new MultipartReader(new ChunkedInputStream(body, chunk), BOUNDARY, 41);
+            assertEquals("skipped", reader.next().getName(), where);
+            MultipartReader.Part empty = reader.next();
+            assertEquals("empty", empty.getName(), where);
+            assertEquals("", empty.readString(), where);
+            assertArrayEquals(file, reader.next().getBody().readAllBytes(), where);
+            assertNull(reader.next(), where);
+        }
+    }
+
+    @Test
+    void failsOnBodyWithoutFinalDelimiter() throws IOException {
+        byte[] body = concat(
+            "--" + BOUNDARY + "\r\n",
+            "Content-Disposition: form-data; name=\"file\"; filename=\"d.txt\"\r\n\r\n",
+            "cut off\r\n--" + BOUNDARY.substring(0, 5));
+        MultipartReader reader = new MultipartReader(new ChunkedInputStream(body, 3), BOUNDARY, 41);
+        InputStream part = reader.next().getBody();
+        assertThrows(IOException.class, part::readAllBytes);
+    }
+
+    @Test
+    void parsesBoundaryFromContentType() {
+        assertEquals(BOUNDARY, MultipartReader.boundaryOf("multipart/form-data; boundary=" + BOUNDARY));
+        assertEquals("abc", MultipartReader.boundaryOf("Multipart/Form-Data; boundary=\"abc\"; charset=UTF-8"));
+        assertNull(MultipartReader.boundaryOf("application/x-www-form-urlencoded"));
+        assertNull(MultipartReader.boundaryOf(null));
+    }
+
+    private static byte[] concat(Object... pieces) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Object piece : pieces) {
+            out.write(piece instanceof byte[] ? (byte[]) piece : ((String) piece).getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Поток, который отдает не больше chunk байт за чтение, как тело запроса по сети.
+     */
+    private static class ChunkedInputStream extends ByteArrayInputStream {
+        private final int chunk;
+
+        ChunkedInputStream(byte[] bytes, int chunk) {
+            super(bytes);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public synchronized int read(byte[] target, int offset, int length) {
+            return super.read(target, offset, Math.min(length, chunk));
+        }
+    }
+}
@@ -13,23 +13,17 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
-
-import io.github.bonigarcia.wdm.WebDriverManager;
 
 
 public class FastPicGifUploadTest {
     public static WebDriver driver;
     
-    public static final String BASE_URL = "https://fastpic.org";
+    public static final String BASE_URL = FastPicStubServer.resolveBaseUrl("https://fastpic.org");
     public static final int DEFAULT_TIMEOUT = 3;
 
     public static final String DOCS_BASE_PATH;
     public static final String JPG_IMAGE_PATH;
     public static final String PNG_IMAGE_PATH;
-    public static final String GIF_IMAGE_PATH;
-    public static final String LARGE_IMAGE_PATH;
 
     public static final String TEST_IMAGE_URL = "https://placekitten.com/800/600";
 
@@ -42,12 +36,19 @@ public class FastPicGifUploadTest {
         
         JPG_IMAGE_PATH = DOCS_BASE_PATH + "/test.jpg";
         PNG_IMAGE_PATH = DOCS_BASE_PATH + "/test.png";
-        GIF_IMAGE_PATH = DOCS_BASE_PATH + "/test.gif";
-        LARGE_IMAGE_PATH = DOCS_BASE_PATH + "/large.jpg";
+    }
+
+    // GIF и большой JPG создаются ImageCorpus при первом вызове, не в static-блоке
+    public static String gifImagePath() {
+        return ImageCorpus.path("gif:320x240");
+    }
+
+    public static String largeImagePath() {
+        return ImageCorpus.path("jpg:4000x3000:8MB");
     }
     @BeforeAll
     public static void setup() {
-        WebDriverManager.chromiumdriver().setup();
+        DriverBinaryResolver.resolveChromium();
         driver = new ChromeDriver();
         driver.manage().window().maximize();
     }
@@ -69,8 +70,7 @@ public class FastPicGifUploadTest {
     }
     
     private WebElement findByXPath(String xpath, int timeoutInSeconds) {
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutInSeconds));
-        return wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath(xpath)));
+        return Waits.forDriver(driver).presence(By.xpath(xpath), Duration.ofSeconds(timeoutInSeconds));
     }
 
     
@@ -82,7 +82,7 @@ public class FastPicGifUploadTest {
     public void testUploadGifImage() {
         WebElement fileInput = findByXPath("//input[@type='file' and @id='file']");
 
-        fileInput.sendKeys(GIF_IMAGE_PATH);
+        fileInput.sendKeys(gifImagePath());
 
         WebElement uploadButton = findByXPath("//input[@type='submit' and @id='uploadButton']");
         uploadButton.click();
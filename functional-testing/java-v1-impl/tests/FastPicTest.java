@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -14,22 +15,19 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
-
-import io.github.bonigarcia.wdm.WebDriverManager;
 
 public class FastPicTest {
     public static WebDriver driver;
+
+    // Загрузка JPG выполняется один раз на сессию и общая для тестов, которым нужен ее результат
+    private static final FixtureCache fixtures = new FixtureCache();
     
-    public static final String BASE_URL = "https://fastpic.org";
+    public static final String BASE_URL = FastPicStubServer.resolveBaseUrl("https://fastpic.org");
     public static final int DEFAULT_TIMEOUT = 3;
 
     public static final String DOCS_BASE_PATH;
     public static final String JPG_IMAGE_PATH;
     public static final String PNG_IMAGE_PATH;
-    public static final String GIF_IMAGE_PATH;
-    public static final String LARGE_IMAGE_PATH;
 
     public static final String TEST_IMAGE_URL = "https://placekitten.com/800/600";
 
@@ -42,13 +40,20 @@ public class FastPicTest {
         
         JPG_IMAGE_PATH = DOCS_BASE_PATH + "/test.jpg";
         PNG_IMAGE_PATH = DOCS_BASE_PATH + "/test.png";
-        GIF_IMAGE_PATH = DOCS_BASE_PATH + "/test.gif";
-        LARGE_IMAGE_PATH = DOCS_BASE_PATH + "/large.jpg";
+    }
+
+    // GIF и большой JPG нет в docs - ImageCorpus создает их при первом вызове
+    public static String gifImagePath() {
+        return ImageCorpus.path("gif:320x240");
+    }
+
+    public static String largeImagePath() {
+        return ImageCorpus.path("jpg:4000x3000:8MB");
     }
 
     @BeforeAll
     public static void setup() {
-        WebDriverManager.chromiumdriver().setup();
+        DriverBinaryResolver.resolveChromium();
         driver = new ChromeDriver();
         driver.manage().window().maximize();
     }
@@ -56,6 +61,7 @@ public class FastPicTest {
     @AfterAll
     public static void teardown() {
         if (driver != null) {
+            fixtures.invalidate(driver);
             driver.quit();
         }
     }
@@ -70,8 +76,40 @@ public class FastPicTest {
     }
     
     private WebElement findByXPath(String xpath, int timeoutInSeconds) {
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutInSeconds));
-        return wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath(xpath)));
+        return Waits.forDriver(driver).presence(By.xpath(xpath), Duration.ofSeconds(timeoutInSeconds));
+    }
+
+    /**
+     * Находит все элементы по XPath одной командой браузера с ожиданием их появления.
+     */
+    private PageSnapshot findByXPath(Map<String, String> xpaths) {
+        PageQuery query = PageQuery.on(driver);
+        xpaths.forEach(query::xpath);
+        return query.awaitPresence(Duration.ofSeconds(DEFAULT_TIMEOUT));
+    }
+
+    /**
+     * Загрузка JPG_IMAGE_PATH; результат - страница загруженной картинки и ссылки на нее.
+     */
+    static class JpgUpload implements Fixture {
+        @Override
+        public FixtureState setUp(WebDriver driver) {
+            AdaptiveWait waits = Waits.forDriver(driver);
+            Duration timeout = Duration.ofSeconds(DEFAULT_TIMEOUT);
+            waits.presence(By.xpath("//input[@type='file' and @id='file']"), timeout).sendKeys(JPG_IMAGE_PATH);
+            waits.presence(By.xpath("//input[@type='submit' and @id='uploadButton']"), timeout).click();
+            waits.presence(By.xpath("//div[contains(@class, 'picinfo')]"), timeout);
+
+            List<WebElement> links = driver.findElements(By.xpath("//ul[contains(@class, 'codes-list')]//input"));
+            FixtureState state = FixtureState.capture(driver);
+            if (!links.isEmpty()) {
+                state = state.with("directLink", links.get(0).getAttribute("value"));
+            }
+            if (links.size() > 1) {
+                state = state.with("bbCode", links.get(1).getAttribute("value"));
+            }
+            return state;
+        }
     }
 
     /**
@@ -83,14 +121,13 @@ public class FastPicTest {
         String title = driver.getTitle();
         assertTrue(title.contains("FastPic"), "Заголовок страницы должен содержать 'FastPic'");
 
-        WebElement fileInput = findByXPath("//input[@type='file']");
-        assertTrue(fileInput.isDisplayed(), "Элемент загрузки файла должен быть видим");
-
-        WebElement uploadSettings = findByXPath("//div[contains(@class, 'upload_settings')]");
-        assertTrue(uploadSettings.isDisplayed(), "Настройки загрузки должны быть видимы");
-
-        WebElement uploadButton = findByXPath("//input[@type='submit' and @id='uploadButton']");
-        assertTrue(uploadButton.isDisplayed(), "Кнопка загрузки должна быть видима");
+        PageSnapshot page = findByXPath(Map.of(
+            "fileInput", "//input[@type='file']",
+            "uploadSettings", "//div[contains(@class, 'upload_settings')]",
+            "uploadButton", "//input[@type='submit' and @id='uploadButton']"));
+        assertTrue(page.isDisplayed("fileInput"), "Элемент загрузки файла должен быть видим");
+        assertTrue(page.isDisplayed("uploadSettings"), "Настройки загрузки должны быть видимы");
+        assertTrue(page.isDisplayed("uploadButton"), "Кнопка загрузки должна быть видима");
     }
 
     /**
@@ -98,13 +135,8 @@ public class FastPicTest {
      */
     @Test
     @DisplayName("Загрузка JPG изображения с компьютера")
-    public void testUploadJpgImage() {
-        WebElement fileInput = findByXPath("//input[@type='file' and @id='file']");
-
-        fileInput.sendKeys(JPG_IMAGE_PATH);
-
-        WebElement uploadButton = findByXPath("//input[@type='submit' and @id='uploadButton']");
-        uploadButton.click();
+    public void testUploadJpgImage() throws Exception {
+        fixtures.get(driver, JpgUpload.class, true);
 
         WebElement picInfoDiv = findByXPath("//div[contains(@class, 'picinfo')]");
         assertTrue(picInfoDiv.isDisplayed(), "Информация об изображении должна отображаться");
@@ -129,7 +161,7 @@ public class FastPicTest {
     public void testUploadLargeJpgImage() {
         WebElement fileInput = findByXPath("//input[@type='file' and @id='file']");
 
-        fileInput.sendKeys(LARGE_IMAGE_PATH);
+        fileInput.sendKeys(largeImagePath());
 
         WebElement uploadButton = findByXPath("//input[@type='submit' and @id='uploadButton']");
         uploadButton.click();
@@ -219,15 +251,8 @@ public class FastPicTest {
      */
     @Test
     @DisplayName("Проверка страницы 'Мои загрузки'")
-    public void testMyUploadsPage() {
-        WebElement fileInput = findByXPath("//input[@type='file' and @id='file']");
-
-        fileInput.sendKeys(JPG_IMAGE_PATH);
-
-        WebElement uploadButton = findByXPath("//input[@type='submit' and @id='uploadButton']");
-        uploadButton.click();
-
-        WebElement picInfoDiv = findByXPath("//div[contains(@class, 'picinfo')]");
+    public void testMyUploadsPage() throws Exception {
+        fixtures.get(driver, JpgUpload.class, false);
 
         driver.get(BASE_URL + "/my.php");
 
@@ -250,14 +275,8 @@ public class FastPicTest {
      */
     @Test
     @DisplayName("Проверка сгенерированных ссылок")
-    public void testImageLinks() {
-        WebElement fileInput = findByXPath("//input[@type='file' and @id='file']");
-        fileInput.sendKeys(JPG_IMAGE_PATH);
-
-        WebElement uploadButton = findByXPath("//input[@id='uploadButton']");
-        uploadButton.click();
-
-        WebElement picInfoDiv = findByXPath("//div[contains(@class, 'picinfo')]");
+    public void testImageLinks() throws Exception {
+        fixtures.get(driver, JpgUpload.class, true);
 
         List<WebElement> linkInputs = driver.findElements(By.xpath("//ul[contains(@class, 'codes-list')]//input"));
         assertTrue(linkInputs.size() > 0, "Должна быть хотя бы одна ссылка на изображение");
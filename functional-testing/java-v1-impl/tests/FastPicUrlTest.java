@@ -14,16 +14,12 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
-
-import io.github.bonigarcia.wdm.WebDriverManager;
 
 
 public class FastPicUrlTest {
     public static WebDriver driver;
     
-    public static final String BASE_URL = "https://fastpic.org";
+    public static final String BASE_URL = FastPicStubServer.resolveBaseUrl("https://fastpic.org");
     
     public static final int DEFAULT_TIMEOUT = 3;
     
@@ -36,7 +32,7 @@ public class FastPicUrlTest {
 
     @BeforeAll
     public static void setup() {
-        WebDriverManager.chromiumdriver().setup();
+        DriverBinaryResolver.resolveChromium();
         driver = new ChromeDriver();
         driver.manage().window().maximize();
     }
@@ -58,8 +54,7 @@ public class FastPicUrlTest {
     }
     
     private WebElement findByXPath(String xpath, int timeoutInSeconds) {
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutInSeconds));
-        return wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath(xpath)));
+        return Waits.forDriver(driver).presence(By.xpath(xpath), Duration.ofSeconds(timeoutInSeconds));
     }
 
     /**
@@ -1,19 +1,10 @@
 import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.Map;
 
-import org.junit.jupiter.api.AfterEach;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.edge.EdgeDriver;
-import org.openqa.selenium.firefox.FirefoxDriver;
-import org.openqa.selenium.firefox.FirefoxOptions;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
-
-import io.github.bonigarcia.wdm.WebDriverManager;
 
 /**
  * Базовый класс для тестов с браузерами.
@@ -21,7 +12,7 @@ import io.github.bonigarcia.wdm.WebDriverManager;
  */
 public abstract class BaseBrowserTest implements BaseBrowserTestI {
     // Константы
-    public static final String BASE_URL = "https://fastpic.org";
+    public static final String BASE_URL = FastPicStubServer.resolveBaseUrl("https://fastpic.org");
     public static final int DEFAULT_TIMEOUT = 3;
     
     public static final String DOCS_BASE_PATH = Paths.get("")
@@ -32,13 +23,18 @@ public abstract class BaseBrowserTest implements BaseBrowserTestI {
     
     public static final String JPG_IMAGE_PATH = DOCS_BASE_PATH + "/test.jpg";
     public static final String PNG_IMAGE_PATH = DOCS_BASE_PATH + "/test.png";
-    public static final String GIF_IMAGE_PATH = DOCS_BASE_PATH + "/test.gif";
-    public static final String LARGE_IMAGE_PATH = DOCS_BASE_PATH + "/large.jpg";
     
     public static final String TEST_IMAGE_URL = "https://placekitten.com/800/600";
-    
-    // WebDriver для текущего теста
-    protected WebDriver driver;
+
+    // GIF и большой JPG нет в docs - их создает ImageCorpus при первом обращении,
+    // а не при загрузке класса: 8MB картинка нужна не каждому тесту
+    public static String gifImagePath() {
+        return ImageCorpus.path("gif:320x240");
+    }
+
+    public static String largeImagePath() {
+        return ImageCorpus.path("jpg:4000x3000:8MB");
+    }
     
     /**
      * Возвращает базовый URL для тестов.
@@ -49,69 +45,28 @@ public abstract class BaseBrowserTest implements BaseBrowserTestI {
     }
     
     /**
-     * Создает и настраивает WebDriver для указанного браузера.
+     * Создает и настраивает новый WebDriver для указанного браузера и профиля запуска.
+     * Неявные ожидания отключены: элементы ищутся через findByXPath с явным ожиданием.
      */
     @Override
-    public WebDriver setupDriver(Browser browser) {
-        if (driver != null) {
-            try {
-                driver.quit();
-            } catch (Exception e) {
-                // Ignore errors when closing
-            }
-        }
-        driver = createDriver(browser);
-        if (driver != null) {
-            driver.manage().window().maximize();
-            driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(5));
-        }
-        return driver;
+    public WebDriver setupDriver(Browser browser, LaunchProfile profile) {
+        return createDriver(browser, profile);
     }
     
     /**
-     * Закрывает WebDriver после теста.
+     * Возвращает WebDriver текущего теста.
+     * Сессия привязана к потоку, поэтому тесты можно запускать параллельно.
      */
-    @Override
-    @AfterEach
-    public void tearDown() {
-        if (driver != null) {
-            try {
-                driver.quit();
-            } catch (Exception e) {
-                // Ignore errors during cleanup
-            }
-            driver = null;
-        }
+    protected WebDriver driver() {
+        return DriverHandle.get();
     }
     
     /**
      * Создает экземпляр WebDriver для указанного браузера.
      */
-    protected WebDriver createDriver(Browser browser) {
+    protected WebDriver createDriver(Browser browser, LaunchProfile profile) {
         try {
-            switch (browser) {
-                case CHROME:
-                    WebDriverManager.chromedriver().setup();
-                    ChromeOptions chromeOptions = new ChromeOptions();
-                    chromeOptions.addArguments("--remote-allow-origins=*");
-                    return new ChromeDriver(chromeOptions);
-                
-            case FIREFOX:
-                WebDriverManager.firefoxdriver().setup();
-                FirefoxOptions options = new FirefoxOptions();
-                // Add options to help with Wayland issues
-                options.addArguments("--no-sandbox");
-                options.addArguments("--disable-dev-shm-usage");
-                options.addArguments("--disable-gpu");
-                return new FirefoxDriver(options);
-
-                case EDGE:
-                    WebDriverManager.edgedriver().setup();
-                    return new EdgeDriver();
-                
-                default:
-                    throw new IllegalArgumentException("Неподдерживаемый браузер: " + browser);
-            }
+            return DriverFactory.create(browser, profile);
         } catch (Exception e) {
             System.out.println("Ошибка при создании драйвера: " + e.getMessage());
             return null;
@@ -129,7 +84,23 @@ public abstract class BaseBrowserTest implements BaseBrowserTestI {
      * Находит элемент по XPath с указанным таймаутом.
      */
     protected WebElement findByXPath(String xpath, int timeoutInSeconds) {
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutInSeconds));
-        return wait.until(ExpectedConditions.presenceOfElementLocated(By.xpath(xpath)));
+        return Waits.forDriver(driver()).presence(By.xpath(xpath), Duration.ofSeconds(timeoutInSeconds));
+    }
+    
+    /**
+     * Пакетный режим: находит все элементы по XPath одной командой браузера
+     * и ждет, пока не появится каждый. Ключи - имена элементов в результате.
+     */
+    protected PageSnapshot findByXPath(Map<String, String> xpaths) {
+        return findByXPath(xpaths, DEFAULT_TIMEOUT);
+    }
+    
+    /**
+     * Пакетный режим с указанным таймаутом.
+     */
+    protected PageSnapshot findByXPath(Map<String, String> xpaths, int timeoutInSeconds) {
+        PageQuery query = PageQuery.on(driver());
+        xpaths.forEach(query::xpath);
+        return query.awaitPresence(Duration.ofSeconds(timeoutInSeconds));
     }
 }
@@ -1,7 +1,13 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.jupiter.api.DisplayName;
 import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
 /**
@@ -13,55 +19,170 @@ public class FastPicTest extends BaseBrowserTest {
     /**
      * Тест главной страницы - только для Edge
      */
-    @AutoBrowser(value = Browser.EDGE, url = BASE_URL, name = "Главная страница в {0}")
+    @AutoBrowser(value = Browser.EDGE, name = "Главная страница в {0}")
+    @PerfBudget(ttfb = 1500, load = 5000, bytes = 3_000_000)
     @DisplayName("Проверка главной страницы")
     void testMainPage(Browser browser) {
         System.out.println("testMainPage запущен с браузером: " + browser);
         
         // Проверка заголовка страницы
-        String title = driver.getTitle();
+        String title = driver().getTitle();
         assertTrue(title.contains("FastPic"), "Заголовок страницы должен содержать 'FastPic'");
 
-        // Проверка элементов
-        WebElement fileInput = driver.findElement(By.xpath("//input[@type='file']"));
-        assertTrue(fileInput.isDisplayed(), "Элемент загрузки файла должен быть видим");
+        // Проверка элементов одним запросом к браузеру
+        PageSnapshot page = findByXPath(Map.of(
+            "fileInput", "//input[@type='file']",
+            "uploadSettings", "//div[contains(@class, 'upload_settings')]",
+            "uploadButton", "//input[@type='submit' and @id='uploadButton']"));
+        assertTrue(page.isDisplayed("fileInput"), "Элемент загрузки файла должен быть видим");
+        assertTrue(page.isDisplayed("uploadSettings"), "Настройки загрузки должны быть видимы");
+        assertTrue(page.isDisplayed("uploadButton"), "Кнопка загрузки должна быть видима");
+    }
+
+    /**
+     * Проверка DOM главной страницы и вкладок в HtmlUnit: без запуска браузера,
+     * поэтому такие проверки можно гонять плотно и часто
+     */
+    @AutoBrowser(value = Browser.HTMLUNIT, name = "DOM главной страницы в {0}")
+    @DisplayName("Проверка DOM главной страницы")
+    void testMainPageDom(Browser browser) {
+        assertTrue(driver().getTitle().contains("FastPic"), "Заголовок страницы должен содержать 'FastPic'");
 
-        WebElement uploadSettings = driver.findElement(By.xpath("//div[contains(@class, 'upload_settings')]"));
-        assertTrue(uploadSettings.isDisplayed(), "Настройки загрузки должны быть видимы");
+        PageSnapshot page = findByXPath(Map.of(
+            "fileInput", "//input[@type='file' and @id='file']",
+            "uploadButton", "//input[@type='submit' and @id='uploadButton']",
+            "urlTab", "//a[@id='switch_to_copy']"));
+        assertTrue(page.isPresentAll(), "Форма загрузки должна содержать все элементы");
 
-        WebElement uploadButton = driver.findElement(By.xpath("//input[@type='submit' and @id='uploadButton']"));
-        assertTrue(uploadButton.isDisplayed(), "Кнопка загрузки должна быть видима");
+        findByXPath("//a[@id='switch_to_copy']").click();
+        assertTrue(findByXPath("//textarea[@id='upload_files']").isDisplayed(),
+            "Поле для ввода URL должно быть видимым");
     }
 
     /**
      * Тест только для Chrome
      */
-    @AutoBrowser(value = Browser.CHROME, url = BASE_URL, name = "Chrome тест")
+    @AutoBrowser(value = Browser.CHROME, name = "Chrome тест")
     @DisplayName("Тест только в Chrome")
     void testChromeOnly(Browser browser) {
         System.out.println("testChromeOnly запущен с браузером: " + browser);
         
         // Базовая проверка
-        String title = driver.getTitle();
+        String title = driver().getTitle();
         assertTrue(title.contains("FastPic"), "Заголовок страницы должен содержать 'FastPic'");
 
-        WebElement fileInput = driver.findElement(By.xpath("//input[@type='file']"));
+        WebElement fileInput = findByXPath("//input[@type='file']");
         assertTrue(fileInput.isDisplayed(), "Элемент загрузки файла должен быть видим");
     }
 
     /**
      * Тест для всех браузеров кроме Firefox
      */
-    @AutoBrowser(value = Browser.FIREFOX, exclude = true, url = BASE_URL, name = "Вкладки в {0}")
+    @AutoBrowser(value = Browser.FIREFOX, exclude = true, name = "Вкладки в {0}")
     @DisplayName("Проверка вкладок (кроме Firefox)")
     void testTabsExceptEdge(Browser browser) {
         System.out.println("testTabsExceptEdge запущен с браузером: " + browser);
         
         // Проверяем переключение вкладок
-        WebElement urlTabLink = driver.findElement(By.xpath("//a[@id='switch_to_copy']"));
+        WebElement urlTabLink = findByXPath("//a[@id='switch_to_copy']");
         urlTabLink.click();
 
-        WebElement urlTextarea = driver.findElement(By.xpath("//textarea[@id='upload_files']"));
+        WebElement urlTextarea = findByXPath("//textarea[@id='upload_files']");
         assertTrue(urlTextarea.isDisplayed(), "Поле для ввода URL должно быть видимым");
     }
-}
\ No newline at end of file
+
+    /**
+     * Загрузка JPG - выполняется один раз на сессию браузера, остальные тесты
+     * с @CachedFixture(JpgUpload.class) получают ее результат.
+     */
+    static class JpgUpload implements Fixture {
+        @Override
+        public FixtureState setUp(WebDriver driver) {
+            AdaptiveWait waits = Waits.forDriver(driver);
+            Duration timeout = Duration.ofSeconds(DEFAULT_TIMEOUT);
+            waits.presence(By.xpath("//input[@type='file' and @id='file']"), timeout).sendKeys(JPG_IMAGE_PATH);
+            waits.presence(By.xpath("//input[@type='submit' and @id='uploadButton']"), timeout).click();
+            List<String> links = PageQuery.on(driver)
+                .xpath("picinfo", "//div[contains(@class, 'picinfo')]")
+                .css("links", ".codes-list input")
+                .awaitPresence(timeout)
+                .values("links");
+
+            FixtureState state = FixtureState.capture(driver).with("directLink", links.get(0));
+            if (links.size() > 1) {
+                state = state.with("bbCode", links.get(1));
+            }
+            return state;
+        }
+    }
+
+    /**
+     * Страница результата загрузки JPG
+     */
+    @AutoBrowser(value = Browser.CHROME, name = "Загрузка JPG в {0}")
+    @CachedFixture(JpgUpload.class)
+    @DisplayName("Загрузка JPG изображения с компьютера")
+    void testUploadJpgImage(Browser browser) {
+        PageSnapshot page = findByXPath(Map.of(
+            "picinfo", "//div[contains(@class, 'picinfo')]",
+            "codesList", "//ul[contains(@class, 'codes-list')]",
+            "links", "//ul[contains(@class, 'codes-list')]//input"));
+        assertTrue(page.isDisplayed("picinfo"), "Информация об изображении должна отображаться");
+        assertTrue(page.isDisplayed("codesList"), "Список кодов для вставки должен отображаться");
+        assertTrue(page.values("links").get(0).contains("fastpic."), "Ссылка должна указывать на fastpic");
+    }
+
+    /**
+     * Загрузка картинок разных форматов и размеров. Время теста по каждой картинке
+     * попадает в отчет (категория image) - зависимость времени загрузки от размера
+     */
+    @AutoBrowser(value = Browser.CHROME, name = "Загрузка {1} в {0}")
+    @ImageSweep({"jpg:640x480:100KB", "jpg:1920x1080:1MB", "jpg:4000x3000:8MB", "png:1280x720:2MB",
+        "gif:320x240:200KB"})
+    @DisplayName("Загрузка картинок разного размера")
+    void testUploadSizeSweep(Browser browser, ImageSpec image) {
+        WebElement fileInput = findByXPath("//input[@type='file' and @id='file']");
+        fileInput.sendKeys(image.path().toString());
+        findByXPath("//input[@type='submit' and @id='uploadButton']").click();
+
+        WebElement picinfo = findByXPath("//div[contains(@class, 'picinfo')]", 30);
+        assertTrue(picinfo.isDisplayed(), "Информация об изображении " + image + " должна отображаться");
+    }
+
+    /**
+     * Ссылки, сгенерированные для загруженного JPG
+     */
+    @AutoBrowser(value = Browser.CHROME, name = "Ссылки в {0}")
+    @CachedFixture(value = JpgUpload.class, navigate = false)
+    @DisplayName("Проверка сгенерированных ссылок")
+    void testImageLinks(Browser browser) {
+        FixtureState upload = FixtureState.current();
+
+        String directLink = upload.get("directLink");
+        assertFalse(directLink.isEmpty(), "Прямая ссылка не должна быть пустой");
+        assertTrue(directLink.contains("fastpic."), "Ссылка должна указывать на fastpic");
+
+        assertTrue(upload.has("bbCode"),
+            "На странице результата должна быть вторая ссылка - BB-код (найдена только прямая ссылка)");
+        String bbCode = upload.get("bbCode");
+        assertTrue(bbCode.contains("[URL") && bbCode.contains("[IMG"),
+            "BB-код должен содержать теги [URL] и [IMG]");
+    }
+
+    /**
+     * Страница "Мои загрузки" после загрузки JPG
+     */
+    @AutoBrowser(value = Browser.CHROME, name = "Мои загрузки в {0}")
+    @CachedFixture(value = JpgUpload.class, navigate = false)
+    @PerfBudget(path = "/my.php", ttfb = 2000, load = 8000)
+    @DisplayName("Проверка страницы 'Мои загрузки'")
+    void testMyUploadsPage(Browser browser) {
+        driver().get(BASE_URL + "/my.php");
+
+        WebElement manageForm = findByXPath("//form[@id='manage-form']");
+        assertTrue(manageForm.isDisplayed(), "Форма управления изображениями должна отображаться");
+
+        List<WebElement> thumbs = driver().findElements(By.xpath("//div[contains(@class, 'thumb')]"));
+        assertTrue(thumbs.size() > 0, "Должно быть хотя бы одно изображение на странице");
+    }
+}
@@ -0,0 +1,86 @@
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Явное ожидание с адаптивным интервалом опроса.
+ * Первые проверки идут часто, чтобы быстро поймать уже готовый элемент,
+ * затем интервал растет, чтобы не забивать драйвер лишними запросами.
+ * Время каждого ожидания записывается в WaitStats по описанию локатора.
+ * Сессия хранится по слабой ссылке: Waits кэширует ожидания в WeakHashMap
+ * по сессии, и сильная ссылка из значения не дала бы удалить запись.
+ */
+public class AdaptiveWait {
+    public static final Duration INITIAL_POLLING = Duration.ofMillis(10);
+    public static final Duration MAX_POLLING = Duration.ofMillis(250);
+
+    private final WeakReference<WebDriver> driver;
+
+    AdaptiveWait(WebDriver driver) {
+        this.driver = new WeakReference<>(driver);
+    }
+
+    /**
+     * Ждет появления элемента в DOM.
+     */
+    public WebElement presence(By locator, Duration timeout) {
+        return until(d -> {
+            List<WebElement> elements = d.findElements(locator);
+            return elements.isEmpty() ? null : elements.get(0);
+        }, timeout, locator.toString());
+    }
+
+    /**
+     * Ждет, пока условие вернет не null и не false.
+     */
+    public <T> T until(Function<WebDriver, T> condition, Duration timeout, String label) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long polling = INITIAL_POLLING.toNanos();
+        RuntimeException lastError = null;
+        WebDriver current = driver.get();
+        if (current == null) {
+            throw new IllegalStateException("Сессия ожидания " + label + " уже освобождена");
+        }
+
+        try {
+            while (true) {
+                try {
+                    T result = condition.apply(current);
+                    if (result != null && !Boolean.FALSE.equals(result)) {
+                        return result;
+                    }
+                } catch (NoSuchElementException | StaleElementReferenceException e) {
+                    lastError = e;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TimeoutException("Не дождались " + label + " за " + timeout.toMillis() + " мс",
+                        lastError);
+                }
+                sleep(Math.min(polling, remaining));
+                polling = Math.min(polling * 2, MAX_POLLING.toNanos());
+            }
+        } finally {
+            WaitStats.record(label, System.nanoTime() - start);
+        }
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Ожидание прервано", e);
+        }
+    }
+}
@@ -13,7 +13,7 @@ import org.junit.jupiter.params.provider.ArgumentsSource;
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
-@ExtendWith(WebDriverExtension.class)
+@ExtendWith({WebDriverExtension.class, TimingExtension.class})
 @ParameterizedTest
 @ArgumentsSource(BrowserArgumentProvider.class)
 public @interface AutoBrowser {
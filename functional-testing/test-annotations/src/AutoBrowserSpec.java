@@ -0,0 +1,169 @@
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Разобранные параметры @AutoBrowser для одного тестового метода.
+ * Аннотация разбирается один раз и кэшируется в хранилище контекста метода,
+ * поэтому на каждый вызов теста остается только поиск в хранилище.
+ */
+public final class AutoBrowserSpec {
+    private static final ExtensionContext.Namespace NAMESPACE =
+        ExtensionContext.Namespace.create(AutoBrowserSpec.class);
+    // Браузеры вызовов по уникальному идентификатору: его видит и HistoryListener,
+    // у которого нет доступа к хранилищу контекста
+    private static final Map<String, Browser> BROWSERS = new ConcurrentHashMap<>();
+
+    private final List<Browser> browsers;
+    private final String url;
+    private final LaunchProfile profile;
+    private final CachedFixture fixture;
+    private final PerfBudget budget;
+    private final List<ImageSpec> images;
+
+    private AutoBrowserSpec(List<Browser> browsers, String url, LaunchProfile profile, CachedFixture fixture,
+            PerfBudget budget, List<ImageSpec> images) {
+        this.browsers = browsers;
+        this.url = url;
+        this.profile = profile;
+        this.fixture = fixture;
+        this.budget = budget;
+        this.images = images;
+    }
+
+    /**
+     * Возвращает параметры для контекста параметризированного метода
+     * (родительского для контекстов отдельных вызовов).
+     */
+    public static AutoBrowserSpec of(ExtensionContext methodContext) {
+        return methodContext.getStore(NAMESPACE).getOrComputeIfAbsent(
+            AutoBrowserSpec.class, key -> parse(methodContext), AutoBrowserSpec.class);
+    }
+
+    /**
+     * Запоминает браузер вызова до его завершения: записывает WebDriverExtension,
+     * читают TimingExtension и HistoryListener, который и убирает запись.
+     * Аргументы вызова известны только при вызове самого теста, поэтому до него
+     * (в @BeforeEach) браузера еще нет.
+     */
+    static void bindBrowser(ExtensionContext invocationContext, Browser browser) {
+        BROWSERS.put(invocationContext.getUniqueId(), browser);
+    }
+
+    /**
+     * Браузер вызова, сохраненный bindBrowser; null, если тест еще не вызывался.
+     */
+    public static Browser browserOf(ExtensionContext invocationContext) {
+        return BROWSERS.get(invocationContext.getUniqueId());
+    }
+
+    static Browser unbindBrowser(String uniqueId) {
+        return BROWSERS.remove(uniqueId);
+    }
+
+    private static AutoBrowserSpec parse(ExtensionContext methodContext) {
+        Method method = methodContext.getRequiredTestMethod();
+        AutoBrowser annotation = method.getAnnotation(AutoBrowser.class);
+        if (annotation == null) {
+            throw new ExtensionConfigurationException(
+                "Метод " + method.getName() + " не отмечен аннотацией @AutoBrowser");
+        }
+        PerfBudget budget = method.getAnnotation(PerfBudget.class);
+        if (budget == null) {
+            budget = methodContext.getRequiredTestClass().getAnnotation(PerfBudget.class);
+        }
+        List<Browser> browsers = TestShards.select(
+            methodContext.getRequiredTestClass().getName(), method, selectBrowsers(annotation));
+        LaunchProfile profile = LaunchProfile.resolve(methodContext);
+        if (budget != null) {
+            profile = profile.withFullPageLoad();
+        }
+        return new AutoBrowserSpec(browsers, annotation.url(),
+            profile, method.getAnnotation(CachedFixture.class), budget,
+            parseImages(method.getAnnotation(ImageSweep.class)));
+    }
+
+    private static List<ImageSpec> parseImages(ImageSweep sweep) {
+        if (sweep == null) {
+            return Collections.emptyList();
+        }
+        List<ImageSpec> images = new ArrayList<>();
+        for (String spec : sweep.value()) {
+            images.add(ImageSpec.parse(spec));
+        }
+        return Collections.unmodifiableList(images);
+    }
+
+    /**
+     * Пустой список браузеров без exclude означает все браузеры,
+     * с exclude - все, кроме перечисленных. Браузеры внутри JVM (HtmlUnit)
+     * выбираются только явным перечислением без exclude.
+     */
+    static List<Browser> selectBrowsers(AutoBrowser annotation) {
+        EnumSet<Browser> listed = EnumSet.noneOf(Browser.class);
+        listed.addAll(Arrays.asList(annotation.value()));
+
+        Set<Browser> selected;
+        if (annotation.exclude()) {
+            selected = EnumSet.complementOf(listed);
+            selected.removeIf(Browser::isInProcess);
+        } else if (listed.isEmpty()) {
+            selected = EnumSet.allOf(Browser.class);
+            selected.removeIf(Browser::isInProcess);
+        } else {
+            selected = listed;
+        }
+        return Collections.unmodifiableList(new ArrayList<>(selected));
+    }
+
+    /**
+     * Браузеры вызовов: только из текущего шарда TestShards, сначала самые долгие по истории.
+     */
+    public List<Browser> getBrowsers() {
+        return browsers;
+    }
+
+    /**
+     * URL из аннотации; пустая строка, если URL не задан.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Профиль запуска из @BrowserProfile; для тестов с @PerfBudget - с полной загрузкой страницы.
+     */
+    public LaunchProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Аннотация @CachedFixture метода; null, если подготовки нет.
+     */
+    public CachedFixture getFixture() {
+        return fixture;
+    }
+
+    /**
+     * Бюджет страниц @PerfBudget метода или класса; null, если бюджета нет.
+     */
+    public PerfBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Картинки @ImageSweep; пустой список, если аннотации нет.
+     */
+    public List<ImageSpec> getImages() {
+        return images;
+    }
+}
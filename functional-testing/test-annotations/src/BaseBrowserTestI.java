@@ -11,12 +11,8 @@ public interface BaseBrowserTestI {
     String getBaseUrl();
     
     /**
-     * Создает и настраивает WebDriver для указанного браузера.
+     * Создает и настраивает новый WebDriver для указанного браузера и профиля запуска.
+     * Вызывается пулом сессий, когда свободной сессии нет.
      */
-    WebDriver setupDriver(Browser browser);
-    
-    /**
-     * Закрывает WebDriver после теста.
-     */
-    void tearDown();
+    WebDriver setupDriver(Browser browser, LaunchProfile profile);
 }
@@ -7,8 +7,21 @@ import java.util.Arrays;
 public enum Browser {
     CHROME,
     FIREFOX,
-    EDGE;
+    EDGE,
+    /**
+     * Браузер HtmlUnit внутри JVM: без отрисовки, запускается за миллисекунды
+     * и занимает несколько мегабайт. Подходит для проверок DOM; в тесты
+     * попадает, только если указан в @AutoBrowser явно.
+     */
+    HTMLUNIT;
     
+    /**
+     * Работает ли браузер внутри JVM, без отдельного процесса и драйвера.
+     */
+    public boolean isInProcess() {
+        return this == HTMLUNIT;
+    }
+
     /**
      * Возвращает итератор по всем браузерам
      */
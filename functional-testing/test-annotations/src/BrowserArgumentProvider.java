@@ -1,6 +1,3 @@
-import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.List;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.extension.ExtensionContext;
@@ -9,34 +6,20 @@ import org.junit.jupiter.params.provider.ArgumentsProvider;
 
 /**
  * Провайдер аргументов для параметризированных тестов с браузерами.
- * Учитывает аннотацию @AutoBrowser для фильтрации браузеров.
+ * Учитывает аннотацию @AutoBrowser для фильтрации браузеров,
+ * а с @ImageSweep выдает каждый браузер со всеми картинками набора.
  */
 public class BrowserArgumentProvider implements ArgumentsProvider {
 
     @Override
     public Stream<? extends Arguments> provideArguments(ExtensionContext context) {
-        Method testMethod = context.getRequiredTestMethod();
-        AutoBrowser annotation = testMethod.getAnnotation(AutoBrowser.class);
-        
-        // Если аннотации нет, возвращаем все браузеры
-        if (annotation == null) {
-            return Arrays.stream(Browser.values())
+        // Список браузеров уже отфильтрован при разборе аннотации
+        AutoBrowserSpec spec = AutoBrowserSpec.of(context);
+        if (spec.getImages().isEmpty()) {
+            return spec.getBrowsers().stream()
                    .map(Arguments::of);
         }
-
-        Browser[] browsers = annotation.value();
-        boolean exclude = annotation.exclude();
-
-        // Если список браузеров пуст, и exclude=false, возвращаем все браузеры
-        if (browsers.length == 0 && !exclude) {
-            return Arrays.stream(Browser.values())
-                   .map(Arguments::of);
-        }
-
-        List<Browser> targetBrowsers = Arrays.asList(browsers);
-        
-        return Arrays.stream(Browser.values())
-               .filter(browser -> exclude != targetBrowsers.contains(browser))
-               .map(Arguments::of);
+        return spec.getBrowsers().stream()
+               .flatMap(browser -> spec.getImages().stream().map(image -> Arguments.of(browser, image)));
     }
-}
\ No newline at end of file
+}
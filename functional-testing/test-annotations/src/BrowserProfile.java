@@ -0,0 +1,51 @@
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.openqa.selenium.PageLoadStrategy;
+
+/**
+ * Профиль запуска браузера для тестов с @AutoBrowser.
+ * Ставится на тестовый класс или метод; аннотация на методе имеет приоритет.
+ * Без аннотации браузер запускается с профилем по умолчанию:
+ * headless, фиксированный размер окна, без картинок и расширений.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BrowserProfile {
+    /**
+     * Запуск браузера без окна.
+     */
+    boolean headless() default true;
+
+    /**
+     * Ширина окна браузера в пикселях.
+     */
+    int width() default 1366;
+
+    /**
+     * Высота окна браузера в пикселях.
+     */
+    int height() default 768;
+
+    /**
+     * Отключает загрузку изображений на страницах.
+     */
+    boolean disableImages() default true;
+
+    /**
+     * Отключает расширения браузера.
+     */
+    boolean disableExtensions() default true;
+
+    /**
+     * Отключает фоновые сетевые запросы браузера (обновления, телеметрия, prefetch).
+     */
+    boolean disableBackgroundNetworking() default true;
+
+    /**
+     * Стратегия загрузки страницы. EAGER не ждет загрузки картинок и стилей.
+     */
+    PageLoadStrategy pageLoadStrategy() default PageLoadStrategy.EAGER;
+}
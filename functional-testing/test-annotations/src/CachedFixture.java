@@ -0,0 +1,26 @@
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Подготовка состояния для теста с @AutoBrowser, выполняемая один раз на сессию браузера.
+ * Первый тест в сессии выполняет Fixture.setUp, следующие получают сохраненное
+ * состояние (FixtureState.current()) и сразу открывают сохраненную страницу.
+ * Если сессия закрывается пулом, состояние забывается.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedFixture {
+    /**
+     * Класс подготовки.
+     */
+    Class<? extends Fixture> value();
+
+    /**
+     * Открывать ли перед тестом страницу, на которой закончилась подготовка.
+     * Если false, тест начинается со страницы из @AutoBrowser или базового URL;
+     * cookies подготовки восстанавливаются в обоих случаях.
+     */
+    boolean navigate() default true;
+}
@@ -0,0 +1,61 @@
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+/**
+ * Слушатель Selenium, который замеряет каждую команду WebDriver
+ * (в том числе команды элементов, навигации и окон) и пишет ее в PerfRecorder.
+ */
+public class CommandTimingListener implements WebDriverListener {
+    // Вызовы могут быть вложенными (элемент внутри команды драйвера), поэтому стек
+    private static final ThreadLocal<Deque<Long>> STARTS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final Browser browser;
+
+    public CommandTimingListener(Browser browser) {
+        this.browser = browser;
+    }
+
+    /**
+     * Оборачивает драйвер так, чтобы все его команды замерялись,
+     * а после открытия страниц снимались показатели их загрузки (PageTimingListener).
+     */
+    public static WebDriver decorate(Browser browser, WebDriver driver) {
+        if (driver == null) {
+            return null;
+        }
+        if (!PageTimingListener.isEnabled()) {
+            return new EventFiringDecorator<WebDriver>(new CommandTimingListener(browser)).decorate(driver);
+        }
+        return new EventFiringDecorator<WebDriver>(new CommandTimingListener(browser),
+            new PageTimingListener(browser, NetworkCapture.attach(driver))).decorate(driver);
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        STARTS.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        record(method);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        record(method);
+    }
+
+    private void record(Method method) {
+        Long start = STARTS.get().poll();
+        if (start != null) {
+            String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+            PerfRecorder.record(browser, PerfRecorder.COMMAND, name, System.nanoTime() - start);
+        }
+    }
+}
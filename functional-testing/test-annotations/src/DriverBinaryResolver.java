@@ -0,0 +1,195 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+
+/**
+ * Находит бинарники драйверов браузеров один раз на JVM.
+ * Результат запоминается в памяти и в манифесте на диске, поэтому следующие
+ * запуски берут путь из манифеста без обращения WebDriverManager к сети.
+ * В offline-режиме драйверы берутся только из манифеста. Если в online-режиме
+ * обновить устаревшую запись не удалось, используется она.
+ *
+ * Настройки задаются системными свойствами JVM:
+ * autobrowser.drivers.manifest - путь к манифесту,
+ * autobrowser.drivers.offline - не обращаться к WebDriverManager,
+ * autobrowser.drivers.manifestTtlHours - срок годности записей манифеста в online-режиме.
+ */
+public final class DriverBinaryResolver {
+    public static final String MANIFEST_PROPERTY = "autobrowser.drivers.manifest";
+    public static final String OFFLINE_PROPERTY = "autobrowser.drivers.offline";
+    public static final String MANIFEST_TTL_PROPERTY = "autobrowser.drivers.manifestTtlHours";
+
+    public static final int DEFAULT_MANIFEST_TTL_HOURS = 24;
+
+    /** Ключ манифеста для драйвера Chromium */
+    private static final String CHROMIUM = "CHROMIUM";
+
+    private static final Map<String, Path> RESOLVED = new ConcurrentHashMap<>();
+
+    private DriverBinaryResolver() {
+    }
+
+    /**
+     * Возвращает путь к драйверу браузера и выставляет системное свойство,
+     * по которому его находит Selenium.
+     */
+    public static Path resolve(Browser browser) {
+        return RESOLVED.computeIfAbsent(browser.name(), key -> resolveOnce(key, browser, () -> managerFor(browser)));
+    }
+
+    /**
+     * То же для Chromium: драйвер берется из chromiumdriver WebDriverManager
+     * и хранится в манифесте отдельно от Chrome. Chromium запускается через
+     * ChromeDriver, поэтому выставляется свойство драйвера Chrome.
+     */
+    public static Path resolveChromium() {
+        return RESOLVED.computeIfAbsent(CHROMIUM, key -> resolveOnce(key, Browser.CHROME, WebDriverManager::chromiumdriver));
+    }
+
+    private static Path resolveOnce(String key, Browser browser, Supplier<WebDriverManager> managers) {
+        long start = System.nanoTime();
+        String source;
+
+        Path driver;
+        ManifestEntry entry = fromManifest(key);
+        boolean offline = Boolean.getBoolean(OFFLINE_PROPERTY);
+        if (entry != null && (offline || entry.isFresh())) {
+            driver = entry.path;
+            source = "манифест";
+        } else if (offline) {
+            throw new IllegalStateException("Драйвер для " + key
+                + " не найден в манифесте " + manifestPath() + ", а offline-режим запрещает загрузку");
+        } else {
+            try {
+                WebDriverManager manager = managers.get();
+                manager.setup();
+                driver = Paths.get(manager.getDownloadedDriverPath());
+                saveToManifest(key, driver);
+                source = "WebDriverManager";
+            } catch (RuntimeException e) {
+                if (entry == null) {
+                    throw e;
+                }
+                System.out.println("Не удалось обновить драйвер " + key + " через WebDriverManager ("
+                    + e.getMessage() + "), используется устаревшая запись манифеста");
+                driver = entry.path;
+                source = "устаревший манифест";
+            }
+        }
+
+        System.setProperty(driverProperty(browser), driver.toString());
+        double millis = (System.nanoTime() - start) / 1e6;
+        System.out.println(String.format("Драйвер %s: %s (%s, %.1f мс)", key, driver, source, millis));
+        return driver;
+    }
+
+    private static ManifestEntry fromManifest(String key) {
+        Properties manifest = readManifest();
+        String path = manifest.getProperty(key + ".path");
+        String resolvedAt = manifest.getProperty(key + ".resolvedAt");
+        if (path == null || resolvedAt == null || !Files.isExecutable(Paths.get(path))) {
+            return null;
+        }
+        try {
+            return new ManifestEntry(Paths.get(path), Long.parseLong(resolvedAt));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static synchronized void saveToManifest(String key, Path driver) {
+        Properties manifest = readManifest();
+        manifest.setProperty(key + ".path", driver.toAbsolutePath().toString());
+        manifest.setProperty(key + ".resolvedAt", String.valueOf(System.currentTimeMillis()));
+
+        Path path = manifestPath();
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), "drivers", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                manifest.store(writer, "Resolved WebDriver binaries");
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Не удалось сохранить манифест драйверов: " + e.getMessage());
+        }
+    }
+
+    private static Properties readManifest() {
+        Properties manifest = new Properties();
+        Path path = manifestPath();
+        if (Files.isRegularFile(path)) {
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                manifest.load(reader);
+            } catch (IOException e) {
+                System.out.println("Не удалось прочитать манифест драйверов: " + e.getMessage());
+            }
+        }
+        return manifest;
+    }
+
+    private static Path manifestPath() {
+        String path = System.getProperty(MANIFEST_PROPERTY);
+        if (path != null && !path.isEmpty()) {
+            return Paths.get(path);
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "autobrowser", "drivers.properties");
+    }
+
+    private static WebDriverManager managerFor(Browser browser) {
+        switch (browser) {
+            case CHROME:
+                return WebDriverManager.chromedriver();
+            case FIREFOX:
+                return WebDriverManager.firefoxdriver();
+            case EDGE:
+                return WebDriverManager.edgedriver();
+            default:
+                throw new IllegalArgumentException("Неподдерживаемый браузер: " + browser);
+        }
+    }
+
+    private static String driverProperty(Browser browser) {
+        switch (browser) {
+            case CHROME:
+                return "webdriver.chrome.driver";
+            case FIREFOX:
+                return "webdriver.gecko.driver";
+            case EDGE:
+                return "webdriver.edge.driver";
+            default:
+                throw new IllegalArgumentException("Неподдерживаемый браузер: " + browser);
+        }
+    }
+
+    /**
+     * Запись манифеста: путь к драйверу и время, когда он был найден.
+     */
+    private static class ManifestEntry {
+        private final Path path;
+        private final long resolvedAt;
+
+        ManifestEntry(Path path, long resolvedAt) {
+            this.path = path;
+            this.resolvedAt = resolvedAt;
+        }
+
+        // В online-режиме устаревшая запись перепроверяется: браузер мог обновиться
+        boolean isFresh() {
+            long ttlHours = Long.getLong(MANIFEST_TTL_PROPERTY, DEFAULT_MANIFEST_TTL_HOURS);
+            return System.currentTimeMillis() - resolvedAt <= Duration.ofHours(ttlHours).toMillis();
+        }
+    }
+}
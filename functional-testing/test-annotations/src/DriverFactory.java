@@ -0,0 +1,64 @@
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+/**
+ * Создает сессии WebDriver по профилю запуска: в Selenium Grid, если он задан
+ * свойством autobrowser.grid.url и в нем есть слоты браузера, иначе локально.
+ * HtmlUnit создается внутри JVM и не требует бинарника драйвера.
+ */
+public final class DriverFactory {
+
+    private DriverFactory() {
+    }
+
+    /**
+     * Запускает браузер с опциями из профиля в гриде или локально.
+     */
+    public static WebDriver create(Browser browser, LaunchProfile profile) {
+        SeleniumGrid grid = browser.isInProcess() ? null : SeleniumGrid.shared();
+        WebDriver driver = grid != null && grid.supports(browser)
+            ? grid.create(browser, profile)
+            : createLocal(browser, profile);
+
+        Waits.disableImplicitWait(driver);
+
+        // Аргументы размера окна учитываются не всеми браузерами в оконном режиме,
+        // у HtmlUnit аргументов запуска нет
+        if (!profile.isHeadless() || browser.isInProcess()) {
+            driver.manage().window().setSize(new Dimension(profile.getWidth(), profile.getHeight()));
+        }
+        return driver;
+    }
+
+    private static WebDriver createLocal(Browser browser, LaunchProfile profile) {
+        if (!browser.isInProcess()) {
+            DriverBinaryResolver.resolve(browser);
+        }
+
+        WebDriver driver;
+        switch (browser) {
+            case CHROME:
+                driver = new ChromeDriver((ChromeOptions) profile.toOptions(browser));
+                break;
+            case FIREFOX:
+                driver = new FirefoxDriver((FirefoxOptions) profile.toOptions(browser));
+                break;
+            case EDGE:
+                driver = new EdgeDriver((EdgeOptions) profile.toOptions(browser));
+                break;
+            case HTMLUNIT:
+                driver = new HtmlUnitDriver(profile.toOptions(browser));
+                break;
+            default:
+                throw new IllegalArgumentException("Неподдерживаемый браузер: " + browser);
+        }
+        return driver;
+    }
+}
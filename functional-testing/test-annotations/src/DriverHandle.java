@@ -0,0 +1,32 @@
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Привязанный к потоку WebDriver текущего теста.
+ * WebDriverExtension выставляет сессию перед тестом и снимает после,
+ * поэтому параллельно выполняемые тесты не видят чужие сессии.
+ */
+public final class DriverHandle {
+    private static final ThreadLocal<WebDriver> CURRENT = new ThreadLocal<>();
+
+    private DriverHandle() {
+    }
+
+    /**
+     * Возвращает WebDriver теста, выполняемого в текущем потоке.
+     */
+    public static WebDriver get() {
+        WebDriver driver = CURRENT.get();
+        if (driver == null) {
+            throw new IllegalStateException("WebDriver не привязан к текущему тесту");
+        }
+        return driver;
+    }
+
+    static void set(WebDriver driver) {
+        CURRENT.set(driver);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
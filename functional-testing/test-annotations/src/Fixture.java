@@ -0,0 +1,15 @@
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Дорогая подготовка состояния для тестов (например, загрузка картинки через браузер).
+ * Выполняется один раз на сессию браузера, если тест отмечен @CachedFixture.
+ * Реализация должна иметь конструктор без параметров.
+ */
+public interface Fixture {
+    /**
+     * Выполняет подготовку в сессии driver и возвращает ее результат.
+     * Обычно это FixtureState.capture(driver) на итоговой странице
+     * с добавленными через with значениями, которые нужны тестам.
+     */
+    FixtureState setUp(WebDriver driver) throws Exception;
+}
@@ -0,0 +1,82 @@
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Результаты подготовок @CachedFixture по сессиям браузера.
+ * Подготовка выполняется при первом обращении в сессии, дальше отдается сохраненное состояние.
+ * WebDriverPool сообщает о закрытии сессии, и ее состояния удаляются: новая сессия
+ * того же браузера начинает с чистого листа. Сессия выдается одному тесту за раз,
+ * поэтому подготовка одной сессии не выполняется параллельно.
+ */
+public class FixtureCache implements ExtensionContext.Store.CloseableResource {
+    private final Map<WebDriver, Map<Class<? extends Fixture>, FixtureState>> sessions = new IdentityHashMap<>();
+
+    private int executed;
+    private int cached;
+
+    /**
+     * Возвращает состояние подготовки fixture в сессии driver, выполняя ее при необходимости.
+     * Если состояние взято из кэша, в браузер возвращаются cookies подготовки,
+     * а при navigate он открывает сохраненную страницу. Без navigate тест и при первом
+     * вызове начинается со страницы, открытой до подготовки.
+     */
+    public FixtureState get(WebDriver driver, Class<? extends Fixture> fixture, boolean navigate) throws Exception {
+        FixtureState state;
+        synchronized (this) {
+            state = sessions.getOrDefault(driver, Map.of()).get(fixture);
+            if (state != null) {
+                cached++;
+            }
+        }
+        if (state != null) {
+            state.restore(driver, navigate);
+            return state;
+        }
+
+        String start = driver.getCurrentUrl();
+        state = instantiate(fixture).setUp(driver);
+        if (state == null) {
+            throw new IllegalStateException(fixture.getSimpleName() + ".setUp вернул null");
+        }
+        if (!navigate && start != null && !start.equals(driver.getCurrentUrl())) {
+            driver.get(start);
+        }
+        synchronized (this) {
+            sessions.computeIfAbsent(driver, key -> new HashMap<>()).put(fixture, state);
+            executed++;
+        }
+        return state;
+    }
+
+    /**
+     * Забывает все состояния сессии. Вызывается при ее закрытии.
+     */
+    public synchronized void invalidate(WebDriver driver) {
+        sessions.remove(driver);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executed > 0) {
+            System.out.println("Подготовки @CachedFixture: выполнено " + executed + ", взято из кэша " + cached);
+        }
+        sessions.clear();
+    }
+
+    private static Fixture instantiate(Class<? extends Fixture> fixture) {
+        try {
+            Constructor<? extends Fixture> constructor = fixture.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new ExtensionConfigurationException(
+                "Подготовка " + fixture.getName() + " должна иметь конструктор без параметров", e);
+        }
+    }
+}
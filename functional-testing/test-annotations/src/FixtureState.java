@@ -0,0 +1,123 @@
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Результат подготовки Fixture: адрес итоговой страницы, cookies сессии
+ * и извлеченные со страницы значения. Неизменяем - один объект отдается всем тестам сессии.
+ */
+public final class FixtureState {
+    private static final ThreadLocal<FixtureState> CURRENT = new ThreadLocal<>();
+
+    private final String url;
+    private final Set<Cookie> cookies;
+    private final Map<String, String> values;
+
+    private FixtureState(String url, Set<Cookie> cookies, Map<String, String> values) {
+        this.url = url;
+        this.cookies = cookies;
+        this.values = values;
+    }
+
+    /**
+     * Запоминает текущую страницу и cookies сессии.
+     */
+    public static FixtureState capture(WebDriver driver) {
+        return new FixtureState(driver.getCurrentUrl(),
+            Collections.unmodifiableSet(new HashSet<>(driver.manage().getCookies())), Collections.emptyMap());
+    }
+
+    /**
+     * Возвращает копию состояния с добавленным значением.
+     */
+    public FixtureState with(String key, String value) {
+        Map<String, String> copy = new HashMap<>(values);
+        copy.put(key, value);
+        return new FixtureState(url, cookies, Collections.unmodifiableMap(copy));
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Сохранила ли подготовка значение key.
+     */
+    public boolean has(String key) {
+        return values.containsKey(key);
+    }
+
+    /**
+     * Значение, сохраненное подготовкой.
+     */
+    public String get(String key) {
+        String value = values.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("В состоянии подготовки нет значения " + key);
+        }
+        return value;
+    }
+
+    /**
+     * Восстанавливает сессию подготовки: пул очищает cookies между тестами,
+     * поэтому недостающие cookies добавляются всегда и страница перезагружается.
+     * Сохраненная страница открывается, если navigate или если текущая страница
+     * на другом хосте (cookies можно добавить только на странице их домена).
+     */
+    public void restore(WebDriver driver, boolean navigate) {
+        if (navigate || !sameHost(driver.getCurrentUrl(), url)) {
+            driver.get(url);
+        }
+        if (cookies.isEmpty()) {
+            return;
+        }
+        Set<String> present = new HashSet<>();
+        for (Cookie cookie : driver.manage().getCookies()) {
+            present.add(cookie.getName());
+        }
+        boolean added = false;
+        for (Cookie cookie : cookies) {
+            if (!present.contains(cookie.getName())) {
+                driver.manage().addCookie(cookie);
+                added = true;
+            }
+        }
+        if (added) {
+            driver.navigate().refresh();
+        }
+    }
+
+    private static boolean sameHost(String current, String saved) {
+        try {
+            String host = URI.create(current).getHost();
+            return host != null && host.equalsIgnoreCase(URI.create(saved).getHost());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Состояние подготовки теста, выполняемого в текущем потоке.
+     */
+    public static FixtureState current() {
+        FixtureState state = CURRENT.get();
+        if (state == null) {
+            throw new IllegalStateException("Тест не отмечен @CachedFixture");
+        }
+        return state;
+    }
+
+    static void setCurrent(FixtureState state) {
+        CURRENT.set(state);
+    }
+
+    static void clearCurrent() {
+        CURRENT.remove();
+    }
+}
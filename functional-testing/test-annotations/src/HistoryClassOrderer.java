@@ -0,0 +1,23 @@
+import java.util.Comparator;
+
+import org.junit.jupiter.api.ClassDescriptor;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.ClassOrdererContext;
+
+/**
+ * Порядок классов по истории TestHistory: сначала самые долгие и часто падающие,
+ * чтобы они не оказались в конце прогона. Классы без истории считаются средними.
+ * Подключается параметром junit.jupiter.testclass.order.default=HistoryClassOrderer.
+ */
+public class HistoryClassOrderer implements ClassOrderer {
+
+    @Override
+    public void orderClasses(ClassOrdererContext context) {
+        TestHistory history = TestHistory.shared();
+        if (history.isEmpty()) {
+            return;
+        }
+        context.getClassDescriptors().sort(Comparator.comparingDouble(
+            (ClassDescriptor descriptor) -> -history.priorityOfClass(descriptor.getTestClass().getName())));
+    }
+}
@@ -0,0 +1,61 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+/**
+ * Слушатель запуска JUnit, который записывает время тестов в TestHistory.
+ * Подключается автоматически через META-INF/services.
+ *
+ * Время вызова @AutoBrowser идет в единицу его браузера (браузер вызова
+ * запоминает AutoBrowserSpec.bindBrowser), обычного теста - в единицу метода.
+ * Классы без @AutoBrowser записываются целиком, вместе с @BeforeAll и @AfterAll,
+ * потому что шардируются они тоже целиком.
+ */
+public class HistoryListener implements TestExecutionListener {
+    private final Map<String, Long> started = new ConcurrentHashMap<>();
+
+    @Override
+    public void executionStarted(TestIdentifier identifier) {
+        started.put(identifier.getUniqueId(), System.nanoTime());
+    }
+
+    @Override
+    public void executionFinished(TestIdentifier identifier, TestExecutionResult result) {
+        Long start = started.remove(identifier.getUniqueId());
+        Browser browser = AutoBrowserSpec.unbindBrowser(identifier.getUniqueId());
+        if (start == null || !TestHistory.isEnabled()) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        boolean failed = result.getStatus() == TestExecutionResult.Status.FAILED;
+
+        TestSource source = identifier.getSource().orElse(null);
+        if (identifier.isTest() && source instanceof MethodSource) {
+            MethodSource method = (MethodSource) source;
+            if (browser != null) {
+                TestHistory.shared().record(
+                    TestHistory.key(method.getClassName(), method.getMethodName(), browser), elapsed, failed);
+            } else {
+                TestHistory.shared().record(
+                    TestHistory.key(method.getClassName(), method.getMethodName()), elapsed, failed);
+            }
+        } else if (identifier.isContainer() && source instanceof ClassSource) {
+            ClassSource testClass = (ClassSource) source;
+            if (!TestShards.hasAutoBrowser(testClass.getJavaClass())) {
+                TestHistory.shared().record(testClass.getClassName(), elapsed, failed);
+            }
+        }
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        TestHistory.shared().save();
+    }
+}
@@ -0,0 +1,34 @@
+import java.util.Comparator;
+import java.util.Optional;
+
+import org.junit.jupiter.api.MethodDescriptor;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.MethodOrdererContext;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+/**
+ * Порядок методов класса по истории TestHistory: сначала самые долгие и часто падающие.
+ * Подключается параметром junit.jupiter.testmethod.order.default=HistoryMethodOrderer.
+ */
+public class HistoryMethodOrderer implements MethodOrderer {
+
+    @Override
+    public void orderMethods(MethodOrdererContext context) {
+        TestHistory history = TestHistory.shared();
+        if (history.isEmpty()) {
+            return;
+        }
+        String className = context.getTestClass().getName();
+        context.getMethodDescriptors().sort(Comparator.comparingDouble(
+            (MethodDescriptor descriptor) -> -history.priorityOfMethod(className, descriptor.getMethod().getName())));
+    }
+
+    /**
+     * Порядок задает только очередность запуска: в отличие от встроенных
+     * MethodOrderer, методы по-прежнему выполняются параллельно.
+     */
+    @Override
+    public Optional<ExecutionMode> getDefaultExecutionMode() {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,290 @@
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Генератор синтетических картинок JPG/PNG/GIF для загрузок разного размера.
+ *
+ * Картинка - градиент с шумом; она целиком строится в памяти (BufferedImage,
+ * до 4 байт на пиксель), а кодировщик ImageIO пишет ее сразу в файл.
+ * Если задан размер файла, подбираются шум и качество JPEG так, чтобы файл
+ * получился не больше нужного, а недостающие байты добавляются комментариями
+ * перед концом файла (COM в JPEG, tEXt в PNG, Comment Extension в GIF) -
+ * картинка остается корректной, а размер совпадает точно. Если даже самый
+ * сжатый вариант больше заданного размера, бросается IllegalArgumentException.
+ *
+ * Файлы кэшируются по параметрам в каталоге из свойства autobrowser.images.dir
+ * (по умолчанию ~/.cache/autobrowser/images), поэтому повторные прогоны их не создают.
+ * Файл сначала пишется во временный и затем переименовывается, так что параллельные
+ * тесты и процессы не видят недописанных файлов.
+ */
+public final class ImageCorpus {
+    public static final String DIR_PROPERTY = "autobrowser.images.dir";
+
+    // Меняется вместе с алгоритмом генерации, чтобы не брать из кэша старые файлы
+    private static final String VERSION = "v2";
+    private static final int[] NOISE_LEVELS = {48, 12, 0};
+    private static final float[] JPEG_QUALITIES = {0.9f, 0.75f, 0.5f, 0.25f, 0.1f};
+    private static final Map<ImageSpec, Path> CACHE = new ConcurrentHashMap<>();
+
+    private ImageCorpus() {
+    }
+
+    /**
+     * Файл картинки с параметрами spec; создается, если его еще нет в кэше.
+     */
+    public static Path get(ImageSpec spec) {
+        return CACHE.computeIfAbsent(spec, key -> {
+            Path file = directory().resolve(key.fileName());
+            if (Files.isRegularFile(file)) {
+                return file;
+            }
+            try {
+                Files.createDirectories(file.getParent());
+                long start = System.nanoTime();
+                generate(key, file);
+                System.out.println(String.format("Картинка %s создана за %d мс: %s", key,
+                    (System.nanoTime() - start) / 1_000_000, file));
+                return file;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось создать картинку " + key, e);
+            }
+        });
+    }
+
+    /**
+     * Путь к файлу картинки, заданной строкой ImageSpec.parse.
+     */
+    public static String path(String spec) {
+        return get(ImageSpec.parse(spec)).toString();
+    }
+
+    static Path directory() {
+        String dir = System.getProperty(DIR_PROPERTY);
+        if (dir != null) {
+            return Paths.get(dir, VERSION);
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "autobrowser", "images", VERSION);
+    }
+
+    private static void generate(ImageSpec spec, Path file) throws IOException {
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            encodeToFit(spec, temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Кодирует картинку с наибольшими шумом и качеством, при которых файл
+     * помещается в заданный размер, и добивает его до размера комментариями.
+     */
+    private static void encodeToFit(ImageSpec spec, Path file) throws IOException {
+        ImageSpec.Format format = spec.getFormat();
+        float[] qualities = format == ImageSpec.Format.JPG ? JPEG_QUALITIES : new float[] {1f};
+        if (spec.getBytes() < 0) {
+            encode(render(spec, NOISE_LEVELS[1]), format, qualities[0], file);
+            return;
+        }
+        Padding padding = Padding.of(format);
+        long smallest = Long.MAX_VALUE;
+        for (int noise : NOISE_LEVELS) {
+            BufferedImage image = render(spec, noise);
+            for (float quality : qualities) {
+                long size = encode(image, format, quality, file);
+                smallest = Math.min(smallest, size);
+                long need = spec.getBytes() - size;
+                if (need == 0 || need >= padding.minUnit) {
+                    padding.pad(file, need);
+                    return;
+                }
+            }
+        }
+        // Чуть больше сжатого варианта тоже не получить: блок-комментарий не короче padding.minUnit
+        String reason = spec.getBytes() < smallest
+            ? "наименьший возможный размер - " + smallest + " байт"
+            : "возможны " + smallest + " байт или от " + (smallest + padding.minUnit) + " байт";
+        throw new IllegalArgumentException(
+            "Картинку " + spec + " нельзя получить размером " + spec.getBytes() + " байт: " + reason);
+    }
+
+    private static BufferedImage render(ImageSpec spec, int noise) {
+        int width = spec.getWidth();
+        int height = spec.getHeight();
+        // GIF хранит палитру из 256 цветов, остальные форматы - RGB
+        BufferedImage image = new BufferedImage(width, height, spec.getFormat() == ImageSpec.Format.GIF
+            ? BufferedImage.TYPE_BYTE_INDEXED : BufferedImage.TYPE_INT_RGB);
+        // hashCode ImageSpec включает хэш enum, который меняется от JVM к JVM
+        Random random = new Random(spec.toString().hashCode());
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r = x * 255 / Math.max(1, width - 1);
+                int g = y * 255 / Math.max(1, height - 1);
+                int b = ((x ^ y) >> 3) & 0xFF;
+                if (noise > 0) {
+                    r = clamp(r + random.nextInt(2 * noise + 1) - noise);
+                    g = clamp(g + random.nextInt(2 * noise + 1) - noise);
+                    b = clamp(b + random.nextInt(2 * noise + 1) - noise);
+                }
+                row[x] = (r << 16) | (g << 8) | b;
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+
+    /**
+     * Кодирует картинку в file и возвращает размер файла.
+     */
+    private static long encode(BufferedImage image, ImageSpec.Format format, float quality, Path file)
+            throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format.getImageIoName());
+        if (!writers.hasNext()) {
+            throw new IOException("Нет кодировщика ImageIO для " + format);
+        }
+        ImageWriter writer = writers.next();
+        Files.deleteIfExists(file);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (format == ImageSpec.Format.JPG) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return Files.size(file);
+    }
+
+    /**
+     * Способ добавить в конец файла (перед завершающим маркером) блоки-комментарии.
+     * Размер одного блока - от minUnit до maxUnit байт.
+     */
+    private enum Padding {
+        // FF FE, длина (2 байта, включая себя), данные
+        JPG(2, 4, 4 + 65533),
+        // длина, "tEXt", "Comment\0", данные, CRC
+        PNG(12, 20, 20 + (1 << 24)),
+        // 21 FE, подблок (длина + данные), 00
+        GIF(1, 5, 5 + 254);
+
+        private static final byte[] PNG_KEYWORD = "Comment\0".getBytes(StandardCharsets.ISO_8859_1);
+        private static final int FILL = ' ';
+
+        private final int trailerLength;
+        private final int minUnit;
+        private final int maxUnit;
+
+        Padding(int trailerLength, int minUnit, int maxUnit) {
+            this.trailerLength = trailerLength;
+            this.minUnit = minUnit;
+            this.maxUnit = maxUnit;
+        }
+
+        static Padding of(ImageSpec.Format format) {
+            return valueOf(format.name());
+        }
+
+        /**
+         * Добавляет ровно need байт: убирает завершающий маркер, пишет блоки и возвращает маркер.
+         */
+        void pad(Path file, long need) throws IOException {
+            if (need == 0) {
+                return;
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(trailerLength);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long end = channel.size() - trailerLength;
+                channel.read(trailer, end);
+                channel.truncate(end);
+            }
+            try (OutputStream out = new BufferedOutputStream(
+                    Files.newOutputStream(file, StandardOpenOption.APPEND), 64 * 1024)) {
+                for (long left = need; left > 0; ) {
+                    long unit = left;
+                    if (left > maxUnit) {
+                        unit = left - maxUnit >= minUnit ? maxUnit : left - minUnit;
+                    }
+                    writeUnit(out, (int) unit);
+                    left -= unit;
+                }
+                out.write(trailer.array());
+            }
+        }
+
+        private void writeUnit(OutputStream out, int size) throws IOException {
+            int data = size - minUnit;
+            switch (this) {
+                case JPG:
+                    out.write(0xFF);
+                    out.write(0xFE);
+                    out.write((data + 2) >> 8);
+                    out.write((data + 2) & 0xFF);
+                    fill(out, data, null);
+                    break;
+                case PNG:
+                    int length = PNG_KEYWORD.length + data;
+                    out.write(ByteBuffer.allocate(4).putInt(length).array());
+                    CRC32 crc = new CRC32();
+                    byte[] type = "tEXt".getBytes(StandardCharsets.ISO_8859_1);
+                    crc.update(type);
+                    crc.update(PNG_KEYWORD);
+                    out.write(type);
+                    out.write(PNG_KEYWORD);
+                    fill(out, data, crc);
+                    out.write(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+                    break;
+                default:
+                    out.write(0x21);
+                    out.write(0xFE);
+                    out.write(data + 1);
+                    fill(out, data + 1, null);
+                    out.write(0);
+                    break;
+            }
+        }
+
+        private static void fill(OutputStream out, int count, CRC32 crc) throws IOException {
+            byte[] chunk = new byte[Math.min(count, 64 * 1024)];
+            Arrays.fill(chunk, (byte) FILL);
+            for (int left = count; left > 0; left -= chunk.length) {
+                int length = Math.min(left, chunk.length);
+                out.write(chunk, 0, length);
+                if (crc != null) {
+                    crc.update(chunk, 0, length);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Параметры синтетической картинки: формат, размеры в пикселях и, при необходимости,
+ * размер файла в байтах. Записывается строкой "формат:ШxВ[:размер]",
+ * например "jpg:1920x1080:2MB" или "gif:320x240". Файл создает ImageCorpus.
+ */
+public final class ImageSpec {
+    private static final Pattern SPEC = Pattern.compile(
+        "(jpe?g|png|gif):(\\d+)x(\\d+)(?::(\\d+)(B|KB|MB)?)?", Pattern.CASE_INSENSITIVE);
+
+    private final Format format;
+    private final int width;
+    private final int height;
+    private final long bytes;
+
+    /**
+     * bytes < 0 - размер файла не задан, картинка сохраняется как есть.
+     */
+    public ImageSpec(Format format, int width, int height, long bytes) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Размеры картинки должны быть положительными: " + width + "x" + height);
+        }
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        this.bytes = bytes;
+    }
+
+    public static ImageSpec parse(String spec) {
+        Matcher matcher = SPEC.matcher(spec.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Ожидается формат:ШxВ[:размер], например jpg:1920x1080:2MB: " + spec);
+        }
+        Format format = Format.of(matcher.group(1));
+        long bytes = -1;
+        if (matcher.group(4) != null) {
+            bytes = Long.parseLong(matcher.group(4));
+            String unit = matcher.group(5) == null ? "B" : matcher.group(5).toUpperCase(Locale.ROOT);
+            bytes <<= "MB".equals(unit) ? 20 : "KB".equals(unit) ? 10 : 0;
+        }
+        return new ImageSpec(format, Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)), bytes);
+    }
+
+    /**
+     * Файл картинки из общего кэша ImageCorpus (создается при первом обращении).
+     */
+    public Path path() {
+        return ImageCorpus.get(this);
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Размер файла в байтах; -1, если не задан.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Имя файла в кэше, однозначно определяемое параметрами.
+     */
+    String fileName() {
+        return width + "x" + height + (bytes < 0 ? "" : "-" + bytes) + "." + format.extension;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ImageSpec)) {
+            return false;
+        }
+        ImageSpec that = (ImageSpec) o;
+        return format == that.format && width == that.width && height == that.height && bytes == that.bytes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(format, width, height, bytes);
+    }
+
+    /**
+     * Строка в формате parse, используется в именах тестов и отчетах.
+     */
+    @Override
+    public String toString() {
+        String size = "";
+        if (bytes >= 0) {
+            if (bytes > 0 && bytes % (1 << 20) == 0) {
+                size = ":" + (bytes >> 20) + "MB";
+            } else if (bytes > 0 && bytes % (1 << 10) == 0) {
+                size = ":" + (bytes >> 10) + "KB";
+            } else {
+                size = ":" + bytes;
+            }
+        }
+        return format.extension + ":" + width + "x" + height + size;
+    }
+
+    public enum Format {
+        JPG("jpg", "jpeg"),
+        PNG("png", "png"),
+        GIF("gif", "gif");
+
+        private final String extension;
+        private final String imageIoName;
+
+        Format(String extension, String imageIoName) {
+            this.extension = extension;
+            this.imageIoName = imageIoName;
+        }
+
+        static Format of(String name) {
+            String lower = name.toLowerCase(Locale.ROOT);
+            return "jpeg".equals(lower) ? JPG : valueOf(lower.toUpperCase(Locale.ROOT));
+        }
+
+        String getImageIoName() {
+            return imageIoName;
+        }
+    }
+}
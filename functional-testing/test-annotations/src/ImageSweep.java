@@ -0,0 +1,20 @@
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Прогон теста с @AutoBrowser для набора синтетических картинок.
+ * Тест вызывается для каждой пары браузер - картинка и принимает вторым
+ * параметром ImageSpec; файл картинки дает ImageSpec.path().
+ * Время тела теста для каждой картинки попадает в отчет PerfRecorder
+ * (категория image), что дает зависимость времени загрузки от размера.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ImageSweep {
+    /**
+     * Картинки в формате ImageSpec.parse, например {"jpg:640x480", "jpg:1920x1080:2MB"}.
+     */
+    String[] value();
+}
@@ -0,0 +1,197 @@
+import java.lang.reflect.AnnotatedElement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+import org.openqa.selenium.remote.CapabilityType;
+
+/**
+ * Настройки запуска браузера, собранные из аннотации @BrowserProfile.
+ * Переводит общие настройки в опции конкретного браузера:
+ * Chrome и Edge получают флаги Chromium, Firefox - свои аргументы и preferences,
+ * HtmlUnit - стратегию загрузки и загрузку картинок.
+ */
+public final class LaunchProfile {
+    /**
+     * Профиль по умолчанию - значения аннотации @BrowserProfile без параметров.
+     */
+    public static final LaunchProfile DEFAULT = new LaunchProfile(
+        true, 1366, 768, true, true, true, PageLoadStrategy.EAGER);
+
+    private final boolean headless;
+    private final int width;
+    private final int height;
+    private final boolean disableImages;
+    private final boolean disableExtensions;
+    private final boolean disableBackgroundNetworking;
+    private final PageLoadStrategy pageLoadStrategy;
+
+    public LaunchProfile(boolean headless, int width, int height, boolean disableImages,
+            boolean disableExtensions, boolean disableBackgroundNetworking,
+            PageLoadStrategy pageLoadStrategy) {
+        this.headless = headless;
+        this.width = width;
+        this.height = height;
+        this.disableImages = disableImages;
+        this.disableExtensions = disableExtensions;
+        this.disableBackgroundNetworking = disableBackgroundNetworking;
+        this.pageLoadStrategy = pageLoadStrategy;
+    }
+
+    public static LaunchProfile of(BrowserProfile annotation) {
+        return new LaunchProfile(annotation.headless(), annotation.width(), annotation.height(),
+            annotation.disableImages(), annotation.disableExtensions(),
+            annotation.disableBackgroundNetworking(), annotation.pageLoadStrategy());
+    }
+
+    /**
+     * Находит профиль для теста: сначала на методе, затем на классе.
+     */
+    public static LaunchProfile resolve(ExtensionContext context) {
+        return find(context.getTestMethod())
+            .or(() -> find(context.getTestClass()))
+            .map(LaunchProfile::of)
+            .orElse(DEFAULT);
+    }
+
+    private static Optional<BrowserProfile> find(Optional<? extends AnnotatedElement> element) {
+        return AnnotationSupport.findAnnotation(element, BrowserProfile.class);
+    }
+
+    /**
+     * Возвращает опции запуска для указанного браузера.
+     */
+    public Capabilities toOptions(Browser browser) {
+        switch (browser) {
+            case CHROME:
+                return applyChromium(new ChromeOptions());
+            case FIREFOX:
+                return applyFirefox(new FirefoxOptions());
+            case EDGE:
+                return applyChromium(new EdgeOptions());
+            case HTMLUNIT:
+                return htmlUnitCapabilities();
+            default:
+                throw new IllegalArgumentException("Неподдерживаемый браузер: " + browser);
+        }
+    }
+
+    private <T extends ChromiumOptions<T>> T applyChromium(T options) {
+        options.setPageLoadStrategy(pageLoadStrategy);
+        options.addArguments("--remote-allow-origins=*");
+        options.addArguments("--window-size=" + width + "," + height);
+        if (headless) {
+            options.addArguments("--headless=new");
+        }
+        if (disableExtensions) {
+            options.addArguments("--disable-extensions");
+        }
+        if (disableBackgroundNetworking) {
+            options.addArguments("--disable-background-networking");
+            options.addArguments("--disable-component-update");
+            options.addArguments("--disable-sync");
+        }
+        if (disableImages) {
+            Map<String, Object> prefs = new HashMap<>();
+            prefs.put("profile.managed_default_content_settings.images", 2);
+            options.setExperimentalOption("prefs", prefs);
+        }
+        return options;
+    }
+
+    private FirefoxOptions applyFirefox(FirefoxOptions options) {
+        options.setPageLoadStrategy(pageLoadStrategy);
+        options.addArguments("--width=" + width);
+        options.addArguments("--height=" + height);
+        if (headless) {
+            options.addArguments("-headless");
+        }
+        if (disableExtensions) {
+            options.addPreference("extensions.enabledScopes", 0);
+            options.addPreference("xpinstall.enabled", false);
+        }
+        if (disableBackgroundNetworking) {
+            options.addPreference("app.update.auto", false);
+            options.addPreference("app.normandy.enabled", false);
+            options.addPreference("datareporting.policy.dataSubmissionEnabled", false);
+            options.addPreference("network.prefetch-next", false);
+            options.addPreference("network.dns.disablePrefetch", true);
+            options.addPreference("browser.safebrowsing.update.enabled", false);
+        }
+        if (disableImages) {
+            options.addPreference("permissions.default.image", 2);
+        }
+        return options;
+    }
+
+    private Capabilities htmlUnitCapabilities() {
+        MutableCapabilities capabilities = new MutableCapabilities();
+        capabilities.setCapability(CapabilityType.BROWSER_NAME, "htmlunit");
+        capabilities.setCapability(CapabilityType.PAGE_LOAD_STRATEGY, pageLoadStrategy.toString());
+        capabilities.setCapability(HtmlUnitDriver.JAVASCRIPT_ENABLED, true);
+        capabilities.setCapability(HtmlUnitDriver.DOWNLOAD_IMAGES_CAPABILITY, !disableImages);
+        return capabilities;
+    }
+
+    /**
+     * Тот же профиль, но с картинками и стратегией загрузки NORMAL - для тестов
+     * с @PerfBudget, которые должны мерить страницу целиком.
+     */
+    public LaunchProfile withFullPageLoad() {
+        return new LaunchProfile(headless, width, height, false, disableExtensions,
+            disableBackgroundNetworking, PageLoadStrategy.NORMAL);
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LaunchProfile)) {
+            return false;
+        }
+        LaunchProfile that = (LaunchProfile) o;
+        return headless == that.headless
+            && width == that.width
+            && height == that.height
+            && disableImages == that.disableImages
+            && disableExtensions == that.disableExtensions
+            && disableBackgroundNetworking == that.disableBackgroundNetworking
+            && pageLoadStrategy == that.pageLoadStrategy;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(headless, width, height, disableImages, disableExtensions,
+            disableBackgroundNetworking, pageLoadStrategy);
+    }
+
+    @Override
+    public String toString() {
+        return "LaunchProfile{headless=" + headless + ", " + width + "x" + height
+            + ", pageLoad=" + pageLoadStrategy + "}";
+    }
+}
@@ -0,0 +1,74 @@
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+/**
+ * Счетчик сетевого трафика сессии по событиям Chrome DevTools (Chrome, Edge).
+ * В отличие от Resource Timing учитывает сторонние ресурсы без Timing-Allow-Origin
+ * и сжатые размеры ответов. Команды протокола отправляются без привязки
+ * к версии CDP, поэтому работают с любой версией браузера.
+ */
+public final class NetworkCapture {
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+
+    private NetworkCapture() {
+    }
+
+    /**
+     * Подключается к DevTools драйвера; null, если браузер их не поддерживает.
+     */
+    public static NetworkCapture attach(WebDriver driver) {
+        if (!(driver instanceof HasDevTools)) {
+            return null;
+        }
+        try {
+            DevTools devTools = ((HasDevTools) driver).maybeGetDevTools().orElse(null);
+            if (devTools == null) {
+                return null;
+            }
+            NetworkCapture capture = new NetworkCapture();
+            devTools.createSessionIfThereIsNotOne();
+            devTools.send(new Command<Void>("Network.enable", Map.of()));
+            devTools.addListener(new Event<Number>("Network.loadingFinished",
+                input -> (Number) input.<Map<String, Object>>read(Json.MAP_TYPE).get("encodedDataLength")),
+                length -> {
+                    capture.bytes.add(length == null ? 0 : length.longValue());
+                    capture.requests.increment();
+                });
+            return capture;
+        } catch (RuntimeException e) {
+            System.out.println("DevTools недоступны, объем страниц считается по Resource Timing: "
+                + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Обнуляет счетчики перед открытием новой страницы.
+     */
+    public void reset() {
+        bytes.reset();
+        requests.reset();
+    }
+
+    /**
+     * Байты, полученные с последнего reset.
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * Число завершенных запросов с последнего reset.
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+}
@@ -0,0 +1,107 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Набор именованных локаторов, которые проверяются одним вызовом executeScript.
+ * Вместо findElement и isDisplayed/getAttribute на каждый элемент (отдельная
+ * HTTP-команда WebDriver на каждый вызов) браузер за один запрос возвращает
+ * для всех локаторов найденные элементы: видимость, value, текст и запрошенные атрибуты.
+ *
+ * Видимость считается упрощенно, без атомов Selenium: у элемента есть
+ * прямоугольники на странице, он не скрыт visibility и не прозрачен.
+ */
+public class PageQuery {
+    private static final String SCRIPT =
+        "var queries = arguments[0], result = {};\n"
+        + "function visible(el) {\n"
+        + "  if (!el.getClientRects().length) { return false; }\n"
+        + "  var style = window.getComputedStyle(el);\n"
+        + "  return style.visibility !== 'hidden' && style.visibility !== 'collapse'"
+        + " && parseFloat(style.opacity) > 0;\n"
+        + "}\n"
+        + "for (var i = 0; i < queries.length; i++) {\n"
+        + "  var q = queries[i], nodes = [];\n"
+        + "  if (q.xpath) {\n"
+        + "    var found = document.evaluate(q.xpath, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);\n"
+        + "    for (var j = 0; j < found.snapshotLength; j++) { nodes.push(found.snapshotItem(j)); }\n"
+        + "  } else {\n"
+        + "    nodes = Array.prototype.slice.call(document.querySelectorAll(q.css));\n"
+        + "  }\n"
+        + "  var elements = [];\n"
+        + "  for (var k = 0; k < nodes.length; k++) {\n"
+        + "    var el = nodes[k];\n"
+        + "    if (el.nodeType !== 1) { continue; }\n"
+        + "    var attributes = {};\n"
+        + "    for (var a = 0; a < q.attributes.length; a++) {\n"
+        + "      attributes[q.attributes[a]] = el.getAttribute(q.attributes[a]);\n"
+        + "    }\n"
+        + "    elements.push({tag: el.tagName.toLowerCase(), displayed: visible(el),\n"
+        + "      value: el.value === undefined || el.value === null ? null : String(el.value),\n"
+        + "      text: (el.innerText || el.textContent || '').trim(), attributes: attributes});\n"
+        + "  }\n"
+        + "  result[q.name] = elements;\n"
+        + "}\n"
+        + "return result;";
+
+    private final WebDriver driver;
+    private final Map<String, Map<String, Object>> queries = new LinkedHashMap<>();
+
+    private PageQuery(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    public static PageQuery on(WebDriver driver) {
+        return new PageQuery(driver);
+    }
+
+    /**
+     * Добавляет локатор XPath; attributes - атрибуты, которые нужно вернуть для найденных элементов.
+     */
+    public PageQuery xpath(String name, String xpath, String... attributes) {
+        return add(name, "xpath", xpath, attributes);
+    }
+
+    /**
+     * Добавляет CSS-селектор; attributes - атрибуты, которые нужно вернуть для найденных элементов.
+     */
+    public PageQuery css(String name, String selector, String... attributes) {
+        return add(name, "css", selector, attributes);
+    }
+
+    /**
+     * Выполняет все запросы одной командой WebDriver.
+     */
+    public PageSnapshot run() {
+        if (!(driver instanceof JavascriptExecutor)) {
+            throw new UnsupportedOperationException("Драйвер не поддерживает executeScript: " + driver);
+        }
+        Object result = ((JavascriptExecutor) driver).executeScript(SCRIPT, new ArrayList<>(queries.values()));
+        return PageSnapshot.parse(queries.keySet(), result);
+    }
+
+    /**
+     * Повторяет запрос, пока на странице не появится хотя бы по одному элементу каждого локатора.
+     * Каждая попытка - одна команда WebDriver; интервал опроса как у AdaptiveWait.
+     */
+    public PageSnapshot awaitPresence(Duration timeout) {
+        return Waits.forDriver(driver).until(d -> {
+            PageSnapshot snapshot = run();
+            return snapshot.isPresentAll() ? snapshot : null;
+        }, timeout, "PageQuery" + queries.keySet());
+    }
+
+    private PageQuery add(String name, String type, String locator, String[] attributes) {
+        Map<String, Object> query = new LinkedHashMap<>();
+        query.put("name", name);
+        query.put(type, locator);
+        query.put("attributes", Arrays.asList(attributes));
+        queries.put(name, query);
+        return this;
+    }
+}
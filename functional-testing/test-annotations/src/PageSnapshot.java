@@ -0,0 +1,138 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Результат PageQuery: найденные элементы по имени локатора на момент запроса.
+ * Это значения, а не WebElement - повторных обращений к браузеру нет.
+ */
+public final class PageSnapshot {
+    private final Map<String, List<Element>> elements;
+
+    private PageSnapshot(Map<String, List<Element>> elements) {
+        this.elements = elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    static PageSnapshot parse(Set<String> names, Object result) {
+        Map<String, Object> raw = result instanceof Map ? (Map<String, Object>) result : Collections.emptyMap();
+        Map<String, List<Element>> elements = new LinkedHashMap<>();
+        for (String name : names) {
+            List<Element> parsed = new ArrayList<>();
+            Object list = raw.get(name);
+            if (list instanceof List) {
+                for (Object item : (List<Object>) list) {
+                    Map<String, Object> element = (Map<String, Object>) item;
+                    Map<String, String> attributes = new LinkedHashMap<>();
+                    Object rawAttributes = element.get("attributes");
+                    if (rawAttributes instanceof Map) {
+                        ((Map<String, Object>) rawAttributes).forEach((key, value) ->
+                            attributes.put(key, value == null ? null : String.valueOf(value)));
+                    }
+                    parsed.add(new Element((String) element.get("tag"), Boolean.TRUE.equals(element.get("displayed")),
+                        (String) element.get("value"), (String) element.get("text"), attributes));
+                }
+            }
+            elements.put(name, Collections.unmodifiableList(parsed));
+        }
+        return new PageSnapshot(elements);
+    }
+
+    /**
+     * Все элементы локатора в порядке документа.
+     */
+    public List<Element> getAll(String name) {
+        List<Element> found = elements.get(name);
+        if (found == null) {
+            throw new IllegalArgumentException("В запросе нет локатора " + name);
+        }
+        return found;
+    }
+
+    /**
+     * Первый элемент локатора или null.
+     */
+    public Element get(String name) {
+        List<Element> found = getAll(name);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    public int count(String name) {
+        return getAll(name).size();
+    }
+
+    public boolean isPresent(String name) {
+        return !getAll(name).isEmpty();
+    }
+
+    /**
+     * Найден ли хотя бы один элемент каждого локатора.
+     */
+    public boolean isPresentAll() {
+        return elements.values().stream().noneMatch(List::isEmpty);
+    }
+
+    /**
+     * Виден ли первый элемент локатора; false, если элемента нет.
+     */
+    public boolean isDisplayed(String name) {
+        Element element = get(name);
+        return element != null && element.isDisplayed();
+    }
+
+    /**
+     * value всех элементов локатора, например всех полей .codes-list input.
+     */
+    public List<String> values(String name) {
+        List<String> values = new ArrayList<>();
+        for (Element element : getAll(name)) {
+            values.add(element.getValue());
+        }
+        return values;
+    }
+
+    /**
+     * Найденный элемент: тег, видимость, value (для полей ввода), текст и запрошенные атрибуты.
+     */
+    public static final class Element {
+        private final String tag;
+        private final boolean displayed;
+        private final String value;
+        private final String text;
+        private final Map<String, String> attributes;
+
+        Element(String tag, boolean displayed, String value, String text, Map<String, String> attributes) {
+            this.tag = tag;
+            this.displayed = displayed;
+            this.value = value;
+            this.text = text;
+            this.attributes = Collections.unmodifiableMap(attributes);
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public boolean isDisplayed() {
+            return displayed;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Значение атрибута, перечисленного в запросе; null, если атрибута нет у элемента.
+         */
+        public String getAttribute(String name) {
+            return attributes.get(name);
+        }
+    }
+}
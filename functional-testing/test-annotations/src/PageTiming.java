@@ -0,0 +1,167 @@
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Показатели загрузки одной страницы: Navigation Timing (с запасным вариантом
+ * performance.timing для старых браузеров) и объем по Resource Timing
+ * или, если доступны, по событиям DevTools. Времена в миллисекундах от начала
+ * навигации; -1 означает, что показатель неизвестен (например, событие load
+ * еще не наступило при стратегии загрузки eager).
+ */
+public final class PageTiming {
+    public static final String NAVIGATION_TIMING = "navigation-timing";
+    public static final String DEVTOOLS = "devtools";
+
+    // Ждет load, если нужно, и читает показатели после завершения его обработчиков
+    private static final String SCRIPT =
+        "var waitLoad = arguments[0], done = arguments[arguments.length - 1];"
+        + "function read() {"
+        + "  var p = window.performance;"
+        + "  if (!p) { done(null); return; }"
+        + "  var nav = p.getEntriesByType ? p.getEntriesByType('navigation')[0] : null;"
+        + "  var ttfb, dcl, load, bytes = 0;"
+        + "  if (nav) {"
+        + "    ttfb = nav.responseStart - nav.startTime;"
+        + "    dcl = nav.domContentLoadedEventEnd; load = nav.loadEventEnd;"
+        + "    bytes = nav.transferSize || 0;"
+        + "  } else {"
+        + "    var t = p.timing, start = t.navigationStart;"
+        + "    ttfb = t.responseStart - start;"
+        + "    dcl = t.domContentLoadedEventEnd ? t.domContentLoadedEventEnd - start : 0;"
+        + "    load = t.loadEventEnd ? t.loadEventEnd - start : 0;"
+        + "  }"
+        + "  var resources = p.getEntriesByType ? p.getEntriesByType('resource') : [];"
+        + "  for (var i = 0; i < resources.length; i++) { bytes += resources[i].transferSize || 0; }"
+        + "  done([Math.round(ttfb), dcl > 0 ? Math.round(dcl) : -1, load > 0 ? Math.round(load) : -1,"
+        + "    bytes, resources.length + 1]);"
+        + "}"
+        + "if (!waitLoad || document.readyState === 'complete') { setTimeout(read, 0); }"
+        + "else { window.addEventListener('load', function () { setTimeout(read, 0); }); }";
+
+    private final String url;
+    private final long ttfb;
+    private final long domContentLoaded;
+    private final long load;
+    private final long bytes;
+    private final long requests;
+    private final String source;
+
+    public PageTiming(String url, long ttfb, long domContentLoaded, long load, long bytes, long requests,
+            String source) {
+        this.url = url;
+        this.ttfb = ttfb;
+        this.domContentLoaded = domContentLoaded;
+        this.load = load;
+        this.bytes = bytes;
+        this.requests = requests;
+        this.source = source;
+    }
+
+    /**
+     * Снимает показатели текущей страницы. Если waitForLoad, сначала дожидается
+     * события load. network - счетчик DevTools, обнуленный перед навигацией, или null.
+     * Возвращает null, если драйвер не выполняет скрипты или браузер не поддерживает Navigation Timing.
+     */
+    public static PageTiming capture(WebDriver driver, String url, boolean waitForLoad, NetworkCapture network) {
+        if (!(driver instanceof JavascriptExecutor)) {
+            return null;
+        }
+        Object result = ((JavascriptExecutor) driver).executeAsyncScript(SCRIPT, waitForLoad);
+        if (!(result instanceof List)) {
+            return null;
+        }
+        List<?> values = (List<?>) result;
+        long ttfb = toLong(values.get(0));
+        long domContentLoaded = toLong(values.get(1));
+        long load = toLong(values.get(2));
+        if (network != null && network.getRequests() > 0) {
+            return new PageTiming(url, ttfb, domContentLoaded, load, network.getBytes(), network.getRequests(),
+                DEVTOOLS);
+        }
+        return new PageTiming(url, ttfb, domContentLoaded, load, toLong(values.get(3)), toLong(values.get(4)),
+            NAVIGATION_TIMING);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : -1;
+    }
+
+    /**
+     * Превышения бюджета для этой страницы; пустой список, если бюджет соблюден
+     * или относится к другой странице.
+     */
+    public List<String> checkBudget(PerfBudget budget) {
+        List<String> violations = new ArrayList<>();
+        if (!budget.path().isEmpty() && !budget.path().equals(getPath())) {
+            return violations;
+        }
+        check(violations, "TTFB", ttfb, budget.ttfb(), "мс");
+        check(violations, "load", load, budget.load(), "мс");
+        check(violations, "объем", bytes, budget.bytes(), "байт");
+        return violations;
+    }
+
+    private void check(List<String> violations, String name, long value, long limit, String unit) {
+        if (limit < 0) {
+            return;
+        }
+        if (value < 0) {
+            violations.add(url + ": " + name + " не измерен");
+        } else if (value > limit) {
+            violations.add(url + ": " + name + " " + value + " " + unit + " при бюджете " + limit + " " + unit);
+        }
+    }
+
+    /**
+     * Путь страницы без параметров; "/" для корня.
+     */
+    public String getPath() {
+        try {
+            String path = URI.create(url).getPath();
+            return path == null || path.isEmpty() ? "/" : path;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public long getTtfb() {
+        return ttfb;
+    }
+
+    public long getDomContentLoaded() {
+        return domContentLoaded;
+    }
+
+    public long getLoad() {
+        return load;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * Источник объема: NAVIGATION_TIMING или DEVTOOLS.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return url + ": TTFB " + ttfb + " мс, DOMContentLoaded " + domContentLoaded + " мс, load " + load
+            + " мс, " + bytes + " байт в " + requests + " запросах (" + source + ")";
+    }
+}
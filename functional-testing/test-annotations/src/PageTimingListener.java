@@ -0,0 +1,116 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+/**
+ * Слушатель Selenium, который после каждого driver.get снимает показатели
+ * загрузки страницы (PageTiming) и пишет их в PerfRecorder.
+ * Пока в потоке идет тест (между startCollecting и stopCollecting), показатели
+ * также собираются для проверки @PerfBudget; на время подготовки @CachedFixture
+ * сбор приостанавливается. Ошибки замера не влияют на тест.
+ */
+public class PageTimingListener implements WebDriverListener {
+    public static final String ENABLED_PROPERTY = "autobrowser.timing.pages";
+
+    private static final ThreadLocal<Pages> CURRENT = new ThreadLocal<>();
+
+    private final Browser browser;
+    private final NetworkCapture network;
+
+    public PageTimingListener(Browser browser, NetworkCapture network) {
+        this.browser = browser;
+        this.network = network;
+    }
+
+    /**
+     * Включен ли замер страниц (свойство autobrowser.timing.pages, по умолчанию true).
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    }
+
+    /**
+     * Начинает сбор показателей страниц теста в текущем потоке.
+     * budget может быть null: тогда показатели только пишутся в отчет.
+     */
+    public static void startCollecting(PerfBudget budget) {
+        CURRENT.set(new Pages(budget));
+    }
+
+    /**
+     * Показатели страниц, открытых в текущем потоке с начала сбора.
+     */
+    public static List<PageTiming> collected() {
+        Pages pages = CURRENT.get();
+        return pages == null ? Collections.emptyList() : Collections.unmodifiableList(pages.timings);
+    }
+
+    /**
+     * Приостанавливает сбор до resumeCollecting: страницы пишутся в отчет,
+     * но не проверяются по бюджету.
+     */
+    public static void pauseCollecting() {
+        Pages pages = CURRENT.get();
+        if (pages != null) {
+            pages.paused = true;
+        }
+    }
+
+    public static void resumeCollecting() {
+        Pages pages = CURRENT.get();
+        if (pages != null) {
+            pages.paused = false;
+        }
+    }
+
+    public static void stopCollecting() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public void beforeGet(WebDriver driver, String url) {
+        if (network != null) {
+            network.reset();
+        }
+    }
+
+    @Override
+    public void afterGet(WebDriver driver, String url) {
+        Pages pages = CURRENT.get();
+        if (pages != null && pages.paused) {
+            pages = null;
+        }
+        // Ждать load нужно, только если бюджет проверяет его или объем страницы:
+        // до load ресурсы еще загружаются, и объем получится заниженным
+        boolean waitForLoad = pages != null && pages.budget != null
+            && (pages.budget.load() >= 0 || pages.budget.bytes() >= 0);
+        PageTiming timing;
+        try {
+            timing = PageTiming.capture(driver, url, waitForLoad, network);
+        } catch (WebDriverException e) {
+            System.out.println("Не удалось снять показатели страницы " + url + ": " + e.getMessage());
+            return;
+        }
+        if (timing == null) {
+            return;
+        }
+        PerfRecorder.recordPage(browser, timing);
+        if (pages != null) {
+            pages.timings.add(timing);
+        }
+    }
+
+    private static class Pages {
+        private final PerfBudget budget;
+        private final List<PageTiming> timings = new ArrayList<>();
+        private boolean paused;
+
+        Pages(PerfBudget budget) {
+            this.budget = budget;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Бюджет загрузки страниц для теста с @AutoBrowser.
+ * Каждая страница, открытая через driver.get за время теста (включая страницу
+ * из @AutoBrowser или базовый URL, но не страницы подготовки @CachedFixture),
+ * сравнивается с бюджетом, и при превышении тест падает. Отрицательное значение означает, что показатель не проверяется.
+ * Аннотация метода важнее аннотации класса.
+ *
+ * Тест с бюджетом всегда запускается с загрузкой картинок и стратегией NORMAL,
+ * даже если @BrowserProfile (или профиль по умолчанию) их отключает: иначе
+ * load и bytes меряли бы страницу без картинок и не замечали ее утяжеления.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PerfBudget {
+    /**
+     * Время до первого байта ответа, мс.
+     */
+    long ttfb() default -1;
+
+    /**
+     * Время до конца события load, мс. Если задано, после driver.get
+     * ожидается полная загрузка страницы.
+     */
+    long load() default -1;
+
+    /**
+     * Объем переданных данных страницы и ее ресурсов, байт.
+     */
+    long bytes() default -1;
+
+    /**
+     * Путь страницы (например, "/my.php"), к которой относится бюджет;
+     * пустая строка - все страницы теста.
+     */
+    String path() default "";
+}
@@ -0,0 +1,164 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.json.Json;
+
+/**
+ * Сборщик длительностей этапов тестов и команд WebDriver по браузерам.
+ * Этапы (запуск сессии, открытие страницы, тело теста) пишут расширения,
+ * команды - CommandTimingListener, загрузку страниц - PageTimingListener.
+ * Отчет с p50/p95/p99 сохраняется в JSON и CSV в каталог из свойства
+ * autobrowser.timing.reportDir (по умолчанию build/autobrowser),
+ * показатели отдельных страниц - в pages.csv там же.
+ */
+public final class PerfRecorder {
+    public static final String REPORT_DIR_PROPERTY = "autobrowser.timing.reportDir";
+
+    public static final String PHASE = "phase";
+    public static final String COMMAND = "command";
+    public static final String PAGE = "page";
+    public static final String IMAGE = "image";
+
+    private static final Map<Metric, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Queue<Map.Entry<Browser, PageTiming>> PAGES = new ConcurrentLinkedQueue<>();
+
+    private PerfRecorder() {
+    }
+
+    public static void record(Browser browser, String category, String name, long nanos) {
+        HISTOGRAMS.computeIfAbsent(new Metric(browser, category, name), key -> new LatencyHistogram())
+            .record(nanos);
+    }
+
+    /**
+     * Записывает показатели загрузки страницы: TTFB и load идут в гистограммы
+     * категории PAGE по пути страницы, сама запись - в pages.csv.
+     */
+    public static void recordPage(Browser browser, PageTiming page) {
+        PAGES.add(Map.entry(browser, page));
+        if (page.getTtfb() >= 0) {
+            record(browser, PAGE, "ttfb " + page.getPath(), TimeUnit.MILLISECONDS.toNanos(page.getTtfb()));
+        }
+        if (page.getLoad() >= 0) {
+            record(browser, PAGE, "load " + page.getPath(), TimeUnit.MILLISECONDS.toNanos(page.getLoad()));
+        }
+    }
+
+    /**
+     * Сохраняет отчет timings.json, timings.csv и pages.csv.
+     */
+    public static void writeReport() {
+        if (HISTOGRAMS.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> rows = rows();
+        Path dir = Paths.get(System.getProperty(REPORT_DIR_PROPERTY, "build/autobrowser"));
+        try {
+            Files.createDirectories(dir);
+            if (!PAGES.isEmpty()) {
+                writePages(dir.resolve("pages.csv"));
+            }
+            try (Writer writer = Files.newBufferedWriter(dir.resolve("timings.json"), StandardCharsets.UTF_8)) {
+                writer.write(new Json().toJson(rows));
+            }
+            try (PrintWriter out = new PrintWriter(
+                    Files.newBufferedWriter(dir.resolve("timings.csv"), StandardCharsets.UTF_8))) {
+                out.println(String.join(",", rows.get(0).keySet()));
+                for (Map<String, Object> row : rows) {
+                    List<String> values = new ArrayList<>();
+                    for (Object value : row.values()) {
+                        if (value instanceof Double) {
+                            values.add(String.format(Locale.ROOT, "%.1f", value));
+                        } else if (value instanceof String) {
+                            values.add("\"" + value + "\"");
+                        } else {
+                            values.add(String.valueOf(value));
+                        }
+                    }
+                    out.println(String.join(",", values));
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Не удалось записать отчет о времени тестов: " + e.getMessage());
+        }
+    }
+
+    private static void writePages(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("browser,url,ttfb_ms,dom_content_loaded_ms,load_ms,bytes,requests,source");
+            for (Map.Entry<Browser, PageTiming> entry : PAGES) {
+                PageTiming page = entry.getValue();
+                out.println(String.join(",", entry.getKey().name(), "\"" + page.getUrl() + "\"",
+                    String.valueOf(page.getTtfb()), String.valueOf(page.getDomContentLoaded()),
+                    String.valueOf(page.getLoad()), String.valueOf(page.getBytes()),
+                    String.valueOf(page.getRequests()), page.getSource()));
+            }
+        }
+    }
+
+    private static List<Map<String, Object>> rows() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        HISTOGRAMS.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey(Comparator
+                .comparing((Metric metric) -> metric.browser)
+                .thenComparing(metric -> metric.category)
+                .thenComparing(metric -> metric.name)))
+            .forEach(entry -> {
+                LatencyHistogram histogram = entry.getValue();
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("browser", entry.getKey().browser.name());
+                row.put("category", entry.getKey().category);
+                row.put("name", entry.getKey().name);
+                row.put("count", histogram.getCount());
+                row.put("mean_ms", histogram.getMeanMillis());
+                row.put("p50_ms", histogram.getPercentileMillis(50));
+                row.put("p95_ms", histogram.getPercentileMillis(95));
+                row.put("p99_ms", histogram.getPercentileMillis(99));
+                row.put("max_ms", histogram.getMaxMillis());
+                rows.add(row);
+            });
+        return rows;
+    }
+
+    private static class Metric {
+        private final Browser browser;
+        private final String category;
+        private final String name;
+
+        Metric(Browser browser, String category, String name) {
+            this.browser = browser;
+            this.category = category;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Metric)) {
+                return false;
+            }
+            Metric that = (Metric) o;
+            return browser == that.browser && category.equals(that.category) && name.equals(that.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(browser, category, name);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.LocalFileDetector;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+/**
+ * Удаленный запуск браузеров через Selenium Grid 4.
+ * Адрес хаба задается свойством autobrowser.grid.url (например, http://localhost:4444).
+ * При первом обращении читается /status хаба: общее число слотов каждого браузера
+ * на узлах в состоянии UP. SessionLimiter не дает открыть больше сессий, включая
+ * простаивающие в пуле, поэтому при неизменном гриде тесты ждут слота у себя,
+ * а не в очереди хаба. Свободные слоты отдельных узлов не отслеживаются:
+ * узел для сессии выбирает хаб.
+ *
+ * Браузеры без слотов в гриде, а также все браузеры при недоступном хабе
+ * запускаются локально.
+ */
+public final class SeleniumGrid {
+    public static final String URL_PROPERTY = "autobrowser.grid.url";
+
+    private static final Duration STATUS_TIMEOUT = Duration.ofSeconds(10);
+    private static final Map<String, Browser> BROWSER_NAMES = Map.of(
+        "chrome", Browser.CHROME,
+        "firefox", Browser.FIREFOX,
+        "MicrosoftEdge", Browser.EDGE,
+        "msedge", Browser.EDGE);
+
+    private static SeleniumGrid shared;
+    private static boolean resolved;
+
+    private final URL hub;
+    private final Map<Browser, Integer> slots;
+
+    SeleniumGrid(URL hub, Map<Browser, Integer> slots) {
+        this.hub = hub;
+        this.slots = Collections.unmodifiableMap(slots);
+    }
+
+    /**
+     * Грид из свойства autobrowser.grid.url, один на JVM;
+     * null, если свойство не задано или хаб недоступен.
+     */
+    public static synchronized SeleniumGrid shared() {
+        if (!resolved) {
+            resolved = true;
+            String url = System.getProperty(URL_PROPERTY);
+            if (url != null && !url.isEmpty()) {
+                shared = connect(url);
+            }
+        }
+        return shared;
+    }
+
+    static SeleniumGrid connect(String url) {
+        try {
+            URI base = URI.create(url.endsWith("/") ? url : url + "/");
+            long start = System.nanoTime();
+            Map<Browser, Integer> slots = readSlots(base);
+            System.out.println(String.format("Selenium Grid %s: слоты %s (%.1f мс)", url, slots,
+                (System.nanoTime() - start) / 1e6));
+            if (slots.isEmpty()) {
+                System.out.println("В гриде нет доступных узлов, браузеры запускаются локально");
+                return null;
+            }
+            return new SeleniumGrid(base.toURL(), slots);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Selenium Grid " + url + " недоступен, браузеры запускаются локально: "
+                + e);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Число слотов каждого браузера на узлах в состоянии UP по ответу /status.
+     */
+    static Map<Browser, Integer> readSlots(URI base) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(STATUS_TIMEOUT).build();
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("status")).timeout(STATUS_TIMEOUT).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("/status вернул " + response.statusCode());
+        }
+        return parseSlots(response.body());
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<Browser, Integer> parseSlots(String status) {
+        Map<String, Object> json = new Json().toType(status, Json.MAP_TYPE);
+        Map<String, Object> value = (Map<String, Object>) json.getOrDefault("value", Collections.emptyMap());
+        Map<Browser, Integer> slots = new EnumMap<>(Browser.class);
+        for (Object nodeObject : (List<Object>) value.getOrDefault("nodes", Collections.emptyList())) {
+            Map<String, Object> node = (Map<String, Object>) nodeObject;
+            if (!"UP".equals(node.get("availability"))) {
+                continue;
+            }
+            for (Object slotObject : (List<Object>) node.getOrDefault("slots", Collections.emptyList())) {
+                Map<String, Object> stereotype = (Map<String, Object>) ((Map<String, Object>) slotObject)
+                    .getOrDefault("stereotype", Collections.emptyMap());
+                Browser browser = BROWSER_NAMES.get(String.valueOf(stereotype.get("browserName")));
+                if (browser != null) {
+                    slots.merge(browser, 1, Integer::sum);
+                }
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Есть ли в гриде слоты для браузера.
+     */
+    public boolean supports(Browser browser) {
+        return slots.containsKey(browser);
+    }
+
+    /**
+     * Число слотов браузера во всех узлах; 0, если браузера в гриде нет.
+     */
+    public int getSlots(Browser browser) {
+        return slots.getOrDefault(browser, 0);
+    }
+
+    /**
+     * Открывает сессию на хабе с опциями профиля. Файлы для sendKeys
+     * передаются на узел (LocalFileDetector), а Augmenter добавляет
+     * драйверу DevTools, если узел их поддерживает.
+     */
+    public WebDriver create(Browser browser, LaunchProfile profile) {
+        RemoteWebDriver driver = new RemoteWebDriver(hub, profile.toOptions(browser));
+        driver.setFileDetector(new LocalFileDetector());
+        return new Augmenter().augment(driver);
+    }
+
+    public URL getHub() {
+        return hub;
+    }
+}
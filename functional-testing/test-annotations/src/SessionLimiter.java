@@ -0,0 +1,124 @@
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Ограничивает число одновременно открытых сессий для каждого браузера,
+ * включая простаивающие в WebDriverPool: слот занят, пока браузер не закрыт.
+ * Если лимит не задан явно, он рассчитывается по числу ядер и свободной памяти
+ * и делится поровну между браузерами, чтобы они могли работать бок о бок.
+ * Браузеры внутри JVM почти не занимают памяти, поэтому для них лимит
+ * не меньше числа ядер. При запуске в Selenium Grid лимит браузера равен
+ * числу его слотов в гриде.
+ */
+public class SessionLimiter {
+    public static final String MAX_PER_BROWSER_PROPERTY = "autobrowser.sessions.maxPerBrowser";
+    public static final String MEMORY_PER_SESSION_PROPERTY = "autobrowser.sessions.memoryPerSessionMb";
+
+    public static final int DEFAULT_MEMORY_PER_SESSION_MB = 512;
+
+    private final Map<Browser, Semaphore> permits = new EnumMap<>(Browser.class);
+    private final int maxPerBrowser;
+
+    public SessionLimiter(int maxPerBrowser) {
+        this(maxPerBrowser, null);
+    }
+
+    /**
+     * Браузеры, для которых в гриде есть слоты, ограничиваются числом этих слотов,
+     * остальные - локальным лимитом.
+     */
+    public SessionLimiter(int maxPerBrowser, SeleniumGrid grid) {
+        this.maxPerBrowser = maxPerBrowser;
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (Browser browser : Browser.values()) {
+            int limit = browser.isInProcess() ? Math.max(maxPerBrowser, cores) : maxPerBrowser;
+            if (!browser.isInProcess() && grid != null && grid.supports(browser)) {
+                limit = grid.getSlots(browser);
+            }
+            permits.put(browser, new Semaphore(limit, true));
+        }
+    }
+
+    /**
+     * Создает ограничитель по параметрам конфигурации JUnit.
+     */
+    public static SessionLimiter fromConfiguration(ExtensionContext context) {
+        int memoryPerSession = context.getConfigurationParameter(MEMORY_PER_SESSION_PROPERTY)
+            .map(Integer::parseInt)
+            .orElse(DEFAULT_MEMORY_PER_SESSION_MB);
+        int maxPerBrowser = context.getConfigurationParameter(MAX_PER_BROWSER_PROPERTY)
+            .map(Integer::parseInt)
+            .orElseGet(() -> defaultMaxPerBrowser(memoryPerSession));
+        return new SessionLimiter(maxPerBrowser, SeleniumGrid.shared());
+    }
+
+    /**
+     * Ждет свободного слота для нового сеанса браузера.
+     */
+    public void acquire(Browser browser) {
+        try {
+            permits.get(browser).acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание слота для " + browser + " прервано", e);
+        }
+    }
+
+    /**
+     * Занимает слот, если он свободен.
+     */
+    public boolean tryAcquire(Browser browser) {
+        return permits.get(browser).tryAcquire();
+    }
+
+    /**
+     * Ждет свободного слота не дольше timeout.
+     */
+    public boolean tryAcquire(Browser browser, Duration timeout) {
+        try {
+            return permits.get(browser).tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание слота для " + browser + " прервано", e);
+        }
+    }
+
+    /**
+     * Освобождает слот после закрытия сессии.
+     */
+    public void release(Browser browser) {
+        permits.get(browser).release();
+    }
+
+    public int getMaxPerBrowser() {
+        return maxPerBrowser;
+    }
+
+    /**
+     * Число сессий на браузер: не больше ядер процессора и не больше,
+     * чем помещается в свободную физическую память.
+     */
+    private static int defaultMaxPerBrowser(int memoryPerSessionMb) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        long freeMemoryMb = freePhysicalMemory() / (1024 * 1024);
+        long byMemory = freeMemoryMb / memoryPerSessionMb;
+        long total = Math.min(cores, byMemory);
+        long processBrowsers = Arrays.stream(Browser.values()).filter(browser -> !browser.isInProcess()).count();
+        return (int) Math.max(1, total / processBrowsers);
+    }
+
+    private static long freePhysicalMemory() {
+        java.lang.management.OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) bean).getFreeMemorySize();
+        }
+        return Runtime.getRuntime().maxMemory();
+    }
+}
@@ -0,0 +1,319 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * История длительностей тестов между прогонами для шардирования и порядка запуска.
+ *
+ * Единица истории - вызов @AutoBrowser в одном браузере ("Класс#метод[CHROME]"),
+ * обычный тест ("Класс#метод") и класс без @AutoBrowser целиком ("Класс", вместе с
+ * @BeforeAll). Для каждой единицы хранятся скользящее среднее времени и доля
+ * падений (в том числе по таймауту). Приоритет единицы - время с надбавкой за
+ * падения: тест, падавший в половине прогонов, весит в 1,5 раза больше.
+ *
+ * Файл задается свойством autobrowser.history.file (по умолчанию
+ * ~/.cache/autobrowser/history/<каталог проекта>.properties). Прогоны одной сборки
+ * (шарды с общим autobrowser.history.run) пишут результаты в отдельные файлы рядом
+ * с историей, а учитываются они со следующей сборки: так все шарды строят план
+ * по одной и той же истории. Запись и слияние выполняются под блокировкой файла.
+ */
+public final class TestHistory {
+    public static final String FILE_PROPERTY = "autobrowser.history.file";
+    public static final String RUN_PROPERTY = "autobrowser.history.run";
+    public static final String ENABLED_PROPERTY = "autobrowser.history.enabled";
+
+    // Вес последнего прогона в скользящем среднем
+    private static final double ALPHA = 0.3;
+    private static final String PENDING_SUFFIX = ".pending";
+
+    private static TestHistory shared;
+
+    private final Path file;
+    private final Map<String, Entry> entries;
+    private final Map<String, long[]> results = new ConcurrentHashMap<>();
+
+    TestHistory(Path file, Map<String, Entry> entries) {
+        this.file = file;
+        this.entries = entries;
+    }
+
+    /**
+     * История из файла, одна на JVM; при первом обращении в нее сливаются
+     * результаты прошлых сборок.
+     */
+    public static synchronized TestHistory shared() {
+        if (shared == null) {
+            Path file = file();
+            Map<String, Entry> entries = Collections.emptyMap();
+            if (isEnabled()) {
+                try {
+                    entries = load(file, System.getProperty(RUN_PROPERTY));
+                } catch (IOException e) {
+                    System.out.println("Не удалось прочитать историю тестов " + file + ": " + e.getMessage());
+                }
+            }
+            shared = new TestHistory(file, entries);
+        }
+        return shared;
+    }
+
+    static boolean isEnabled() {
+        return !"false".equals(System.getProperty(ENABLED_PROPERTY));
+    }
+
+    public static String key(String className, String methodName) {
+        return className + "#" + methodName;
+    }
+
+    public static String key(String className, String methodName, Browser browser) {
+        return key(className, methodName) + "[" + browser.name() + "]";
+    }
+
+    /**
+     * Ожидаемое время единицы в миллисекундах; для единиц без истории -
+     * среднее по известным, а без истории вообще - 0.
+     */
+    public double estimate(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            return entry.millis;
+        }
+        return entries.values().stream().mapToDouble(known -> known.millis).average().orElse(0);
+    }
+
+    /**
+     * Время с надбавкой за долю падений - чем больше, тем раньше запускается единица.
+     */
+    public double priority(String key) {
+        Entry entry = entries.get(key);
+        return estimate(key) * (1 + (entry == null ? 0 : entry.failRate));
+    }
+
+    /**
+     * Приоритет класса: его запись, если класс записывается целиком, иначе сумма его методов.
+     */
+    public double priorityOfClass(String className) {
+        return entries.containsKey(className) ? priority(className) : priorityOfPrefix(className + "#");
+    }
+
+    /**
+     * Приоритет метода: запись обычного теста или сумма вызовов @AutoBrowser по браузерам.
+     */
+    public double priorityOfMethod(String className, String methodName) {
+        String key = key(className, methodName);
+        return entries.containsKey(key) ? priority(key) : priorityOfPrefix(key + "[");
+    }
+
+    private double priorityOfPrefix(String prefix) {
+        double total = 0;
+        for (String key : entries.keySet()) {
+            if (key.startsWith(prefix)) {
+                total += priority(key);
+            }
+        }
+        // Тесты без истории считаются средними
+        return total > 0 ? total : estimate(prefix);
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Добавляет время вызова к единице; несколько вызовов одной единицы за прогон суммируются.
+     */
+    public void record(String key, long nanos, boolean failed) {
+        results.compute(key, (k, value) -> {
+            long[] total = value == null ? new long[2] : value;
+            total[0] += nanos;
+            total[1] |= failed ? 1 : 0;
+            return total;
+        });
+    }
+
+    /**
+     * Сохраняет результаты прогона: в сборке с autobrowser.history.run - в отдельный файл
+     * до следующей сборки, иначе сразу в историю.
+     */
+    public synchronized void save() {
+        if (results.isEmpty() || !isEnabled()) {
+            return;
+        }
+        Properties run = new Properties();
+        results.forEach((key, total) -> run.setProperty(key, String.format(Locale.ROOT, "%.1f,%d",
+            total[0] / (double) TimeUnit.MILLISECONDS.toNanos(1), total[1])));
+        results.clear();
+
+        String runId = System.getProperty(RUN_PROPERTY);
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(lockFile(file),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    if (runId != null && !runId.isEmpty()) {
+                        Path pending = file.resolveSibling(file.getFileName() + PENDING_SUFFIX)
+                            .resolve(runId + "-" + ProcessHandle.current().pid() + ".properties");
+                        Files.createDirectories(pending.getParent());
+                        store(run, pending);
+                    } else {
+                        Map<String, Entry> merged = new TreeMap<>(read(file));
+                        merge(merged, run);
+                        write(file, merged);
+                    }
+                } finally {
+                    lock.release();
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Не удалось сохранить историю тестов " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Читает историю и сливает в нее результаты прошлых сборок (кроме сборки runId).
+     */
+    static Map<String, Entry> load(Path file, String runId) throws IOException {
+        Path pendingDir = file.resolveSibling(file.getFileName() + PENDING_SUFFIX);
+        if (!Files.isDirectory(pendingDir)) {
+            return read(file);
+        }
+        try (FileChannel channel = FileChannel.open(lockFile(file),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                Map<String, Entry> entries = new TreeMap<>(read(file));
+                List<Path> pending = new ArrayList<>();
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(pendingDir, "*.properties")) {
+                    for (Path path : files) {
+                        if (runId == null || !path.getFileName().toString().startsWith(runId + "-")) {
+                            pending.add(path);
+                        }
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return entries;
+                }
+                // Порядок слияния не зависит от файловой системы, чтобы шарды получили одну историю
+                Collections.sort(pending);
+                for (Path path : pending) {
+                    Properties run = new Properties();
+                    try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                        run.load(reader);
+                    }
+                    merge(entries, run);
+                }
+                write(file, entries);
+                for (Path path : pending) {
+                    Files.delete(path);
+                }
+                return entries;
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    private static void merge(Map<String, Entry> entries, Properties run) {
+        for (String key : new TreeSet<>(run.stringPropertyNames())) {
+            String[] values = run.getProperty(key).split(",");
+            double millis = Double.parseDouble(values[0]);
+            double failed = Double.parseDouble(values[1]);
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entries.put(key, new Entry(millis, failed, 1));
+            } else {
+                entries.put(key, new Entry(entry.millis + ALPHA * (millis - entry.millis),
+                    entry.failRate + ALPHA * (failed - entry.failRate), entry.runs + 1));
+            }
+        }
+    }
+
+    private static Map<String, Entry> read(Path file) throws IOException {
+        Map<String, Entry> entries = new TreeMap<>();
+        if (!Files.isRegularFile(file)) {
+            return entries;
+        }
+        Properties history = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            history.load(reader);
+        }
+        for (String key : history.stringPropertyNames()) {
+            String[] values = history.getProperty(key).split(",");
+            entries.put(key, new Entry(Double.parseDouble(values[0]), Double.parseDouble(values[1]),
+                Integer.parseInt(values[2])));
+        }
+        return entries;
+    }
+
+    private static void write(Path file, Map<String, Entry> entries) throws IOException {
+        Properties history = new Properties();
+        entries.forEach((key, entry) -> history.setProperty(key, String.format(Locale.ROOT, "%.1f,%.3f,%d",
+            entry.millis, entry.failRate, entry.runs)));
+        store(history, file);
+    }
+
+    private static void store(Properties properties, Path path) throws IOException {
+        Path temp = Files.createTempFile(path.getParent(), "history", ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Test durations, ms");
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Path lockFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".lock");
+    }
+
+    private static Path file() {
+        String path = System.getProperty(FILE_PROPERTY);
+        if (path != null && !path.isEmpty()) {
+            return Paths.get(path);
+        }
+        String project = Paths.get("").toAbsolutePath().getFileName().toString();
+        return Paths.get(System.getProperty("user.home"), ".cache", "autobrowser", "history", project + ".properties");
+    }
+
+    static final class Entry {
+        private final double millis;
+        private final double failRate;
+        private final int runs;
+
+        Entry(double millis, double failRate, int runs) {
+            this.millis = millis;
+            this.failRate = failRate;
+            this.runs = runs;
+        }
+
+        double getMillis() {
+            return millis;
+        }
+
+        double getFailRate() {
+            return failRate;
+        }
+
+        int getRuns() {
+            return runs;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import org.junit.platform.commons.support.ReflectionSupport;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+/**
+ * Фильтр запуска JUnit, который делит тесты на N шардов по истории TestHistory.
+ * Подключается автоматически через META-INF/services; шард задается свойством
+ * autobrowser.shard вида "2/4" (второй из четырех), без него фильтр ничего не отбрасывает.
+ *
+ * Единицы шардирования - вызовы @AutoBrowser в отдельных браузерах и классы
+ * без @AutoBrowser целиком (их @BeforeAll запускает браузер на весь класс).
+ * Единицы раскладываются жадно: по убыванию приоритета каждая отдается шарду
+ * с наименьшим ожидаемым временем, так что медленные и падающие по таймауту тесты
+ * распределяются первыми и шарды заканчиваются примерно одновременно.
+ * Все шарды строят план по одному списку тестов и одной истории, поэтому каждая
+ * единица попадает ровно в один шард. Браузеры метода, доставшиеся другим шардам,
+ * убирает AutoBrowserSpec через select. План записывается в отчет рядом с timings.csv.
+ */
+public class TestShards implements PostDiscoveryFilter {
+    public static final String SHARD_PROPERTY = "autobrowser.shard";
+
+    private static Set<String> assigned;
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor) {
+        String shard = System.getProperty(SHARD_PROPERTY);
+        if (shard == null || shard.isEmpty()) {
+            return FilterResult.included("Шардирование выключено");
+        }
+        if (!(descriptor.getSource().orElse(null) instanceof MethodSource)) {
+            return FilterResult.included("Не тестовый метод");
+        }
+        Set<String> shardUnits = assignedUnits(descriptor, shard);
+        MethodSource source = (MethodSource) descriptor.getSource().get();
+        for (String unit : units(source.getClassName(), source.getJavaClass(), source.getJavaMethod())) {
+            if (shardUnits.contains(unit)) {
+                return FilterResult.included("Шард " + shard);
+            }
+        }
+        return FilterResult.excluded("Другой шард");
+    }
+
+    /**
+     * Браузеры метода @AutoBrowser из текущего шарда по убыванию приоритета.
+     */
+    static List<Browser> select(String className, Method method, List<Browser> browsers) {
+        Set<String> units = currentUnits();
+        TestHistory history = TestHistory.shared();
+        List<Browser> selected = new ArrayList<>();
+        for (Browser browser : browsers) {
+            if (units == null || units.contains(TestHistory.key(className, method.getName(), browser))) {
+                selected.add(browser);
+            }
+        }
+        selected.sort(Comparator.comparingDouble(
+            (Browser browser) -> -history.priority(TestHistory.key(className, method.getName(), browser))));
+        return Collections.unmodifiableList(selected);
+    }
+
+    private static synchronized Set<String> currentUnits() {
+        return assigned;
+    }
+
+    /**
+     * План строится при первом вызове фильтра, пока из дерева тестов еще ничего не удалено.
+     */
+    private static synchronized Set<String> assignedUnits(TestDescriptor descriptor, String shard) {
+        if (assigned == null) {
+            String[] parts = shard.split("/");
+            int index;
+            int count;
+            try {
+                index = Integer.parseInt(parts[0].trim()) - 1;
+                count = Integer.parseInt(parts[1].trim());
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Ожидается шард вида 2/4: " + shard, e);
+            }
+            if (count < 1 || index < 0 || index >= count) {
+                throw new IllegalArgumentException("Номер шарда вне диапазона: " + shard);
+            }
+            TestDescriptor root = descriptor;
+            while (root.getParent().isPresent()) {
+                root = root.getParent().get();
+            }
+            assigned = plan(collectUnits(root), index, count);
+        }
+        return assigned;
+    }
+
+    private static List<String> collectUnits(TestDescriptor root) {
+        Set<String> units = new LinkedHashSet<>();
+        root.accept(descriptor -> {
+            if (descriptor.getChildren().isEmpty() && descriptor.getSource().orElse(null) instanceof MethodSource) {
+                MethodSource source = (MethodSource) descriptor.getSource().get();
+                units.addAll(units(source.getClassName(), source.getJavaClass(), source.getJavaMethod()));
+            }
+        });
+        return new ArrayList<>(units);
+    }
+
+    /**
+     * Раскладывает единицы по count шардам, записывает план в отчет и возвращает единицы шарда index.
+     */
+    static Set<String> plan(List<String> units, int index, int count) {
+        TestHistory history = TestHistory.shared();
+        List<List<String>> shards = assign(units, count, history);
+        writePlan(shards, index, history);
+        return new LinkedHashSet<>(shards.get(index));
+    }
+
+    /**
+     * Жадная раскладка: по убыванию приоритета (при равенстве - по имени) каждая единица
+     * отдается шарду с наименьшим ожидаемым временем. Результат зависит только
+     * от набора единиц и истории, но не от их порядка.
+     */
+    static List<List<String>> assign(List<String> units, int count, TestHistory history) {
+        List<String> sorted = new ArrayList<>(new TreeSet<>(units));
+        sorted.sort(Comparator.comparingDouble((String unit) -> -history.priority(unit))
+            .thenComparing(Comparator.naturalOrder()));
+
+        double[] loads = new double[count];
+        List<List<String>> shards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            shards.add(new ArrayList<>());
+        }
+        for (String unit : sorted) {
+            int lightest = 0;
+            for (int i = 1; i < count; i++) {
+                if (loads[i] < loads[lightest]) {
+                    lightest = i;
+                }
+            }
+            shards.get(lightest).add(unit);
+            loads[lightest] += weight(unit, history);
+        }
+        return shards;
+    }
+
+    private static double weight(String unit, TestHistory history) {
+        // Без истории у всех единиц одинаковый вес, и раскладка идет по кругу
+        return Math.max(1, history.estimate(unit));
+    }
+
+    /**
+     * План всех шардов в shard-N-of-M.csv каталога отчета PerfRecorder: у каждого
+     * шарда свой файл, поэтому шарды одной сборки не перезаписывают друг друга.
+     */
+    private static void writePlan(List<List<String>> shards, int index, TestHistory history) {
+        Path file = Paths.get(System.getProperty(PerfRecorder.REPORT_DIR_PROPERTY, "build/autobrowser"))
+            .resolve("shard-" + (index + 1) + "-of-" + shards.size() + ".csv");
+        try {
+            Files.createDirectories(file.getParent());
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+                out.println("shard,unit,estimate_ms,priority");
+                for (int i = 0; i < shards.size(); i++) {
+                    for (String unit : shards.get(i)) {
+                        out.println(String.format(Locale.ROOT, "%d,\"%s\",%.1f,%.1f",
+                            i + 1, unit, history.estimate(unit), history.priority(unit)));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Не удалось записать план шардов " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Единицы метода: вызовы в каждом браузере для @AutoBrowser; метод целиком в классах
+     * с @AutoBrowser; весь класс, если @AutoBrowser в нем нет.
+     */
+    static List<String> units(String className, Class<?> testClass, Method method) {
+        AutoBrowser annotation = method.getAnnotation(AutoBrowser.class);
+        if (annotation != null) {
+            List<String> units = new ArrayList<>();
+            for (Browser browser : AutoBrowserSpec.selectBrowsers(annotation)) {
+                units.add(TestHistory.key(className, method.getName(), browser));
+            }
+            return units;
+        }
+        return Collections.singletonList(
+            hasAutoBrowser(testClass) ? TestHistory.key(className, method.getName()) : className);
+    }
+
+    static boolean hasAutoBrowser(Class<?> testClass) {
+        return !ReflectionSupport.findMethods(testClass,
+            candidate -> AnnotationSupport.isAnnotated(candidate, AutoBrowser.class),
+            HierarchyTraversalMode.TOP_DOWN).isEmpty();
+    }
+}
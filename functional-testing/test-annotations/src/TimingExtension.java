@@ -0,0 +1,88 @@
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+
+/**
+ * JUnit расширение, которое замеряет этапы тестов с @AutoBrowser по браузерам:
+ * методы @BeforeEach, тело теста и методы @AfterEach.
+ * Этапы работы с сессией (запуск, открытие страницы, возврат в пул)
+ * замеряет WebDriverExtension. Для тестов с @ImageSweep тело теста
+ * дополнительно записывается по картинке. Отчет пишется после завершения всех тестов.
+ *
+ * Браузер берется из аргументов вызова теста. Методы @BeforeEach выполняются
+ * раньше, чем становятся известны аргументы, поэтому их время записывается
+ * при вызове теста; если тест не вызывался, время @BeforeEach не записывается.
+ */
+public class TimingExtension implements InvocationInterceptor {
+    private static final ExtensionContext.Namespace NAMESPACE =
+        ExtensionContext.Namespace.create(TimingExtension.class);
+    private static final String BEFORE_EACH = "beforeEach";
+
+    @Override
+    public void interceptBeforeEachMethod(Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext context) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            invocation.proceed();
+        } finally {
+            // Методов @BeforeEach может быть несколько - их время суммируется
+            ExtensionContext.Store store = context.getStore(NAMESPACE);
+            long previous = store.getOrDefault(BEFORE_EACH, Long.class, 0L);
+            store.put(BEFORE_EACH, previous + System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void interceptTestTemplateMethod(Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext context) throws Throwable {
+        Browser browser = null;
+        ImageSpec image = null;
+        for (Object argument : invocationContext.getArguments()) {
+            if (argument instanceof Browser) {
+                browser = (Browser) argument;
+            } else if (argument instanceof ImageSpec) {
+                image = (ImageSpec) argument;
+            }
+        }
+        if (browser != null) {
+            Long beforeEach = context.getStore(NAMESPACE).remove(BEFORE_EACH, Long.class);
+            if (beforeEach != null) {
+                PerfRecorder.record(browser, PerfRecorder.PHASE, "beforeEach", beforeEach);
+            }
+        }
+        time(invocation, context, "test", image);
+    }
+
+    @Override
+    public void interceptAfterEachMethod(Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext context) throws Throwable {
+        time(invocation, context, "afterEach", null);
+    }
+
+    private static void time(Invocation<Void> invocation, ExtensionContext context, String phase,
+            ImageSpec image) throws Throwable {
+        // Расширение подключается к методам, поэтому отчет регистрируется при первом вызове
+        context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(
+            "report", key -> (ExtensionContext.Store.CloseableResource) PerfRecorder::writeReport);
+
+        Browser browser = AutoBrowserSpec.browserOf(context);
+        long start = System.nanoTime();
+        try {
+            invocation.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (browser != null) {
+                PerfRecorder.record(browser, PerfRecorder.PHASE, phase, elapsed);
+                if (image != null) {
+                    PerfRecorder.record(browser, PerfRecorder.IMAGE,
+                        context.getRequiredTestMethod().getName() + " " + image, elapsed);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Гистограммы времени ожидания по локаторам.
+ * Показывают, где тесты простаивают в ожидании элементов.
+ * При завершении JVM сводка пишется в CSV (свойство autobrowser.waits.report,
+ * по умолчанию build/autobrowser/wait-times.csv).
+ */
+public final class WaitStats {
+    public static final String REPORT_PROPERTY = "autobrowser.waits.report";
+
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(WaitStats::writeReport));
+    }
+
+    private WaitStats() {
+    }
+
+    public static void record(String locator, long nanos) {
+        HISTOGRAMS.computeIfAbsent(locator, key -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Возвращает снимок гистограмм, отсортированный по локатору.
+     */
+    public static Map<String, LatencyHistogram> snapshot() {
+        return new TreeMap<>(HISTOGRAMS);
+    }
+
+    private static void writeReport() {
+        if (HISTOGRAMS.isEmpty()) {
+            return;
+        }
+        Path path = Paths.get(System.getProperty(REPORT_PROPERTY, "build/autobrowser/wait-times.csv"));
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+                out.println("locator,count,mean_ms,p50_ms,p95_ms,p99_ms,max_ms");
+                snapshot().forEach((locator, histogram) -> out.printf(Locale.ROOT,
+                    "\"%s\",%d,%.1f,%.1f,%.1f,%.1f,%.1f%n",
+                    locator.replace("\"", "\"\""),
+                    histogram.getCount(),
+                    histogram.getMeanMillis(),
+                    histogram.getPercentileMillis(50),
+                    histogram.getPercentileMillis(95),
+                    histogram.getPercentileMillis(99),
+                    histogram.getMaxMillis()));
+            }
+        } catch (IOException e) {
+            System.out.println("Не удалось записать статистику ожиданий: " + e.getMessage());
+        }
+    }
+}
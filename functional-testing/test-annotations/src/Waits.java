@@ -0,0 +1,34 @@
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Точка входа в подсистему ожиданий.
+ * Неявные ожидания отключаются при создании драйвера, все ожидания идут через
+ * AdaptiveWait, который создается один раз на сессию и переиспользуется.
+ * Запись удаляется вместе с сессией, когда на нее не остается ссылок.
+ */
+public final class Waits {
+    private static final Map<WebDriver, AdaptiveWait> WAITS =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    private Waits() {
+    }
+
+    /**
+     * Возвращает ожидание для сессии, создавая его при первом обращении.
+     */
+    public static AdaptiveWait forDriver(WebDriver driver) {
+        return WAITS.computeIfAbsent(driver, AdaptiveWait::new);
+    }
+
+    /**
+     * Отключает неявные ожидания, чтобы они не складывались с явными.
+     */
+    public static void disableImplicitWait(WebDriver driver) {
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+    }
+}
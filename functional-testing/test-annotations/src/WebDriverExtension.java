@@ -1,51 +1,136 @@
 import java.lang.reflect.Method;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 
-import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
 import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
 import org.openqa.selenium.WebDriver;
+import org.opentest4j.AssertionFailedError;
 
 /**
  * JUnit расширение, которое автоматически настраивает WebDriver
  * перед выполнением тестов с аннотацией @AutoBrowser.
+ * Браузер берется из аргументов вызова теста, а не из его отображаемого имени.
+ * Сессии берутся из общего WebDriverPool и возвращаются в него после теста.
+ * На время теста сессия привязывается к потоку через DriverHandle,
+ * поэтому вызовы могут выполняться параллельно.
+ * Подготовки @CachedFixture выполняются после открытия страницы, один раз на сессию.
+ * Страницы, открытые за время теста, проверяются по бюджету @PerfBudget.
  */
-public class WebDriverExtension implements BeforeTestExecutionCallback {
+public class WebDriverExtension implements InvocationInterceptor {
+    private static final ExtensionContext.Namespace NAMESPACE =
+        ExtensionContext.Namespace.create(WebDriverExtension.class);
     
     @Override
-    public void beforeTestExecution(ExtensionContext context) throws Exception {
+    public void interceptTestTemplateMethod(Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext context) throws Throwable {
         Object testInstance = context.getRequiredTestInstance();
-        Optional<Method> testMethod = context.getTestMethod();
+        if (!(testInstance instanceof BaseBrowserTestI)) {
+            throw new ExtensionConfigurationException(
+                "Тестовый класс с @AutoBrowser должен реализовывать BaseBrowserTestI");
+        }
+        BaseBrowserTestI test = (BaseBrowserTestI) testInstance;
+        
+        // Разобранная аннотация хранится в контексте метода, общем для всех вызовов
+        AutoBrowserSpec spec = AutoBrowserSpec.of(context.getParent().orElse(context));
+        Browser browser = findBrowser(invocationContext);
+        LaunchProfile profile = spec.getProfile();
+        AutoBrowserSpec.bindBrowser(context, browser);
         
-        if (testInstance instanceof BaseBrowserTestI && testMethod.isPresent()) {
-            BaseBrowserTestI test = (BaseBrowserTestI) testInstance;
-            Method method = testMethod.get();
-            
-            AutoBrowser annotation = method.getAnnotation(AutoBrowser.class);
-            if (annotation != null) {
-                String displayName = context.getDisplayName();
-                Browser browser = null;
-                
-                if (displayName.contains("CHROME")) {
-                    browser = Browser.CHROME;
-                } else if (displayName.contains("FIREFOX")) {
-                    browser = Browser.FIREFOX;
-                } else if (displayName.contains("EDGE")) {
-                    browser = Browser.EDGE;
-                }
-                
-                if (browser != null) {
-                    WebDriver driver = test.setupDriver(browser);
-                    
-                    if (driver != null) {
-                        String url = annotation.url();
-                        if (url != null && !url.isEmpty()) {
-                            driver.get(url);
-                        } else if (test.getBaseUrl() != null && !test.getBaseUrl().isEmpty()) {
-                            driver.get(test.getBaseUrl());
-                        }
-                    }
-                }
+        WebDriverPool pool = getPool(context);
+        long start = System.nanoTime();
+        WebDriver driver = pool.acquire(browser, profile,
+            () -> CommandTimingListener.decorate(browser, test.setupDriver(browser, profile)));
+        start = recordPhase(browser, "acquire", start);
+        if (driver == null) {
+            throw new IllegalStateException("Не удалось запустить браузер " + browser);
+        }
+        
+        DriverHandle.set(driver);
+        PerfBudget budget = spec.getBudget();
+        PageTimingListener.startCollecting(budget);
+        try {
+            String url = spec.getUrl();
+            if (!url.isEmpty()) {
+                driver.get(url);
+            } else if (test.getBaseUrl() != null && !test.getBaseUrl().isEmpty()) {
+                driver.get(test.getBaseUrl());
+            }
+            start = recordPhase(browser, "navigate", start);
+            CachedFixture fixture = spec.getFixture();
+            if (fixture != null) {
+                // Страницы подготовки открываются только без кэша - бюджет их не проверяет
+                PageTimingListener.pauseCollecting();
+                FixtureState.setCurrent(getFixtureCache(context).get(driver, fixture.value(), fixture.navigate()));
+                PageTimingListener.resumeCollecting();
+                recordPhase(browser, "fixture", start);
+            }
+            invocation.proceed();
+            if (budget != null) {
+                checkBudget(budget, PageTimingListener.collected());
+            }
+        } finally {
+            PageTimingListener.stopCollecting();
+            FixtureState.clearCurrent();
+            DriverHandle.clear();
+            start = System.nanoTime();
+            pool.release(browser, profile, driver);
+            recordPhase(browser, "release", start);
+        }
+    }
+    
+    private static long recordPhase(Browser browser, String phase, long start) {
+        long now = System.nanoTime();
+        PerfRecorder.record(browser, PerfRecorder.PHASE, phase, now - start);
+        return now;
+    }
+    
+    /**
+     * Бросает AssertionFailedError со всеми превышениями бюджета страниц теста.
+     */
+    private static void checkBudget(PerfBudget budget, List<PageTiming> pages) {
+        List<String> violations = new ArrayList<>();
+        for (PageTiming page : pages) {
+            violations.addAll(page.checkBudget(budget));
+        }
+        if (!violations.isEmpty()) {
+            throw new AssertionFailedError("Превышен бюджет загрузки страниц:\n" + String.join("\n", violations));
+        }
+    }
+    
+    /**
+     * Находит браузер среди аргументов, переданных BrowserArgumentProvider.
+     */
+    private static Browser findBrowser(ReflectiveInvocationContext<Method> invocationContext) {
+        for (Object argument : invocationContext.getArguments()) {
+            if (argument instanceof Browser) {
+                return (Browser) argument;
             }
         }
+        throw new ExtensionConfigurationException("Метод " + invocationContext.getExecutable().getName()
+            + " с @AutoBrowser должен принимать параметр типа Browser");
+    }
+    
+    /**
+     * Возвращает пул сессий, общий для всего прогона тестов.
+     */
+    private static WebDriverPool getPool(ExtensionContext context) {
+        return context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(
+            WebDriverPool.class, key -> WebDriverPool.fromConfiguration(context), WebDriverPool.class);
+    }
+
+    /**
+     * Возвращает кэш подготовок, который забывает сессии, закрытые пулом.
+     */
+    private static FixtureCache getFixtureCache(ExtensionContext context) {
+        WebDriverPool pool = getPool(context);
+        return context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(FixtureCache.class, key -> {
+            FixtureCache cache = new FixtureCache();
+            pool.addQuitListener(cache::invalidate);
+            return cache;
+        }, FixtureCache.class);
     }
-}
\ No newline at end of file
+}
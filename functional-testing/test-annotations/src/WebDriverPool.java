@@ -0,0 +1,356 @@
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+
+/**
+ * Пул переиспользуемых сессий WebDriver, разбитый по браузерам и профилям запуска.
+ * Вместо запуска нового браузера на каждый тест отдает уже запущенную сессию,
+ * предварительно очистив ее состояние (cookies, storage, лишние окна).
+ * Хранится в корневом ExtensionContext.Store и закрывает все сессии
+ * после завершения прогона. Потокобезопасен.
+ *
+ * SessionLimiter ограничивает число открытых сессий каждого браузера - и выданных
+ * тестам, и простаивающих в пуле: слот освобождается только при закрытии браузера.
+ * Если свободных слотов нет, а в пуле простаивает сессия того же браузера с другим
+ * профилем, она закрывается и ее слот отдается новой сессии. Так простаивающие
+ * браузеры не занимают слоты Selenium Grid, пока другие тесты ждут.
+ */
+public class WebDriverPool implements ExtensionContext.Store.CloseableResource {
+    public static final String ENABLED_PROPERTY = "autobrowser.pool.enabled";
+    public static final String MAX_SIZE_PROPERTY = "autobrowser.pool.maxSize";
+    public static final String IDLE_TIMEOUT_PROPERTY = "autobrowser.pool.idleTimeoutSeconds";
+
+    public static final int DEFAULT_MAX_SIZE = 2;
+    public static final int DEFAULT_IDLE_TIMEOUT = 60;
+
+    private static final String BLANK_PAGE = "about:blank";
+    // Как часто ожидающий слота тест проверяет, не появилась ли в пуле сессия для него или на замену
+    private static final Duration SLOT_WAIT_STEP = Duration.ofMillis(100);
+    private static final String CLEAR_STORAGE_SCRIPT =
+        "try { window.localStorage.clear(); } catch (e) {}"
+        + "try { window.sessionStorage.clear(); } catch (e) {}";
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final Duration idleTimeout;
+    private final SessionLimiter limiter;
+    private final Map<SessionKey, Deque<IdleSession>> idle = new HashMap<>();
+    private final List<Consumer<WebDriver>> quitListeners = new CopyOnWriteArrayList<>();
+
+    private int created;
+    private int reused;
+    private int replaced;
+
+    public WebDriverPool(boolean enabled, int maxSize, Duration idleTimeout, SessionLimiter limiter) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.limiter = limiter;
+    }
+
+    /**
+     * Создает пул по параметрам конфигурации JUnit
+     * (junit-platform.properties или системные свойства JVM).
+     */
+    public static WebDriverPool fromConfiguration(ExtensionContext context) {
+        boolean enabled = context.getConfigurationParameter(ENABLED_PROPERTY)
+            .map(Boolean::parseBoolean)
+            .orElse(true);
+        int maxSize = context.getConfigurationParameter(MAX_SIZE_PROPERTY)
+            .map(Integer::parseInt)
+            .orElse(DEFAULT_MAX_SIZE);
+        int idleTimeout = context.getConfigurationParameter(IDLE_TIMEOUT_PROPERTY)
+            .map(Integer::parseInt)
+            .orElse(DEFAULT_IDLE_TIMEOUT);
+        return new WebDriverPool(enabled, maxSize, Duration.ofSeconds(idleTimeout),
+            SessionLimiter.fromConfiguration(context));
+    }
+
+    /**
+     * Регистрирует обработчик, вызываемый перед закрытием сессии пулом -
+     * например, чтобы забыть связанное с сессией состояние.
+     */
+    public void addQuitListener(Consumer<WebDriver> listener) {
+        quitListeners.add(listener);
+    }
+
+    /**
+     * Выдает свободную сессию для указанного браузера и профиля.
+     * Если свободной сессии нет, создает новую через factory: в свободном слоте
+     * SessionLimiter или на месте простаивающей сессии браузера с другим профилем.
+     * Блокируется, пока не появится одно из трех.
+     */
+    public WebDriver acquire(Browser browser, LaunchProfile profile, Supplier<WebDriver> factory) {
+        SessionKey key = new SessionKey(browser, profile);
+        while (true) {
+            if (enabled) {
+                WebDriver driver = pollAlive(key);
+                if (driver != null) {
+                    return driver;
+                }
+            }
+            if (limiter.tryAcquire(browser)) {
+                break;
+            }
+            WebDriver victim = pollOther(key);
+            if (victim != null) {
+                // Слот закрытой сессии переходит к новой
+                quit(victim);
+                break;
+            }
+            if (limiter.tryAcquire(browser, SLOT_WAIT_STEP)) {
+                break;
+            }
+        }
+
+        try {
+            WebDriver driver = factory.get();
+            if (driver == null) {
+                limiter.release(browser);
+                return null;
+            }
+            synchronized (this) {
+                created++;
+            }
+            return driver;
+        } catch (RuntimeException e) {
+            limiter.release(browser);
+            throw e;
+        }
+    }
+
+    private WebDriver pollAlive(SessionKey key) {
+        WebDriver driver;
+        while ((driver = poll(key)) != null) {
+            if (isAlive(driver)) {
+                synchronized (this) {
+                    reused++;
+                }
+                return driver;
+            }
+            close(key.browser, driver);
+        }
+        return null;
+    }
+
+    /**
+     * Забирает из пула самую давно простаивающую сессию того же браузера с другим профилем.
+     */
+    private WebDriver pollOther(SessionKey key) {
+        IdleSession oldest = null;
+        Deque<IdleSession> owner = null;
+        synchronized (this) {
+            for (Map.Entry<SessionKey, Deque<IdleSession>> entry : idle.entrySet()) {
+                IdleSession last = entry.getValue().peekLast();
+                if (entry.getKey().browser == key.browser && !entry.getKey().equals(key) && last != null
+                        && (oldest == null || last.releasedAt < oldest.releasedAt)) {
+                    oldest = last;
+                    owner = entry.getValue();
+                }
+            }
+            if (oldest == null) {
+                return null;
+            }
+            owner.pollLast();
+            replaced++;
+        }
+        return oldest.driver;
+    }
+
+    /**
+     * Возвращает сессию в пул после теста; слот остается за ней.
+     * Если пул отключен, переполнен или сессию не удалось очистить, браузер закрывается
+     * и слот освобождается.
+     */
+    public void release(Browser browser, LaunchProfile profile, WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        SessionKey key = new SessionKey(browser, profile);
+        if (!enabled || !reset(driver)) {
+            close(browser, driver);
+            return;
+        }
+
+        List<IdleSession> expired;
+        boolean accepted = false;
+        synchronized (this) {
+            expired = evictExpired();
+            Deque<IdleSession> sessions = idle.computeIfAbsent(key, k -> new ArrayDeque<>());
+            if (sessions.size() < maxSize) {
+                sessions.push(new IdleSession(key.browser, driver, System.nanoTime()));
+                accepted = true;
+            }
+        }
+
+        if (!accepted) {
+            close(browser, driver);
+        }
+        closeAll(expired);
+    }
+
+    /**
+     * Закрывает все сессии, оставшиеся в пуле.
+     */
+    @Override
+    public void close() {
+        List<IdleSession> sessions = new ArrayList<>();
+        synchronized (this) {
+            idle.values().forEach(sessions::addAll);
+            idle.clear();
+            System.out.println("Пул WebDriver: создано сессий " + created + ", переиспользовано " + reused
+                + ", закрыто ради слота " + replaced);
+        }
+        closeAll(sessions);
+    }
+
+    private WebDriver poll(SessionKey key) {
+        List<IdleSession> expired;
+        IdleSession session;
+        synchronized (this) {
+            expired = evictExpired();
+            Deque<IdleSession> sessions = idle.get(key);
+            // Берем последнюю возвращенную сессию, чтобы давно простаивающие истекали
+            session = sessions == null ? null : sessions.poll();
+        }
+        closeAll(expired);
+        return session == null ? null : session.driver;
+    }
+
+    /**
+     * Убирает из пула сессии, простаивающие дольше idleTimeout.
+     * Вызывается под блокировкой пула, сами браузеры закрываются снаружи.
+     */
+    private List<IdleSession> evictExpired() {
+        List<IdleSession> expired = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Deque<IdleSession> sessions : idle.values()) {
+            Iterator<IdleSession> iterator = sessions.descendingIterator();
+            while (iterator.hasNext()) {
+                IdleSession session = iterator.next();
+                if (now - session.releasedAt < idleTimeout.toNanos()) {
+                    break;
+                }
+                expired.add(session);
+                iterator.remove();
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Очищает состояние сессии: закрывает лишние окна, storage и cookies.
+     * Команды идут в исходный драйвер, чтобы не попадать в замеры тестов.
+     */
+    private static boolean reset(WebDriver session) {
+        WebDriver driver = unwrap(session);
+        try {
+            List<String> handles = new ArrayList<>(driver.getWindowHandles());
+            for (int i = 1; i < handles.size(); i++) {
+                driver.switchTo().window(handles.get(i));
+                driver.close();
+            }
+            driver.switchTo().window(handles.get(0));
+
+            if (driver instanceof JavascriptExecutor) {
+                ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+            }
+            driver.manage().deleteAllCookies();
+            driver.get(BLANK_PAGE);
+            return true;
+        } catch (Exception e) {
+            System.out.println("Не удалось очистить сессию WebDriver: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean isAlive(WebDriver driver) {
+        try {
+            unwrap(driver).getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static WebDriver unwrap(WebDriver driver) {
+        return driver instanceof WrapsDriver ? ((WrapsDriver) driver).getWrappedDriver() : driver;
+    }
+
+    /**
+     * Закрывает браузер и освобождает его слот.
+     */
+    private void close(Browser browser, WebDriver driver) {
+        try {
+            quit(driver);
+        } finally {
+            limiter.release(browser);
+        }
+    }
+
+    private void closeAll(List<IdleSession> sessions) {
+        sessions.forEach(session -> close(session.browser, session.driver));
+    }
+
+    private void quit(WebDriver driver) {
+        quitListeners.forEach(listener -> listener.accept(driver));
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            // Ignore errors when closing
+        }
+    }
+
+    /**
+     * Сессии разных профилей не взаимозаменяемы, поэтому пул ищет их по паре браузер-профиль.
+     */
+    private static class SessionKey {
+        private final Browser browser;
+        private final LaunchProfile profile;
+
+        SessionKey(Browser browser, LaunchProfile profile) {
+            this.browser = browser;
+            this.profile = profile;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof SessionKey)) {
+                return false;
+            }
+            SessionKey that = (SessionKey) o;
+            return browser == that.browser && profile.equals(that.profile);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(browser, profile);
+        }
+    }
+
+    private static class IdleSession {
+        private final Browser browser;
+        private final WebDriver driver;
+        private final long releasedAt;
+
+        IdleSession(Browser browser, WebDriver driver, long releasedAt) {
+            this.browser = browser;
+            this.driver = driver;
+            this.releasedAt = releasedAt;
+        }
+    }
+}
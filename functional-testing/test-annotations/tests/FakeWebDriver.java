@@ -0,0 +1,59 @@
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Драйвер без браузера для тестов пула: окно одно, cookies нет,
+ * get только запоминает адрес, остальные команды ничего не делают.
+ */
+final class FakeWebDriver {
+    private FakeWebDriver() {
+    }
+
+    /**
+     * Драйвер, который выставляет quit после вызова quit().
+     */
+    static WebDriver create(AtomicBoolean quit) {
+        return proxy(WebDriver.class, quit, new AtomicReference<>("about:blank"));
+    }
+
+    private static <T> T proxy(Class<T> type, AtomicBoolean quit, AtomicReference<String> url) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+            (self, method, args) -> {
+                Class<?> result = method.getReturnType();
+                if ("quit".equals(method.getName())) {
+                    quit.set(true);
+                    return null;
+                }
+                if ("get".equals(method.getName()) && args != null && args.length == 1) {
+                    url.set((String) args[0]);
+                    return null;
+                }
+                if ("getCurrentUrl".equals(method.getName())) {
+                    return url.get();
+                }
+                if ("equals".equals(method.getName())) {
+                    return self == args[0];
+                }
+                if ("hashCode".equals(method.getName())) {
+                    return System.identityHashCode(self);
+                }
+                if (result == String.class) {
+                    return "window";
+                }
+                if (result == Set.class) {
+                    return "getWindowHandles".equals(method.getName()) ? Set.of("window") : Set.of();
+                }
+                if (result == boolean.class) {
+                    return false;
+                }
+                if (result.isInterface()) {
+                    return proxy(result, quit, url);
+                }
+                return null;
+            }));
+    }
+}
@@ -0,0 +1,50 @@
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.WebDriver;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class FixtureCacheTest {
+    private static final String START = "http://stub/";
+    private static final String UPLOADED = "http://stub/view/1";
+
+    @Test
+    void withoutNavigateTestStartsOnStartPageFromFirstRun() throws Exception {
+        FixtureCache cache = new FixtureCache();
+        WebDriver driver = FakeWebDriver.create(new AtomicBoolean());
+
+        driver.get(START);
+        FixtureState state = cache.get(driver, Upload.class, false);
+        assertEquals(UPLOADED, state.getUrl());
+        assertEquals(START, driver.getCurrentUrl());
+
+        driver.get(START);
+        assertSame(state, cache.get(driver, Upload.class, false));
+        assertEquals(START, driver.getCurrentUrl());
+    }
+
+    @Test
+    void withNavigateTestStartsOnFixturePage() throws Exception {
+        FixtureCache cache = new FixtureCache();
+        WebDriver driver = FakeWebDriver.create(new AtomicBoolean());
+
+        driver.get(START);
+        cache.get(driver, Upload.class, true);
+        assertEquals(UPLOADED, driver.getCurrentUrl());
+
+        driver.get(START);
+        cache.get(driver, Upload.class, true);
+        assertEquals(UPLOADED, driver.getCurrentUrl());
+    }
+
+    static class Upload implements Fixture {
+        @Override
+        public FixtureState setUp(WebDriver driver) {
+            driver.get("http://stub/upload");
+            driver.get(UPLOADED);
+            return FixtureState.capture(driver);
+        }
+    }
+}
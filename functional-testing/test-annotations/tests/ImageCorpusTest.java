@@ -0,0 +1,31 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageCorpusTest {
+    @TempDir
+    static Path dir;
+
+    @Test
+    void padsToExactSize() throws Exception {
+        System.setProperty(ImageCorpus.DIR_PROPERTY, dir.toString());
+        for (String spec : new String[] {"jpg:64x64:20KB", "png:64x64:30000", "gif:64x64:5000"}) {
+            ImageSpec image = ImageSpec.parse(spec);
+            assertEquals(image.getBytes(), Files.size(image.path()), spec);
+        }
+    }
+
+    @Test
+    void rejectsSizeBelowSmallestEncoding() {
+        System.setProperty(ImageCorpus.DIR_PROPERTY, dir.toString());
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> ImageCorpus.path("gif:64x64:100"));
+        assertTrue(error.getMessage().contains("наименьший возможный размер"), error.getMessage());
+    }
+}
@@ -0,0 +1,87 @@
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeleniumGridTest {
+    private HttpServer hub;
+
+    @AfterEach
+    void stopHub() {
+        if (hub != null) {
+            hub.stop(0);
+        }
+    }
+
+    @Test
+    void countsSlotsOfUpNodesOnly() throws IOException {
+        Map<Browser, Integer> slots = SeleniumGrid.parseSlots(recordedStatus());
+
+        // Узел в DOWN (2 слота) не считается, safari неизвестен
+        assertEquals(Map.of(Browser.CHROME, 2, Browser.FIREFOX, 1, Browser.EDGE, 2), slots);
+    }
+
+    @Test
+    void statusWithoutNodesHasNoSlots() {
+        assertTrue(SeleniumGrid.parseSlots("{\"value\": {\"ready\": false, \"nodes\": []}}").isEmpty());
+        assertTrue(SeleniumGrid.parseSlots("{\"value\": {}}").isEmpty());
+    }
+
+    @Test
+    void connectsToHubWithSlots() throws IOException {
+        SeleniumGrid grid = SeleniumGrid.connect(startHub(200, recordedStatus()));
+
+        assertNotNull(grid);
+        assertEquals(2, grid.getSlots(Browser.EDGE));
+        assertTrue(grid.supports(Browser.FIREFOX));
+        assertFalse(grid.supports(Browser.HTMLUNIT));
+    }
+
+    @Test
+    void fallsBackToLocalWhenHubIsUnreachable() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        assertNull(SeleniumGrid.connect("http://localhost:" + port));
+    }
+
+    @Test
+    void fallsBackToLocalWhenStatusFailsOrHasNoSlots() throws IOException {
+        assertNull(SeleniumGrid.connect(startHub(500, "")));
+        stopHub();
+        assertNull(SeleniumGrid.connect(startHub(200, "{\"value\": {\"ready\": false, \"nodes\": []}}")));
+    }
+
+    private String startHub(int status, String body) throws IOException {
+        hub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        hub.createContext("/status", exchange -> {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        hub.start();
+        return "http://localhost:" + hub.getAddress().getPort();
+    }
+
+    // Ответ /status хаба Selenium Grid 4.15 с четырьмя узлами
+    private static String recordedStatus() throws IOException {
+        return Files.readString(Paths.get("tests", "grid-status.json"));
+    }
+}
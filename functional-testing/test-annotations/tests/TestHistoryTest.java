@@ -0,0 +1,95 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestHistoryTest {
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void clearRun() {
+        System.clearProperty(TestHistory.RUN_PROPERTY);
+    }
+
+    @Test
+    void mergesRunIntoMovingAverage() throws IOException {
+        Path file = dir.resolve("history.properties");
+        save(file, null, 100, false);
+        assertEquals(100, TestHistory.load(file, null).get("A#test").getMillis());
+
+        // Новое время входит с весом 0.3, падение - в долю падений
+        save(file, null, 200, true);
+        TestHistory history = new TestHistory(file, TestHistory.load(file, null));
+        assertEquals(130, history.estimate("A#test"), 0.05);
+        assertEquals(130 * 1.3, history.priority("A#test"), 0.05);
+        assertEquals(2, TestHistory.load(file, null).get("A#test").getRuns());
+    }
+
+    @Test
+    void runOfBuildIsMergedFromNextBuild() throws IOException {
+        Path file = dir.resolve("history.properties");
+        save(file, null, 100, false);
+        save(file, "build-1", 200, false);
+        save(file, "build-0", 300, false);
+        Path pending = dir.resolve("history.properties.pending");
+        assertEquals(2, count(pending));
+
+        // Шард сборки build-1 не видит ее собственный прогон, а прогон build-0 уже учитывает
+        assertEquals(160, TestHistory.load(file, "build-1").get("A#test").getMillis(), 0.05);
+        assertEquals(1, count(pending));
+
+        // Следующая сборка сливает оставшийся прогон и удаляет его файл
+        Map<String, TestHistory.Entry> merged = TestHistory.load(file, "build-2");
+        assertEquals(160 + 0.3 * (200 - 160), merged.get("A#test").getMillis(), 0.05);
+        assertEquals(3, merged.get("A#test").getRuns());
+        assertEquals(0, count(pending));
+        assertEquals(172, TestHistory.load(file, null).get("A#test").getMillis(), 0.05);
+    }
+
+    @Test
+    void recordsSumInvocationsOfUnit() throws IOException {
+        Path file = dir.resolve("history.properties");
+        TestHistory history = new TestHistory(file, new TreeMap<>());
+        history.record("A#test[CHROME]", TimeUnit.MILLISECONDS.toNanos(40), false);
+        history.record("A#test[CHROME]", TimeUnit.MILLISECONDS.toNanos(60), true);
+        history.save();
+
+        TestHistory.Entry entry = TestHistory.load(file, null).get("A#test[CHROME]");
+        assertEquals(100, entry.getMillis(), 0.05);
+        assertEquals(1, entry.getFailRate());
+        assertFalse(Files.exists(dir.resolve("history.properties.pending")));
+        assertTrue(Files.exists(file));
+    }
+
+    private static void save(Path file, String runId, long millis, boolean failed) {
+        if (runId == null) {
+            System.clearProperty(TestHistory.RUN_PROPERTY);
+        } else {
+            System.setProperty(TestHistory.RUN_PROPERTY, runId);
+        }
+        TestHistory history = new TestHistory(file, new TreeMap<>());
+        history.record("A#test", TimeUnit.MILLISECONDS.toNanos(millis), failed);
+        history.save();
+    }
+
+    private static long count(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+}
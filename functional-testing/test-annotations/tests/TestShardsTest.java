@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestShardsTest {
+    @Test
+    void assignmentDoesNotDependOnOrder() {
+        TestHistory history = history(new Random(1), 40);
+        List<String> units = units(40);
+        List<List<String>> expected = TestShards.assign(units, 3, history);
+
+        List<String> shuffled = new ArrayList<>(units);
+        Collections.shuffle(shuffled, new Random(2));
+        assertEquals(expected, TestShards.assign(shuffled, 3, history));
+    }
+
+    @Test
+    void shardsAreBalancedByHistory() {
+        TestHistory history = history(new Random(3), 40);
+        List<List<String>> shards = TestShards.assign(units(40), 4, history);
+
+        double longest = 0;
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        for (List<String> shard : shards) {
+            double load = 0;
+            for (String unit : shard) {
+                load += history.estimate(unit);
+                longest = Math.max(longest, history.estimate(unit));
+            }
+            min = Math.min(min, load);
+            max = Math.max(max, load);
+        }
+        // Жадная раскладка по убыванию расходится не больше чем на самую долгую единицу
+        assertTrue(max - min <= longest, min + " .. " + max);
+        assertEveryUnitOnce(shards, 40);
+    }
+
+    @Test
+    void withoutHistoryUnitsGoRoundRobinByName() {
+        TestHistory empty = new TestHistory(Paths.get("unused"), Map.of());
+        List<String> units = units(10);
+        List<List<String>> shards = TestShards.assign(units, 3, empty);
+
+        assertEquals(List.of("Test00", "Test03", "Test06", "Test09"), shards.get(0));
+        assertEquals(List.of("Test01", "Test04", "Test07"), shards.get(1));
+        assertEquals(List.of("Test02", "Test05", "Test08"), shards.get(2));
+        assertEveryUnitOnce(shards, 10);
+
+        // Новая единица без истории не сдвигает уже разложенные по кругу до нее
+        List<String> more = new ArrayList<>(units);
+        more.add("Test10");
+        assertEquals(List.of("Test01", "Test04", "Test07", "Test10"), TestShards.assign(more, 3, empty).get(1));
+    }
+
+    @Test
+    void unknownUnitCountsAsAverage() {
+        TestHistory history = new TestHistory(Paths.get("unused"), new TreeMap<>(Map.of(
+            "A", new TestHistory.Entry(100, 0, 1),
+            "B", new TestHistory.Entry(300, 0.5, 4))));
+        assertEquals(200, history.estimate("C"));
+        assertEquals(450, history.priority("B"));
+        assertEquals(List.of(List.of("B"), List.of("C", "A")), TestShards.assign(List.of("A", "B", "C"), 2, history));
+    }
+
+    private static void assertEveryUnitOnce(List<List<String>> shards, int count) {
+        Set<String> seen = new HashSet<>();
+        for (List<String> shard : shards) {
+            for (String unit : shard) {
+                assertTrue(seen.add(unit), unit);
+            }
+        }
+        assertEquals(count, seen.size());
+    }
+
+    private static List<String> units(int count) {
+        List<String> units = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            units.add(String.format("Test%02d", i));
+        }
+        return units;
+    }
+
+    private static TestHistory history(Random random, int count) {
+        Map<String, TestHistory.Entry> entries = new TreeMap<>();
+        for (String unit : units(count)) {
+            entries.put(unit, new TestHistory.Entry(100 + random.nextInt(10_000), random.nextDouble() / 4, 3));
+        }
+        return new TestHistory(Paths.get("unused"), entries);
+    }
+}
@@ -0,0 +1,27 @@
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class WaitsTest {
+    @Test
+    void reusesWaitPerDriver() {
+        WebDriver driver = FakeWebDriver.create(new AtomicBoolean());
+        assertSame(Waits.forDriver(driver), Waits.forDriver(driver));
+    }
+
+    @Test
+    void releasesDriverWithoutReferences() throws InterruptedException {
+        WeakReference<WebDriver> driver = new WeakReference<>(FakeWebDriver.create(new AtomicBoolean()));
+        Waits.forDriver(driver.get());
+        for (int i = 0; i < 50 && driver.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(driver.get(), "Кэш ожиданий не должен удерживать сессию");
+    }
+}
@@ -0,0 +1,75 @@
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebDriverPoolTest {
+    private static final LaunchProfile WIDE = new LaunchProfile(
+        true, 1920, 1080, true, true, true, PageLoadStrategy.EAGER);
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Test
+    void idleSessionKeepsItsSlot() throws Exception {
+        WebDriverPool pool = new WebDriverPool(true, 2, Duration.ofMinutes(5), new SessionLimiter(1));
+        WebDriver first = pool.acquire(Browser.CHROME, LaunchProfile.DEFAULT, this::create);
+        pool.release(Browser.CHROME, LaunchProfile.DEFAULT, first);
+
+        assertSame(first, pool.acquire(Browser.CHROME, LaunchProfile.DEFAULT, this::create));
+        assertEquals(1, created.get());
+
+        // Единственный слот занят выданной сессией - новая не создается
+        CompletableFuture<WebDriver> waiting = CompletableFuture.supplyAsync(
+            () -> pool.acquire(Browser.CHROME, WIDE, this::create));
+        assertThrows(TimeoutException.class, () -> waiting.get(300, TimeUnit.MILLISECONDS));
+        pool.release(Browser.CHROME, LaunchProfile.DEFAULT, first);
+        waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void idleSessionOfOtherProfileIsClosedForNewOne() {
+        WebDriverPool pool = new WebDriverPool(true, 2, Duration.ofMinutes(5), new SessionLimiter(1));
+        AtomicBoolean quit = new AtomicBoolean();
+        WebDriver narrow = pool.acquire(Browser.CHROME, LaunchProfile.DEFAULT, () -> FakeWebDriver.create(quit));
+        pool.release(Browser.CHROME, LaunchProfile.DEFAULT, narrow);
+        assertFalse(quit.get());
+
+        WebDriver wide = pool.acquire(Browser.CHROME, WIDE, this::create);
+        assertTrue(quit.get(), "Простаивающая сессия другого профиля должна уступить слот");
+        pool.release(Browser.CHROME, WIDE, wide);
+
+        // Сессия другого браузера слот Chrome не освобождает
+        WebDriver firefox = pool.acquire(Browser.FIREFOX, WIDE, this::create);
+        pool.release(Browser.FIREFOX, WIDE, firefox);
+        assertSame(wide, pool.acquire(Browser.CHROME, WIDE, this::create));
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void closedSessionFreesSlot() {
+        SessionLimiter limiter = new SessionLimiter(1);
+        WebDriverPool pool = new WebDriverPool(false, 2, Duration.ofMinutes(5), limiter);
+        WebDriver driver = pool.acquire(Browser.EDGE, LaunchProfile.DEFAULT, this::create);
+        assertFalse(limiter.tryAcquire(Browser.EDGE));
+        pool.release(Browser.EDGE, LaunchProfile.DEFAULT, driver);
+        assertTrue(limiter.tryAcquire(Browser.EDGE));
+    }
+
+    private WebDriver create() {
+        created.incrementAndGet();
+        return FakeWebDriver.create(new AtomicBoolean());
+    }
+}
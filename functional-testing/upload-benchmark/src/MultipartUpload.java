@@ -0,0 +1,50 @@
+import java.io.FileNotFoundException;
+import java.net.URI;
+import java.net.URLConnection;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Запрос загрузки в том же виде, в каком его отправляет форма FastPic
+ * (#file и #uploadButton): поле file[] с файлом, пустое поле files и поле orig-resize.
+ * Файл не читается в память: тело собирается из заголовков частей и
+ * BodyPublishers.ofFile, который читает файл с диска по мере отправки.
+ */
+final class MultipartUpload {
+    private static final String RESIZE = "500";
+
+    private MultipartUpload() {
+    }
+
+    static HttpRequest request(URI uploadUri, Path file, Duration timeout) throws FileNotFoundException {
+        String boundary = "----UploadBenchmark" + UUID.randomUUID().toString().replace("-", "");
+        String filename = file.getFileName().toString();
+        String contentType = URLConnection.guessContentTypeFromName(filename);
+
+        String head = "--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"file[]\"; filename=\"" + filename + "\"\r\n"
+            + "Content-Type: " + (contentType == null ? "application/octet-stream" : contentType) + "\r\n\r\n";
+        String tail = "\r\n"
+            + field(boundary, "files", "")
+            + field(boundary, "orig-resize", RESIZE)
+            + "--" + boundary + "--\r\n";
+
+        return HttpRequest.newBuilder(uploadUri)
+            .timeout(timeout)
+            .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+            .POST(HttpRequest.BodyPublishers.concat(
+                HttpRequest.BodyPublishers.ofByteArray(head.getBytes(StandardCharsets.UTF_8)),
+                HttpRequest.BodyPublishers.ofFile(file),
+                HttpRequest.BodyPublishers.ofByteArray(tail.getBytes(StandardCharsets.UTF_8))))
+            .build();
+    }
+
+    private static String field(String boundary, String name, String value) {
+        return "--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+            + value + "\r\n";
+    }
+}
@@ -0,0 +1,302 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузочный тест загрузки картинок на уровне HTTP, без браузера.
+ * Повторяет multipart-запрос формы FastPic (MultipartUpload) из concurrency
+ * виртуальных потоков: каждый поток отправляет загрузки одну за другой, пока
+ * не будет отправлено uploads загрузок или не истечет duration. Файлы берутся
+ * из UploadMix и передаются с диска потоком.
+ *
+ * Отчет: загрузок в секунду, МБ/с, перцентили времени загрузки по файлам и в целом.
+ * Время загрузки - от отправки запроса до ответа сервера (303 на страницу результата).
+ */
+public class UploadBenchmark implements AutoCloseable {
+    public static final String DEFAULT_URL = "https://fastpic.org";
+    public static final String DEFAULT_MIX = "../docs/test.jpg:4,1MB:2,10MB:1";
+    public static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient client;
+    private final ExecutorService clientExecutor;
+
+    public UploadBenchmark() {
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        // Редирект на страницу результата не выполняем: замеряется только загрузка
+        client = HttpClient.newBuilder()
+            .executor(clientExecutor)
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    }
+
+    /**
+     * Выполняет прогон. uploads <= 0 - без ограничения числа загрузок,
+     * duration == 0 - без ограничения времени; хотя бы одно ограничение должно быть задано.
+     */
+    public Result run(URI baseUri, UploadMix mix, int concurrency, long uploads, Duration duration)
+            throws InterruptedException {
+        if (uploads <= 0 && duration.isZero()) {
+            throw new IllegalArgumentException("Нужно задать число загрузок или длительность");
+        }
+        URI uploadUri = baseUri.resolve("/upload");
+        AtomicLong issued = new AtomicLong();
+        long start = System.nanoTime();
+        long deadline = duration.isZero() ? Long.MAX_VALUE : start + duration.toNanos();
+
+        List<Future<Map<UploadMix.Entry, Stats>>> workers = new ArrayList<>();
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(threads.submit(() -> {
+                    Map<UploadMix.Entry, Stats> local = new LinkedHashMap<>();
+                    while ((uploads <= 0 || issued.getAndIncrement() < uploads) && System.nanoTime() < deadline) {
+                        UploadMix.Entry entry = mix.next();
+                        local.computeIfAbsent(entry, key -> new Stats()).add(upload(uploadUri, entry));
+                    }
+                    return local;
+                }));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Map<UploadMix.Entry, Stats> byFile = new LinkedHashMap<>();
+        for (UploadMix.Entry entry : mix.getEntries()) {
+            byFile.put(entry, new Stats());
+        }
+        for (Future<Map<UploadMix.Entry, Stats>> worker : workers) {
+            try {
+                worker.get().forEach((entry, stats) -> byFile.get(entry).addAll(stats));
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Ошибка потока загрузок", e.getCause());
+            }
+        }
+        return new Result(byFile, concurrency, elapsed);
+    }
+
+    /**
+     * Одна загрузка: время в наносекундах со знаком минус при ошибке.
+     */
+    private long upload(URI uploadUri, UploadMix.Entry entry) {
+        long start = System.nanoTime();
+        try {
+            HttpRequest request = MultipartUpload.request(uploadUri, entry.file, REQUEST_TIMEOUT);
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            long elapsed = System.nanoTime() - start;
+            return response.statusCode() < 400 ? elapsed : -elapsed;
+        } catch (IOException e) {
+            return -(System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Прогревает соединения и JIT несколькими загрузками вне замеров.
+     */
+    public void warmUp(URI baseUri, UploadMix mix, int uploads) {
+        URI uploadUri = baseUri.resolve("/upload");
+        for (int i = 0; i < uploads; i++) {
+            upload(uploadUri, mix.getEntries().get(i % mix.getEntries().size()));
+        }
+    }
+
+    @Override
+    public void close() {
+        clientExecutor.shutdownNow();
+    }
+
+    /**
+     * Времена загрузок одного файла. Ошибки хранятся со знаком минус.
+     */
+    static final class Stats {
+        private long[] times = new long[64];
+        private int size;
+
+        void add(long nanos) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+            }
+            times[size++] = nanos;
+        }
+
+        void addAll(Stats other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.times[i]);
+            }
+        }
+
+        /**
+         * Отсортированные времена успешных загрузок.
+         */
+        long[] successes() {
+            return Arrays.stream(times, 0, size).filter(time -> time >= 0).sorted().toArray();
+        }
+
+        int count() {
+            return size;
+        }
+    }
+
+    /**
+     * Итог прогона.
+     */
+    public static final class Result {
+        private final Map<UploadMix.Entry, Stats> byFile;
+        private final int concurrency;
+        private final long elapsedNanos;
+
+        Result(Map<UploadMix.Entry, Stats> byFile, int concurrency, long elapsedNanos) {
+            this.byFile = byFile;
+            this.concurrency = concurrency;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getUploads() {
+            return byFile.values().stream().mapToLong(Stats::count).sum();
+        }
+
+        public long getErrors() {
+            return getUploads() - byFile.values().stream().mapToLong(stats -> stats.successes().length).sum();
+        }
+
+        /**
+         * Успешных загрузок в секунду.
+         */
+        public double getUploadsPerSecond() {
+            return (getUploads() - getErrors()) / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * МБ (2^20 байт) файлов, успешно загруженных за секунду.
+         */
+        public double getMegabytesPerSecond() {
+            double bytes = 0;
+            for (Map.Entry<UploadMix.Entry, Stats> file : byFile.entrySet()) {
+                bytes += (double) file.getKey().size * file.getValue().successes().length;
+            }
+            return bytes / (1 << 20) / (elapsedNanos / 1e9);
+        }
+
+        public void print() {
+            System.out.println(String.format("Загрузок: %d, ошибок: %d, потоков: %d, время: %.1f с",
+                getUploads(), getErrors(), concurrency, elapsedNanos / 1e9));
+            System.out.println(String.format("Пропускная способность: %.1f загрузок/с, %.1f МБ/с",
+                getUploadsPerSecond(), getMegabytesPerSecond()));
+            System.out.println(String.format("%-24s %8s %8s %10s %10s %10s %10s %10s",
+                "Файл", "Загрузок", "Ошибок", "p50, мс", "p95, мс", "p99, мс", "max, мс", "МБ/с"));
+            Stats total = new Stats();
+            for (Map.Entry<UploadMix.Entry, Stats> file : byFile.entrySet()) {
+                printRow(file.getKey().label, file.getValue(), file.getKey().size);
+                total.addAll(file.getValue());
+            }
+            printRow("Всего", total, -1);
+        }
+
+        /**
+         * МБ/с одной загрузки считается по медиане времени; для итоговой строки не выводится.
+         */
+        private static void printRow(String label, Stats stats, long size) {
+            long[] times = stats.successes();
+            long p50 = percentile(times, 50);
+            String speed = size < 0 || p50 == 0 ? "" : String.format("%.1f", size / (double) (1 << 20) / (p50 / 1e9));
+            System.out.println(String.format("%-24s %8d %8d %10.1f %10.1f %10.1f %10.1f %10s",
+                label, stats.count(), stats.count() - times.length, p50 / 1e6, percentile(times, 95) / 1e6,
+                percentile(times, 99) / 1e6, times.length == 0 ? 0 : times[times.length - 1] / 1e6, speed));
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+
+    /**
+     * Использование: UploadBenchmark [--url адрес] [--stand-in] [--concurrency 8] [--uploads 200]
+     * [--duration с] [--mix файл:вес,1MB:вес,...] [--warm-up 5]
+     *
+     * С --stand-in загрузки идут на встроенный стенд FastPicStubServer.
+     */
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(DEFAULT_URL);
+        boolean standIn = false;
+        int concurrency = 8;
+        long uploads = 200;
+        long duration = 0;
+        String mixSpec = DEFAULT_MIX;
+        int warmUp = 5;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if ("--stand-in".equals(option)) {
+                standIn = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Нет значения для " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--url":
+                    uri = URI.create(value);
+                    break;
+                case "--concurrency":
+                    concurrency = Integer.parseInt(value);
+                    break;
+                case "--uploads":
+                    uploads = Long.parseLong(value);
+                    break;
+                case "--duration":
+                    duration = Long.parseLong(value);
+                    break;
+                case "--mix":
+                    mixSpec = value;
+                    break;
+                case "--warm-up":
+                    warmUp = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестный параметр: " + option);
+            }
+        }
+        if (duration > 0 && !containsOption(args, "--uploads")) {
+            uploads = 0;
+        }
+
+        FastPicStubServer server = standIn ? FastPicStubServer.start(0) : null;
+        UploadMix mix = UploadMix.parse(mixSpec);
+        try (UploadBenchmark benchmark = new UploadBenchmark()) {
+            URI target = server == null ? uri : URI.create(server.getBaseUrl());
+            System.out.println("Загрузки на " + target + ": " + mix);
+            benchmark.warmUp(target, mix, warmUp);
+            Result result = benchmark.run(target, mix, concurrency, uploads, Duration.ofSeconds(duration));
+            result.print();
+        } finally {
+            mix.deleteGenerated();
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private static boolean containsOption(String[] args, String option) {
+        return Arrays.asList(args).contains(option);
+    }
+}
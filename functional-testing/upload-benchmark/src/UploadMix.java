@@ -0,0 +1,171 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Набор загружаемых файлов с весами: "../docs/test.jpg:4,1MB:2,10MB:1".
+ * Элемент - путь к файлу или размер (B, KB, MB, GB); для размера один раз
+ * создается временный JPG-подобный файл, который пишется на диск блоками.
+ * Вес после двоеточия задает долю загрузок файла (по умолчанию 1).
+ */
+final class UploadMix {
+    private static final Pattern SIZE = Pattern.compile("(\\d+)(B|KB|MB|GB)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern WEIGHT = Pattern.compile("(.+):(\\d+)");
+    private static final int CHUNK = 64 * 1024;
+
+    private final List<Entry> entries;
+    private final int totalWeight;
+    private final Path generatedDir;
+
+    private UploadMix(List<Entry> entries, Path generatedDir) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.totalWeight = entries.stream().mapToInt(entry -> entry.weight).sum();
+        this.generatedDir = generatedDir;
+    }
+
+    static UploadMix parse(String spec) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        Path generatedDir = null;
+        for (String item : spec.split(",")) {
+            item = item.trim();
+            if (item.isEmpty()) {
+                continue;
+            }
+            int weight = 1;
+            Matcher weighted = WEIGHT.matcher(item);
+            if (weighted.matches()) {
+                item = weighted.group(1);
+                weight = Integer.parseInt(weighted.group(2));
+            }
+            Matcher size = SIZE.matcher(item);
+            Path file;
+            if (size.matches()) {
+                if (generatedDir == null) {
+                    generatedDir = Files.createTempDirectory("upload-benchmark");
+                }
+                file = generate(generatedDir, item, parseSize(size));
+            } else {
+                file = Paths.get(item);
+                if (!Files.isRegularFile(file)) {
+                    throw new IllegalArgumentException("Нет файла для загрузки: " + file.toAbsolutePath());
+                }
+            }
+            entries.add(new Entry(item, file, Files.size(file), weight));
+        }
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("Пустой набор файлов: " + spec);
+        }
+        return new UploadMix(entries, generatedDir);
+    }
+
+    private static long parseSize(Matcher size) {
+        long value = Long.parseLong(size.group(1));
+        switch (size.group(2).toUpperCase(Locale.ROOT)) {
+            case "GB":
+                return value << 30;
+            case "MB":
+                return value << 20;
+            case "KB":
+                return value << 10;
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Файл заданного размера с маркерами начала и конца JPEG и случайными байтами
+     * между ними (случайные данные не сжимаются по пути).
+     */
+    private static Path generate(Path dir, String label, long size) throws IOException {
+        Path file = dir.resolve("upload-" + label.toLowerCase(Locale.ROOT) + ".jpg");
+        if (Files.exists(file)) {
+            return file;
+        }
+        Random random = new Random(size);
+        byte[] chunk = new byte[CHUNK];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (long written = 0; written < size; ) {
+                int length = (int) Math.min(CHUNK, size - written);
+                random.nextBytes(chunk);
+                if (written == 0 && length >= 2) {
+                    chunk[0] = (byte) 0xFF;
+                    chunk[1] = (byte) 0xD8;
+                }
+                if (written + length == size && length >= 2) {
+                    chunk[length - 2] = (byte) 0xFF;
+                    chunk[length - 1] = (byte) 0xD9;
+                }
+                out.write(chunk, 0, length);
+                written += length;
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Случайный файл с учетом весов.
+     */
+    Entry next() {
+        int point = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Entry entry : entries) {
+            point -= entry.weight;
+            if (point < 0) {
+                return entry;
+            }
+        }
+        return entries.get(entries.size() - 1);
+    }
+
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Удаляет созданные файлы.
+     */
+    void deleteGenerated() {
+        if (generatedDir == null) {
+            return;
+        }
+        for (Entry entry : entries) {
+            if (entry.file.startsWith(generatedDir)) {
+                entry.file.toFile().delete();
+            }
+        }
+        generatedDir.toFile().delete();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Entry entry : entries) {
+            text.append(text.length() == 0 ? "" : ", ")
+                .append(entry.label).append(" (").append(entry.size).append(" байт) x").append(entry.weight);
+        }
+        return text.toString();
+    }
+
+    static final class Entry {
+        final String label;
+        final Path file;
+        final long size;
+        final int weight;
+
+        Entry(String label, Path file, long size, int weight) {
+            this.label = label;
+            this.file = file;
+            this.size = size;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadBenchmarkTest {
+    private FastPicStubServer stub;
+    private UploadMix mix;
+
+    @BeforeEach
+    void start() throws Exception {
+        stub = FastPicStubServer.start(0);
+        mix = UploadMix.parse("1MB");
+    }
+
+    @AfterEach
+    void stop() {
+        stub.close();
+        mix.deleteGenerated();
+    }
+
+    @Test
+    void redirectAfterUploadCountsAsSuccess() throws Exception {
+        UploadBenchmark.Result result;
+        try (UploadBenchmark benchmark = new UploadBenchmark()) {
+            result = benchmark.run(URI.create(stub.getBaseUrl()), mix, 2, 6, Duration.ZERO);
+        }
+
+        // Заглушка отвечает на загрузку 303 на страницу результата
+        assertEquals(6, result.getUploads());
+        assertEquals(0, result.getErrors());
+        assertEquals(6, stub.getUploadCount());
+        assertTrue(result.getMegabytesPerSecond() > 0);
+    }
+
+    @Test
+    void failedUploadsAreCountedAsErrors() throws Exception {
+        URI baseUri = URI.create(stub.getBaseUrl());
+        stub.close();
+
+        UploadBenchmark.Result result;
+        try (UploadBenchmark benchmark = new UploadBenchmark()) {
+            result = benchmark.run(baseUri, mix, 2, 4, Duration.ZERO);
+        }
+
+        assertEquals(4, result.getUploads());
+        assertEquals(4, result.getErrors());
+        assertEquals(0.0, result.getUploadsPerSecond());
+    }
+}
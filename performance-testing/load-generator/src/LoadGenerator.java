@@ -0,0 +1,334 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Генератор нагрузки на виртуальных потоках - встраиваемая замена планам JMeter.
+ *
+ * Модель открытая: у каждого пользователя есть расписание запросов
+ * (старт по разгону, затем раз в 60 / throughput секунд), и каждый запрос уходит
+ * в своем виртуальном потоке в запланированное время, не дожидаясь ответа на предыдущий.
+ * Медленный сервер поэтому не снижает нагрузку. Время отклика отсчитывается
+ * от запланированного, а не от фактического времени отправки (поправка на coordinated
+ * omission): задержки самого генератора тоже попадают в результат.
+ *
+ * Результаты пишутся в CSV со схемой JMeter и проверяются как DurationAssertion.
+ */
+public class LoadGenerator implements AutoCloseable {
+    public static final URI DEFAULT_URI =
+        URI.create("http://localhost:34543/?token=495381285&user=-2105799706&conf=2");
+    public static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    public static final int WARM_UP_REQUESTS = 3;
+    public static final long LIVE_PRINT_SECONDS = 5;
+
+    private static final Pattern CONFIG_PARAMETER = Pattern.compile("[?&]conf(?:ig)?=(\\d+)");
+
+    private final HttpClient client;
+    private final ExecutorService clientExecutor;
+    private volatile boolean stopped;
+
+    public LoadGenerator() {
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder()
+            .executor(clientExecutor)
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    }
+
+    /**
+     * Выполняет прогон и возвращает сводку по нему. Результаты отдельных запросов
+     * передаются listeners (например, SampleWriter) из одного потока.
+     */
+    public ResultAnalysis run(LoadProfile profile, List<SampleListener> listeners) throws InterruptedException {
+        stopped = false;
+        ResultAnalysis analysis = new ResultAnalysis(
+            profile.getAssertionMillis() > 0 ? profile.getAssertionMillis() : Long.MAX_VALUE);
+        List<SampleListener> all = new ArrayList<>(listeners);
+        all.add(sample -> analysis.add(sample.getLabel(), sample.getTimeStamp(), sample.getElapsed(),
+            sample.isSuccess()));
+
+        Run run = new Run(profile, new SampleSink(all));
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor();
+                ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < profile.getUsers(); user++) {
+                int number = user;
+                users.submit(() -> {
+                    run.schedule(number, requests);
+                    return null;
+                });
+            }
+            // Закрытие executor'ов ждет конца расписаний, затем - ответов на все отправленные запросы
+        } finally {
+            run.sink.await();
+        }
+        return analysis;
+    }
+
+    /**
+     * Прогревает клиент и соединения несколькими запросами вне замеров, чтобы загрузка
+     * классов и JIT не попали во время отклика первых запросов прогона.
+     */
+    public void warmUp(URI uri, int requests) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build();
+        for (int i = 0; i < requests; i++) {
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            } catch (IOException e) {
+                System.out.println("Прогрев: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Останавливает расписание текущего прогона. Уже отправленные запросы завершаются.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    @Override
+    public void close() {
+        clientExecutor.shutdownNow();
+    }
+
+    /**
+     * Метка запросов как в планах JMeter: "conf #N req" для адреса с параметром conf=N.
+     */
+    public static String labelFor(URI uri) {
+        Matcher matcher = CONFIG_PARAMETER.matcher("?" + (uri.getRawQuery() == null ? "" : uri.getRawQuery()));
+        return matcher.find() ? "conf #" + matcher.group(1) + " req" : LoadProfile.DEFAULT_LABEL;
+    }
+
+    /**
+     * Состояние одного прогона.
+     */
+    private class Run {
+        private final LoadProfile profile;
+        private final SampleSink sink;
+        private final String group;
+        private final long startNanos = System.nanoTime();
+        private final long startMillis = System.currentTimeMillis();
+        private final long deadline;
+        private final AtomicInteger activeUsers = new AtomicInteger();
+
+        Run(LoadProfile profile, SampleSink sink) {
+            this.profile = profile;
+            this.sink = sink;
+            this.group = profile.getLabel().endsWith(" req")
+                ? profile.getLabel().substring(0, profile.getLabel().length() - " req".length()) + " users"
+                : profile.getLabel() + " users";
+            this.deadline = profile.getDuration().isZero()
+                ? Long.MAX_VALUE
+                : startNanos + profile.getDuration().toNanos();
+        }
+
+        /**
+         * Расписание пользователя: запросы отправляются в отдельных потоках
+         * в запланированное время независимо от ответов на предыдущие.
+         */
+        void schedule(int user, ExecutorService requests) throws InterruptedException {
+            long first = startNanos + profile.getStartOffsetNanos(user);
+            long interval = profile.getIntervalNanos();
+            String threadName = group + " 1-" + (user + 1);
+
+            sleepUntil(first);
+            activeUsers.incrementAndGet();
+            try {
+                for (long k = 0; profile.getLoops() <= 0 || k < profile.getLoops(); k++) {
+                    long intended = first + k * interval;
+                    if (intended >= deadline) {
+                        break;
+                    }
+                    sleepUntil(intended);
+                    if (stopped) {
+                        break;
+                    }
+                    requests.submit(() -> execute(intended, threadName));
+                }
+            } finally {
+                activeUsers.decrementAndGet();
+            }
+        }
+
+        private void execute(long intended, String threadName) {
+            HttpRequest request = HttpRequest.newBuilder(profile.getUri())
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+            int active = activeUsers.get();
+            long timeStamp = startMillis + TimeUnit.NANOSECONDS.toMillis(intended - startNanos);
+
+            String code;
+            String message;
+            boolean success;
+            String failure = "";
+            long bytes = 0;
+            long latency;
+            long elapsed;
+            try {
+                HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                latency = millisSince(intended);
+                try (InputStream body = response.body()) {
+                    bytes = body.transferTo(OutputStream.nullOutputStream());
+                }
+                elapsed = millisSince(intended);
+                code = String.valueOf(response.statusCode());
+                message = response.statusCode() < 400 ? "OK" : "Error";
+                success = response.statusCode() < 400;
+            } catch (IOException e) {
+                elapsed = millisSince(intended);
+                latency = elapsed;
+                code = "Non HTTP response code: " + e.getClass().getName();
+                message = "Non HTTP response message: " + e.getMessage();
+                success = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            long assertion = profile.getAssertionMillis();
+            if (success && assertion > 0 && elapsed > assertion) {
+                success = false;
+                failure = String.format(Locale.US, "The operation lasted too long: It took %,d milliseconds, "
+                    + "but should not have lasted longer than %,d milliseconds.", elapsed, assertion);
+            }
+            sink.accept(new Sample(timeStamp, elapsed, profile.getLabel(), code, message, threadName, success,
+                failure, bytes, active, active, profile.getUri().toString(), latency));
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long delay = nanoTime - System.nanoTime();
+        if (delay > 0) {
+            Thread.sleep(Duration.ofNanos(delay));
+        }
+    }
+
+    private static long millisSince(long nanoTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nanoTime);
+    }
+
+    /**
+     * Использование: LoadGenerator [--url адрес] [--label метка] [--users 5] [--ramp 60]
+     * [--throughput 40] [--loops 40] [--duration с] [--assertion 890] [--out файл.csv] [--stand-in]
+     * [--live порт]
+     *
+     * С --live метрики скользящего окна доступны по http://localhost:порт/metrics
+     * и печатаются в консоль раз в LIVE_PRINT_SECONDS секунд.
+     */
+    public static void main(String[] args) throws Exception {
+        URI uri = DEFAULT_URI;
+        String label = null;
+        int users = 5;
+        long ramp = 60;
+        double throughput = 40;
+        int loops = 40;
+        long duration = 0;
+        long assertion = ResultsAnalyzer.DEFAULT_SLA_MILLIS;
+        Path out = Paths.get("build", "load-results.csv");
+        boolean standIn = false;
+        int livePort = -1;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if ("--stand-in".equals(option)) {
+                standIn = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Нет значения для " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--url":
+                    uri = URI.create(value);
+                    break;
+                case "--label":
+                    label = value;
+                    break;
+                case "--users":
+                    users = Integer.parseInt(value);
+                    break;
+                case "--ramp":
+                    ramp = Long.parseLong(value);
+                    break;
+                case "--throughput":
+                    throughput = Double.parseDouble(value);
+                    break;
+                case "--loops":
+                    loops = Integer.parseInt(value);
+                    break;
+                case "--duration":
+                    duration = Long.parseLong(value);
+                    break;
+                case "--assertion":
+                    assertion = Long.parseLong(value);
+                    break;
+                case "--out":
+                    out = Paths.get(value);
+                    break;
+                case "--live":
+                    livePort = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестный параметр: " + option);
+            }
+        }
+
+        StandInServer server = standIn ? StandInServer.start(0) : null;
+        LiveMetrics metrics = new LiveMetrics(LiveMetrics.DEFAULT_WINDOW_SECONDS);
+        LiveMonitor monitor = livePort < 0 ? null : new LiveMonitor(metrics, livePort, assertion);
+        ScheduledExecutorService printer = Executors.newSingleThreadScheduledExecutor();
+        try (LoadGenerator generator = new LoadGenerator()) {
+            URI target = server == null ? uri : server.redirect(uri);
+            LoadProfile profile = new LoadProfile(target, label == null ? labelFor(uri) : label, users,
+                Duration.ofSeconds(ramp), throughput, loops, Duration.ofSeconds(duration), assertion);
+            System.out.println(profile);
+            generator.warmUp(target, WARM_UP_REQUESTS);
+
+            List<SampleListener> listeners = new ArrayList<>();
+            listeners.add(new SampleWriter(out));
+            if (monitor != null) {
+                System.out.println("Метрики: http://localhost:" + monitor.getPort() + "/metrics");
+                listeners.add(sample -> metrics.record(sample.getLabel(), sample.getTimeStamp(),
+                    sample.getElapsed(), sample.isSuccess()));
+                printer.scheduleAtFixedRate(monitor::print, LIVE_PRINT_SECONDS, LIVE_PRINT_SECONDS,
+                    TimeUnit.SECONDS);
+            }
+
+            long start = System.nanoTime();
+            ResultAnalysis analysis = generator.run(profile, listeners);
+            System.out.println(String.format("Прогон занял %.1f с, результаты: %s",
+                (System.nanoTime() - start) / 1e9, out));
+            ResultsAnalyzer.print(analysis);
+        } finally {
+            printer.shutdownNow();
+            if (monitor != null) {
+                monitor.close();
+            }
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Параметры нагрузки, повторяющие план JMeter (load.jmx, stress.jmx):
+ * число пользователей и время их разгона (ThreadGroup), запросов в минуту на пользователя
+ * (ConstantThroughputTimer), число запросов на пользователя (LoopController)
+ * и максимальное время отклика (DurationAssertion).
+ */
+public class LoadProfile {
+    public static final String DEFAULT_LABEL = "req";
+
+    private final URI uri;
+    private final String label;
+    private final int users;
+    private final Duration rampTime;
+    private final double throughputPerUser;
+    private final int loops;
+    private final Duration duration;
+    private final long assertionMillis;
+
+    /**
+     * @param throughputPerUser запросов в минуту на пользователя
+     * @param loops число запросов на пользователя, 0 - без ограничения
+     * @param duration ограничение времени прогона, Duration.ZERO - без ограничения
+     * @param assertionMillis максимальное время отклика, 0 - без проверки
+     */
+    public LoadProfile(URI uri, String label, int users, Duration rampTime, double throughputPerUser,
+            int loops, Duration duration, long assertionMillis) {
+        if (users <= 0 || throughputPerUser <= 0) {
+            throw new IllegalArgumentException("Число пользователей и нагрузка должны быть положительными");
+        }
+        if (loops <= 0 && duration.isZero()) {
+            throw new IllegalArgumentException("Нужно ограничить прогон числом запросов или временем");
+        }
+        this.uri = uri;
+        this.label = label;
+        this.users = users;
+        this.rampTime = rampTime;
+        this.throughputPerUser = throughputPerUser;
+        this.loops = loops;
+        this.duration = duration;
+        this.assertionMillis = assertionMillis;
+    }
+
+    /**
+     * Тот же профиль с другим числом пользователей.
+     */
+    public LoadProfile withUsers(int users) {
+        return new LoadProfile(uri, label, users, rampTime, throughputPerUser, loops, duration, assertionMillis);
+    }
+
+    /**
+     * Тот же профиль с другим адресом.
+     */
+    public LoadProfile withUri(URI uri) {
+        return new LoadProfile(uri, label, users, rampTime, throughputPerUser, loops, duration, assertionMillis);
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public Duration getRampTime() {
+        return rampTime;
+    }
+
+    public double getThroughputPerUser() {
+        return throughputPerUser;
+    }
+
+    public int getLoops() {
+        return loops;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public long getAssertionMillis() {
+        return assertionMillis;
+    }
+
+    /**
+     * Интервал между запросами одного пользователя.
+     */
+    public long getIntervalNanos() {
+        return (long) (60_000_000_000L / throughputPerUser);
+    }
+
+    /**
+     * Сдвиг старта пользователя с номером user (с нуля) при равномерном разгоне.
+     */
+    public long getStartOffsetNanos(int user) {
+        return rampTime.toNanos() * user / users;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d пользователей, разгон %d с, %.1f запр./мин на пользователя, "
+            + "%s, assertion %d мс", uri, users, rampTime.getSeconds(), throughputPerUser,
+            loops > 0 ? loops + " запросов на пользователя" : "время " + duration.getSeconds() + " с",
+            assertionMillis);
+    }
+}
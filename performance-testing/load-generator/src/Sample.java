@@ -0,0 +1,97 @@
+/**
+ * Результат одного запроса в терминах колонок CSV JMeter.
+ */
+public class Sample {
+    private final long timeStamp;
+    private final long elapsed;
+    private final String label;
+    private final String responseCode;
+    private final String responseMessage;
+    private final String threadName;
+    private final boolean success;
+    private final String failureMessage;
+    private final long bytes;
+    private final int grpThreads;
+    private final int allThreads;
+    private final String url;
+    private final long latency;
+
+    public Sample(long timeStamp, long elapsed, String label, String responseCode, String responseMessage,
+            String threadName, boolean success, String failureMessage, long bytes, int grpThreads,
+            int allThreads, String url, long latency) {
+        this.timeStamp = timeStamp;
+        this.elapsed = elapsed;
+        this.label = label;
+        this.responseCode = responseCode;
+        this.responseMessage = responseMessage;
+        this.threadName = threadName;
+        this.success = success;
+        this.failureMessage = failureMessage;
+        this.bytes = bytes;
+        this.grpThreads = grpThreads;
+        this.allThreads = allThreads;
+        this.url = url;
+        this.latency = latency;
+    }
+
+    /**
+     * Запланированное время отправки запроса (мс с начала эпохи).
+     */
+    public long getTimeStamp() {
+        return timeStamp;
+    }
+
+    /**
+     * Время отклика в мс, отсчитанное от запланированного времени отправки.
+     */
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getResponseCode() {
+        return responseCode;
+    }
+
+    public String getResponseMessage() {
+        return responseMessage;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public int getGrpThreads() {
+        return grpThreads;
+    }
+
+    public int getAllThreads() {
+        return allThreads;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Время до получения заголовков ответа в мс.
+     */
+    public long getLatency() {
+        return latency;
+    }
+}
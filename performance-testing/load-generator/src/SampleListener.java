@@ -0,0 +1,14 @@
+/**
+ * Получатель результатов запросов. Вызывается из одного потока, поэтому
+ * реализации могут не заботиться о синхронизации.
+ */
+public interface SampleListener {
+
+    void onSample(Sample sample);
+
+    /**
+     * Вызывается после последнего результата прогона.
+     */
+    default void onFinish() {
+    }
+}
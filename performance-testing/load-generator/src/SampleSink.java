@@ -0,0 +1,64 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Очередь результатов от виртуальных потоков запросов к получателям.
+ * Получатели вызываются из одного платформенного потока: запись в файл
+ * не блокирует запросы и не требует синхронизации.
+ */
+class SampleSink {
+    private static final int BATCH = 1024;
+    private static final Sample END = new Sample(0, 0, "", "", "", "", true, "", 0, 0, 0, "", 0);
+
+    private final List<SampleListener> listeners;
+    private final BlockingQueue<Sample> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile RuntimeException failure;
+
+    SampleSink(List<SampleListener> listeners) {
+        this.listeners = listeners;
+        this.thread = new Thread(this::drain, "sample-sink");
+        this.thread.start();
+    }
+
+    void accept(Sample sample) {
+        queue.add(sample);
+    }
+
+    private void drain() {
+        List<Sample> batch = new ArrayList<>(BATCH);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH - 1);
+                for (Sample sample : batch) {
+                    if (sample == END) {
+                        listeners.forEach(SampleListener::onFinish);
+                        return;
+                    }
+                    for (SampleListener listener : listeners) {
+                        listener.onSample(sample);
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Завершает прием и дожидается обработки всех результатов.
+     */
+    void await() throws InterruptedException {
+        queue.add(END);
+        thread.join();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Запись результатов в CSV той же схемы, что сохраняет JMeter (stress-data, load-data),
+ * чтобы их можно было разбирать теми же средствами, что и результаты JMeter.
+ */
+public class SampleWriter implements SampleListener {
+    private final BufferedWriter writer;
+    private final StringBuilder line = new StringBuilder(256);
+
+    public SampleWriter(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        writer.write(String.join(",", JMeterCsvReader.COLUMNS));
+        writer.newLine();
+    }
+
+    @Override
+    public void onSample(Sample sample) {
+        line.setLength(0);
+        line.append(sample.getTimeStamp()).append(',')
+            .append(sample.getElapsed()).append(',');
+        appendQuoted(sample.getLabel());
+        line.append(',');
+        appendQuoted(sample.getResponseCode());
+        line.append(',');
+        appendQuoted(sample.getResponseMessage());
+        line.append(',');
+        appendQuoted(sample.getThreadName());
+        line.append(",text,")
+            .append(sample.isSuccess()).append(',');
+        appendQuoted(sample.getFailureMessage());
+        line.append(',')
+            .append(sample.getBytes()).append(",0,")
+            .append(sample.getGrpThreads()).append(',')
+            .append(sample.getAllThreads()).append(',');
+        appendQuoted(sample.getUrl());
+        line.append(',')
+            .append(sample.getLatency()).append(",0,0");
+        try {
+            writer.append(line);
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onFinish() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Поля с запятыми, кавычками и переводами строк берутся в кавычки, как в JMeter.
+     */
+    private void appendQuoted(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            line.append(value);
+            return;
+        }
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Проверка SLA вида "перцентиль p времени отклика не больше limit мс" по ходу прогона.
+ * Нарушение фиксируется, как только доля медленных запросов статистически значимо
+ * (нижняя граница доверительного интервала Уилсона, 99%) превышает допустимую 1 - p/100.
+ * Проверка повторяется после каждого запроса, поэтому уровень доверия взят с запасом
+ * и решение не принимается раньше MIN_SAMPLES запросов.
+ * Для p = 100 (ограничение максимума) достаточно одного медленного запроса.
+ * Неуспешные запросы (ответы с ошибкой HTTP, таймауты, отказы соединения)
+ * считаются медленными: быстрый ответ 500 не выполняет SLA.
+ * При нарушении вызывается onViolation - например, остановка шага нагрузки.
+ */
+public class SlaMonitor implements SampleListener {
+    public static final int MIN_SAMPLES = 30;
+
+    // Односторонний 99% квантиль нормального распределения
+    private static final double Z = 2.326;
+
+    private final double percentile;
+    private final long limitMillis;
+    private final Runnable onViolation;
+    private long samples;
+    private long slow;
+    private boolean violated;
+
+    public SlaMonitor(double percentile, long limitMillis, Runnable onViolation) {
+        this.percentile = percentile;
+        this.limitMillis = limitMillis;
+        this.onViolation = onViolation;
+    }
+
+    @Override
+    public void onSample(Sample sample) {
+        samples++;
+        if (sample.getElapsed() > limitMillis || !sample.isSuccess()) {
+            slow++;
+        }
+        if (!violated && isSignificantlyViolated()) {
+            violated = true;
+            onViolation.run();
+        }
+    }
+
+    /**
+     * Нарушен ли SLA к концу прогона: статистически значимо в ходе прогона
+     * или по итоговой доле медленных запросов.
+     */
+    public boolean isViolated() {
+        return violated || slow > samples * getAllowedFraction();
+    }
+
+    /**
+     * Было ли нарушение обнаружено досрочно.
+     */
+    public boolean isViolatedEarly() {
+        return violated;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    /**
+     * Запросы, нарушившие SLA: медленные и неуспешные.
+     */
+    public long getSlow() {
+        return slow;
+    }
+
+    public double getAllowedFraction() {
+        return 1 - percentile / 100;
+    }
+
+    private boolean isSignificantlyViolated() {
+        if (slow == 0) {
+            return false;
+        }
+        double allowed = getAllowedFraction();
+        if (allowed <= 0) {
+            return true;
+        }
+        if (samples < MIN_SAMPLES) {
+            return false;
+        }
+        double n = samples;
+        double p = slow / n;
+        double center = p + Z * Z / (2 * n);
+        double margin = Z * Math.sqrt(p * (1 - p) / n + Z * Z / (4 * n * n));
+        double lowerBound = (center - margin) / (1 + Z * Z / n);
+        return lowerBound > allowed;
+    }
+}
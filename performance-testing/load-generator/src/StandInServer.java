@@ -0,0 +1,157 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Локальная замена тестируемого приложения (http://stload.se.ifmo.ru:8080/?token=...&user=...&config=N).
+ * Каждая конфигурация моделируется как очередь к ограниченному числу обработчиков
+ * с заданным средним временем обработки, поэтому при росте нагрузки время отклика
+ * растет так же, как у настоящего приложения. Запросы обслуживаются виртуальными потоками.
+ */
+public class StandInServer implements AutoCloseable {
+    private static final byte[] BODY = ("<html><body>OK</body></html>" + " ".repeat(200))
+        .getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Capacity> configs;
+
+    private StandInServer(HttpServer server, ExecutorService executor, Map<String, Capacity> configs) {
+        this.server = server;
+        this.executor = executor;
+        this.configs = configs;
+    }
+
+    /**
+     * Конфигурации по умолчанию: чем дороже, тем больше обработчиков и быстрее обработка.
+     */
+    public static Map<String, Capacity> defaultConfigs() {
+        Map<String, Capacity> configs = new HashMap<>();
+        configs.put("1", new Capacity(2, 600));
+        configs.put("2", new Capacity(4, 500));
+        configs.put("3", new Capacity(8, 400));
+        return configs;
+    }
+
+    public static StandInServer start(int port) throws IOException {
+        return start(port, defaultConfigs());
+    }
+
+    /**
+     * Запускает сервер на loopback-интерфейсе (port 0 - любой свободный).
+     */
+    public static StandInServer start(int port, Map<String, Capacity> configs) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 4096);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        StandInServer standIn = new StandInServer(server, executor, configs);
+        server.createContext("/", standIn::handle);
+        server.setExecutor(executor);
+        server.start();
+        return standIn;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Адрес uri, перенаправленный на этот сервер с сохранением пути и параметров.
+     */
+    public URI redirect(URI uri) {
+        return URI.create("http://127.0.0.1:" + getPort() + uri.getRawPath()
+            + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery()));
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            Capacity capacity = configs.get(configOf(exchange.getRequestURI().getRawQuery()));
+            if (capacity == null) {
+                send(exchange, 400, "Unknown configuration".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            capacity.serve();
+            send(exchange, 200, BODY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Номер конфигурации из параметра config (как в задании) или conf (как в планах JMeter).
+     */
+    private static String configOf(String query) {
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith("config=")) {
+                return parameter.substring("config=".length());
+            }
+            if (parameter.startsWith("conf=")) {
+                return parameter.substring("conf=".length());
+            }
+        }
+        return null;
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Производительность конфигурации: число параллельных обработчиков
+     * и среднее время обработки запроса (разброс +-20%).
+     */
+    public static class Capacity {
+        private final Semaphore workers;
+        private final long serviceMillis;
+
+        public Capacity(int workers, long serviceMillis) {
+            this.workers = new Semaphore(workers, true);
+            this.serviceMillis = serviceMillis;
+        }
+
+        void serve() throws InterruptedException {
+            workers.acquire();
+            try {
+                double jitter = 0.8 + 0.4 * ThreadLocalRandom.current().nextDouble();
+                Thread.sleep((long) (serviceMillis * jitter));
+            } finally {
+                workers.release();
+            }
+        }
+    }
+
+    /**
+     * Запуск отдельным процессом: StandInServer [порт]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 34543;
+        StandInServer standIn = start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(standIn::close));
+        System.out.println("Стенд запущен: http://127.0.0.1:" + standIn.getPort() + "/?config=1");
+    }
+}
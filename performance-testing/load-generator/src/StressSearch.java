@@ -0,0 +1,253 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Автоматический поиск максимальной нагрузки, при которой выполняется SLA,
+ * вместо ручного подбора числа пользователей (5, 10, ... 150 в stress-data).
+ *
+ * Сначала число пользователей удваивается, пока шаг не нарушит SLA, затем граница
+ * уточняется делением отрезка пополам до заданной точности. Шаг прерывается,
+ * как только SlaMonitor фиксирует статистически значимое нарушение. Результаты каждого
+ * шага пишутся в stressN.csv (как в stress-data), итог - в summary.csv.
+ *
+ * Использование: StressSearch [--url адрес] [--stand-in] [--sla 890] [--percentile 100]
+ * [--start 5] [--max-users 10000] [--resolution 5] [--throughput 40] [--ramp 2]
+ * [--step-duration 30] [--pause 2] [--out каталог]
+ */
+public class StressSearch {
+    private final LoadGenerator generator;
+    private final LoadProfile base;
+    private final double percentile;
+    private final long limitMillis;
+    private final Path outDir;
+    private final Duration pause;
+    private final List<Step> steps = new ArrayList<>();
+
+    /**
+     * @param base профиль одного шага; число пользователей в нем не используется
+     */
+    public StressSearch(LoadGenerator generator, LoadProfile base, double percentile, long limitMillis,
+            Path outDir, Duration pause) {
+        this.generator = generator;
+        this.base = base;
+        this.percentile = percentile;
+        this.limitMillis = limitMillis;
+        this.outDir = outDir;
+        this.pause = pause;
+    }
+
+    /**
+     * Ищет максимальное число пользователей в [start, maxUsers], при котором выполняется SLA,
+     * с точностью resolution пользователей. Возвращает 0, если SLA нарушен уже на start.
+     */
+    public int search(int start, int maxUsers, int resolution) throws IOException, InterruptedException {
+        int passed = 0;
+        int failed = -1;
+        generator.warmUp(base.getUri(), LoadGenerator.WARM_UP_REQUESTS);
+
+        // Экспоненциальный разгон до первого нарушения
+        for (int users = start; ; users = Math.min(users * 2, maxUsers)) {
+            if (step(users).isPassed()) {
+                passed = users;
+                if (users == maxUsers) {
+                    break;
+                }
+            } else {
+                failed = users;
+                break;
+            }
+        }
+
+        // Деление пополам между последним успешным и первым неуспешным шагом
+        while (failed > 0 && failed - passed > resolution) {
+            int users = passed == 0 ? Math.max(1, failed / 2) : passed + (failed - passed) / 2;
+            if (users == passed || users == failed) {
+                break;
+            }
+            if (step(users).isPassed()) {
+                passed = users;
+            } else {
+                failed = users;
+            }
+            if (passed == 0 && failed <= 1) {
+                break;
+            }
+        }
+
+        writeSummary(passed);
+        return passed;
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    private Step step(int users) throws IOException, InterruptedException {
+        if (!steps.isEmpty() && !pause.isZero()) {
+            Thread.sleep(pause);
+        }
+        LoadProfile profile = base.withUsers(users);
+        SlaMonitor monitor = new SlaMonitor(percentile, limitMillis, generator::stop);
+        Path file = outDir.resolve("stress" + users + ".csv");
+
+        long start = System.nanoTime();
+        ResultAnalysis analysis = generator.run(profile, List.of(new SampleWriter(file), monitor));
+        Step step = new Step(users, analysis, monitor, Duration.ofNanos(System.nanoTime() - start));
+        steps.add(step);
+
+        LatencyHistogram elapsed = analysis.getTotal().getElapsed();
+        System.out.println(String.format("%5d пользователей: %s%s, запросов %d, p%s %d мс, max %d мс, %.1f с",
+            users, step.isPassed() ? "SLA выполнен" : "SLA нарушен",
+            monitor.isViolatedEarly() ? " (шаг прерван)" : "", elapsed.getCount(), format(percentile),
+            elapsed.getValueAtPercentile(percentile), elapsed.getMax(), step.getDuration().toMillis() / 1000.0));
+        return step;
+    }
+
+    private void writeSummary(int maxPassing) throws IOException {
+        Path file = outDir.resolve("summary.csv");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("users,samples,p50,p95,p99,max,errorRate,passed,aborted,durationSeconds");
+            for (Step step : steps) {
+                LabelStats total = step.getAnalysis().getTotal();
+                LatencyHistogram elapsed = total.getElapsed();
+                out.println(String.format(Locale.ROOT, "%d,%d,%d,%d,%d,%d,%.4f,%s,%s,%.1f",
+                    step.getUsers(), total.getCount(), elapsed.getValueAtPercentile(50),
+                    elapsed.getValueAtPercentile(95), elapsed.getValueAtPercentile(99), elapsed.getMax(),
+                    total.getErrorRate(), step.isPassed(), step.isAborted(),
+                    step.getDuration().toMillis() / 1000.0));
+            }
+        }
+        System.out.println(String.format("Максимальная нагрузка с p%s <= %d мс: %d пользователей (шагов %d, %s)",
+            format(percentile), limitMillis, maxPassing, steps.size(), file));
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    /**
+     * Результат одного шага поиска.
+     */
+    public static class Step {
+        private final int users;
+        private final ResultAnalysis analysis;
+        private final boolean passed;
+        private final boolean aborted;
+        private final Duration duration;
+
+        Step(int users, ResultAnalysis analysis, SlaMonitor monitor, Duration duration) {
+            this.users = users;
+            this.analysis = analysis;
+            this.passed = !monitor.isViolated();
+            this.aborted = monitor.isViolatedEarly();
+            this.duration = duration;
+        }
+
+        public int getUsers() {
+            return users;
+        }
+
+        public ResultAnalysis getAnalysis() {
+            return analysis;
+        }
+
+        public boolean isPassed() {
+            return passed;
+        }
+
+        public boolean isAborted() {
+            return aborted;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI uri = LoadGenerator.DEFAULT_URI;
+        boolean standIn = false;
+        long sla = ResultsAnalyzer.DEFAULT_SLA_MILLIS;
+        double percentile = 100;
+        int start = 5;
+        int maxUsers = 10_000;
+        int resolution = 5;
+        double throughput = 40;
+        long ramp = 2;
+        long stepDuration = 30;
+        long pause = 2;
+        Path out = Paths.get("build", "stress-search");
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if ("--stand-in".equals(option)) {
+                standIn = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Нет значения для " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--url":
+                    uri = URI.create(value);
+                    break;
+                case "--sla":
+                    sla = Long.parseLong(value);
+                    break;
+                case "--percentile":
+                    percentile = Double.parseDouble(value);
+                    break;
+                case "--start":
+                    start = Integer.parseInt(value);
+                    break;
+                case "--max-users":
+                    maxUsers = Integer.parseInt(value);
+                    break;
+                case "--resolution":
+                    resolution = Integer.parseInt(value);
+                    break;
+                case "--throughput":
+                    throughput = Double.parseDouble(value);
+                    break;
+                case "--ramp":
+                    ramp = Long.parseLong(value);
+                    break;
+                case "--step-duration":
+                    stepDuration = Long.parseLong(value);
+                    break;
+                case "--pause":
+                    pause = Long.parseLong(value);
+                    break;
+                case "--out":
+                    out = Paths.get(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестный параметр: " + option);
+            }
+        }
+
+        Files.createDirectories(out);
+        StandInServer server = standIn ? StandInServer.start(0) : null;
+        try (LoadGenerator generator = new LoadGenerator()) {
+            URI target = server == null ? uri : server.redirect(uri);
+            LoadProfile base = new LoadProfile(target, LoadGenerator.labelFor(uri), start, Duration.ofSeconds(ramp),
+                throughput, 0, Duration.ofSeconds(stepDuration), sla);
+            StressSearch search = new StressSearch(generator, base, percentile, sla, out, Duration.ofSeconds(pause));
+            search.search(start, maxUsers, resolution);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+}
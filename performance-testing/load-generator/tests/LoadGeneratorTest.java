@@ -0,0 +1,72 @@
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LoadGeneratorTest {
+    private StandInServer server;
+    private LoadGenerator generator;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = StandInServer.start(0, Map.of(
+            "1", new StandInServer.Capacity(1000, 20),
+            "2", new StandInServer.Capacity(1, 200)));
+        generator = new LoadGenerator();
+    }
+
+    @AfterEach
+    void tearDown() {
+        generator.close();
+        server.close();
+    }
+
+    @Test
+    void writesJMeterSchemaResults(@TempDir Path dir) throws Exception {
+        URI uri = server.redirect(URI.create("http://localhost/?token=1&user=2&conf=1"));
+        LoadProfile profile = new LoadProfile(uri, LoadGenerator.labelFor(uri), 100, Duration.ofSeconds(1),
+            120, 3, Duration.ZERO, 890);
+        Path results = dir.resolve("results.csv");
+
+        ResultAnalysis analysis = generator.run(profile, List.of(new SampleWriter(results)));
+
+        assertEquals(300, analysis.getTotal().getCount());
+        assertEquals(0, analysis.getTotal().getErrors());
+        ResultAnalysis fromFile = ResultAnalysis.analyze(results, 890);
+        assertEquals(300, fromFile.getLabel("conf #1 req").getCount());
+        try (JMeterCsvReader reader = JMeterCsvReader.open(results)) {
+            assertTrue(reader.next());
+            assertEquals("200", reader.getResponseCode());
+            assertTrue(reader.getThreadName().startsWith("conf #1 users 1-"));
+            assertTrue(reader.getBytes() > 0);
+        }
+    }
+
+    @Test
+    void keepsArrivalRateWhenServerSaturates() throws Exception {
+        // Один обработчик по 200 мс, а запросы идут раз в 50 мс: в закрытой модели
+        // пользователь ждал бы ответа, и очередь на сервере не росла бы
+        URI uri = server.redirect(URI.create("http://localhost/?conf=2"));
+        LoadProfile profile = new LoadProfile(uri, "slow", 1, Duration.ZERO, 1200, 10, Duration.ZERO, 890);
+
+        ResultAnalysis analysis = generator.run(profile, List.of());
+
+        LabelStats stats = analysis.getLabel("slow");
+        assertEquals(10, stats.getCount());
+        // Последний запрос запланирован на 450 мс, а обслужен после девяти предыдущих (~2 с)
+        assertTrue(stats.getElapsed().getMax() > 1200, "max " + stats.getElapsed().getMax());
+        assertTrue(stats.getErrors() > 0);
+        assertFalse(stats.isSlaMet());
+    }
+}
@@ -0,0 +1,75 @@
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StressSearchTest {
+
+    @Test
+    void findsSaturationOfStandIn(@TempDir Path dir) throws Exception {
+        // 4 обработчика по ~50 мс - около 80 запр./с, пользователь дает 10 запр./с
+        try (StandInServer server = StandInServer.start(0, Map.of("1", new StandInServer.Capacity(4, 50)));
+                LoadGenerator generator = new LoadGenerator()) {
+            URI uri = server.redirect(URI.create("http://localhost/?conf=1"));
+            LoadProfile base = new LoadProfile(uri, "req", 1, Duration.ZERO, 600, 0, Duration.ofSeconds(1), 300);
+            StressSearch search = new StressSearch(generator, base, 100, 300, dir, Duration.ZERO);
+
+            int users = search.search(1, 64, 1);
+
+            assertTrue(users >= 2 && users < 16, "users " + users);
+            assertTrue(search.getSteps().stream().anyMatch(StressSearch.Step::isAborted));
+            assertTrue(Files.exists(dir.resolve("summary.csv")));
+            assertTrue(Files.exists(dir.resolve("stress" + users + ".csv")));
+        }
+    }
+
+    @Test
+    void percentileSlaToleratesRareSlowRequests() {
+        int[] violations = new int[1];
+        SlaMonitor monitor = new SlaMonitor(95, 890, () -> violations[0]++);
+
+        for (int i = 0; i < 1000; i++) {
+            monitor.onSample(sample(i % 50 == 0 ? 2000 : 100));
+        }
+        assertFalse(monitor.isViolated());
+
+        for (int i = 0; i < 200; i++) {
+            monitor.onSample(sample(2000));
+        }
+        assertTrue(monitor.isViolatedEarly());
+        assertEquals(1, violations[0]);
+    }
+
+    @Test
+    void maxSlaFailsOnFirstSlowRequest() {
+        SlaMonitor monitor = new SlaMonitor(100, 890, () -> { });
+        monitor.onSample(sample(100));
+        assertFalse(monitor.isViolated());
+        monitor.onSample(sample(891));
+        assertTrue(monitor.isViolatedEarly());
+    }
+
+    @Test
+    void failedRequestsViolateSla() {
+        SlaMonitor monitor = new SlaMonitor(95, 890, () -> { });
+        for (int i = 0; i < 100; i++) {
+            monitor.onSample(i % 5 == 0
+                ? new Sample(0, 20, "req", "503", "Error", "t", false, "", 0, 1, 1, "", 20)
+                : sample(100));
+        }
+        assertEquals(20, monitor.getSlow());
+        assertTrue(monitor.isViolatedEarly());
+    }
+
+    private static Sample sample(long elapsed) {
+        return new Sample(0, elapsed, "req", "200", "OK", "t", true, "", 0, 1, 1, "", elapsed);
+    }
+}
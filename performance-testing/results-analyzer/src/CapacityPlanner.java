@@ -0,0 +1,303 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Выбор самой дешевой конфигурации оборудования, выполняющей SLA.
+ *
+ * Каждой конфигурации соответствует метка результатов ("conf #2 req") и стоимость
+ * из таблицы. SLA - "перцентиль p времени отклика не больше limit мс"; p = 100 означает
+ * ограничение максимума, как в DurationAssertion. Доля запросов в пределах SLA
+ * оценивается с интервалом Уилсона, перцентиль - с интервалом по порядковым статистикам.
+ * Конфигурация выполняет SLA, если даже верхняя граница доли медленных запросов
+ * не выше 1 - p/100, и нарушает, если нижняя граница выше; иначе запросов мало для вывода
+ * (например, для p99 без единого медленного запроса нужно не меньше ~380 запросов).
+ *
+ * Запас по пользователям оценивается по модели очереди M/M/1 для открытой нагрузки:
+ * из времени отклика R и пропускной способности X на измеренной нагрузке находится
+ * время обслуживания D = R / (1 + X*R) и загрузка U = X*D. Время отклика растет как
+ * 1 / (1 - U), а загрузка - пропорционально числу пользователей, откуда число
+ * пользователей, при котором перцентиль дойдет до limit. Это прогноз по одному
+ * уровню нагрузки; точную границу дают stressSweep и stressSearch.
+ */
+public class CapacityPlanner {
+    public static final double DEFAULT_PERCENTILE = 100;
+    public static final int DEFAULT_USERS = 5;
+
+    private final Map<String, Long> costs;
+    private final double percentile;
+    private final int users;
+
+    /**
+     * @param costs стоимость конфигурации по метке результатов
+     * @param users число пользователей, под которым сняты результаты
+     */
+    public CapacityPlanner(Map<String, Long> costs, double percentile, int users) {
+        this.costs = costs;
+        this.percentile = percentile;
+        this.users = users;
+    }
+
+    /**
+     * Оценки по всем конфигурациям из таблицы стоимости, от дешевой к дорогой.
+     * Ограничение limit - SLA, с которым построен analysis. Конфигурации без результатов пропускаются.
+     */
+    public List<Option> plan(ResultAnalysis analysis) {
+        List<Option> options = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : costs.entrySet()) {
+            LabelStats stats = analysis.getLabel(entry.getKey());
+            if (stats != null && stats.getCount() > 0) {
+                options.add(evaluate(stats, entry.getValue(), analysis.getSlaMillis()));
+            }
+        }
+        options.sort(Comparator.comparingLong(Option::getCost));
+        return options;
+    }
+
+    /**
+     * Самая дешевая конфигурация, выполняющая SLA, или null.
+     */
+    public static Option cheapestCompliant(List<Option> options) {
+        return options.stream()
+            .filter(option -> option.getStatus() == Status.PASS)
+            .min(Comparator.comparingLong(Option::getCost))
+            .orElse(null);
+    }
+
+    private Option evaluate(LabelStats stats, long cost, long limitMillis) {
+        LatencyHistogram elapsed = stats.getElapsed();
+        long n = stats.getCount();
+        long slow = stats.getSlaViolations();
+        ConfidenceInterval slowShare = ConfidenceInterval.wilson(slow, n, ConfidenceInterval.Z_95);
+
+        Status status;
+        if (percentile >= 100) {
+            status = slow == 0 ? Status.PASS : Status.FAIL;
+        } else {
+            double allowed = 1 - percentile / 100;
+            if (slowShare.getUpper() <= allowed) {
+                status = Status.PASS;
+            } else if (slowShare.getLower() > allowed) {
+                status = Status.FAIL;
+            } else {
+                status = Status.INCONCLUSIVE;
+            }
+        }
+
+        long metric = percentile >= 100 ? elapsed.getMax() : elapsed.getValueAtPercentile(percentile);
+        double throughput = stats.getThroughput();
+        double response = elapsed.getMean() / 1000;
+        double demand = response / (1 + throughput * response);
+        double utilization = throughput * demand;
+        // Перцентиль растет как (1 - U0) / (1 - U); ищем U, при котором он равен limit
+        double breachUtilization = metric == 0 ? 1 : 1 - (double) metric * (1 - utilization) / limitMillis;
+        double headroom = breachUtilization <= 0 || utilization <= 0
+            ? 0
+            : users * Math.min(breachUtilization, 1) / utilization;
+
+        return new Option(stats.getLabel(), cost, n, 1 - (double) slow / n,
+            new ConfidenceInterval(1 - slowShare.getUpper(), 1 - slowShare.getLower()), metric,
+            ConfidenceInterval.percentile(elapsed, percentile, ConfidenceInterval.Z_95), status, throughput,
+            utilization, headroom);
+    }
+
+    public enum Status {
+        PASS, FAIL, INCONCLUSIVE
+    }
+
+    /**
+     * Оценка одной конфигурации.
+     */
+    public static class Option {
+        private final String label;
+        private final long cost;
+        private final long samples;
+        private final double compliance;
+        private final ConfidenceInterval complianceInterval;
+        private final long metric;
+        private final ConfidenceInterval metricInterval;
+        private final Status status;
+        private final double throughput;
+        private final double utilization;
+        private final double headroomUsers;
+
+        Option(String label, long cost, long samples, double compliance, ConfidenceInterval complianceInterval,
+                long metric, ConfidenceInterval metricInterval, Status status, double throughput,
+                double utilization, double headroomUsers) {
+            this.label = label;
+            this.cost = cost;
+            this.samples = samples;
+            this.compliance = compliance;
+            this.complianceInterval = complianceInterval;
+            this.metric = metric;
+            this.metricInterval = metricInterval;
+            this.status = status;
+            this.throughput = throughput;
+            this.utilization = utilization;
+            this.headroomUsers = headroomUsers;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public long getCost() {
+            return cost;
+        }
+
+        public long getSamples() {
+            return samples;
+        }
+
+        /**
+         * Доля запросов не дольше limit и ее 95% интервал.
+         */
+        public double getCompliance() {
+            return compliance;
+        }
+
+        public ConfidenceInterval getComplianceInterval() {
+            return complianceInterval;
+        }
+
+        /**
+         * Перцентиль времени отклика из SLA и его 95% интервал.
+         */
+        public long getMetric() {
+            return metric;
+        }
+
+        public ConfidenceInterval getMetricInterval() {
+            return metricInterval;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public double getThroughput() {
+            return throughput;
+        }
+
+        /**
+         * Оценка загрузки сервера на измеренной нагрузке.
+         */
+        public double getUtilization() {
+            return utilization;
+        }
+
+        /**
+         * Прогноз числа пользователей, при котором перцентиль дойдет до limit.
+         */
+        public double getHeadroomUsers() {
+            return headroomUsers;
+        }
+    }
+
+    /**
+     * Таблица стоимости: CSV с заголовком и строками "метка,стоимость".
+     */
+    public static Map<String, Long> readCosts(Path file) throws IOException {
+        Map<String, Long> costs = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            int comma = line.lastIndexOf(',');
+            if (comma > 0) {
+                costs.put(line.substring(0, comma).trim(), Long.parseLong(line.substring(comma + 1).trim()));
+            }
+        }
+        return costs;
+    }
+
+    public static void print(List<Option> options, double percentile, long limitMillis, int users) {
+        String metric = percentile >= 100 ? "max" : String.format("p%s", formatPercentile(percentile));
+        System.out.println(String.format("SLA: %s <= %d мс, измерено при %d пользователях", metric, limitMillis,
+            users));
+        System.out.println(String.format("%-16s %6s %8s %22s %7s %16s %7s %6s %9s %s",
+            "label", "cost", "samples", "in SLA (95% CI)", metric, "95% CI", "req/s", "U", "users", "status"));
+        for (Option option : options) {
+            System.out.println(String.format("%-16s %6d %8d %6.1f%% [%5.1f, %5.1f]%% %7d %16s %7.2f %5.0f%% %9.1f %s",
+                option.getLabel(), option.getCost(), option.getSamples(), option.getCompliance() * 100,
+                option.getComplianceInterval().getLower() * 100, option.getComplianceInterval().getUpper() * 100,
+                option.getMetric(), String.format("[%.0f, %.0f]", option.getMetricInterval().getLower(),
+                    option.getMetricInterval().getUpper()),
+                option.getThroughput(), option.getUtilization() * 100, option.getHeadroomUsers(),
+                option.getStatus()));
+        }
+
+        Option best = cheapestCompliant(options);
+        if (best != null) {
+            System.out.println(String.format("Выбрана %s ($%d): самая дешевая из выполняющих SLA, запас до ~%.0f "
+                + "пользователей", best.getLabel(), best.getCost(), Math.floor(best.getHeadroomUsers())));
+        } else {
+            System.out.println("Ни одна конфигурация не выполняет SLA");
+            options.stream()
+                .max(Comparator.comparingDouble(Option::getCompliance))
+                .ifPresent(closest -> System.out.println(String.format(
+                    "Ближе всех %s ($%d): %.1f%% запросов в пределах SLA, прогноз - до ~%.0f пользователей",
+                    closest.getLabel(), closest.getCost(), closest.getCompliance() * 100,
+                    Math.floor(closest.getHeadroomUsers()))));
+        }
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    /**
+     * Использование: CapacityPlanner [--costs ../load-data/costs.csv] [--sla 890] [--percentile 100]
+     * [--users 5] файл.csv...
+     * Код возврата 1, если ни одна конфигурация не выполняет SLA.
+     */
+    public static void main(String[] args) throws IOException {
+        Path costsFile = Paths.get("..", "load-data", "costs.csv");
+        long sla = ResultsAnalyzer.DEFAULT_SLA_MILLIS;
+        double percentile = DEFAULT_PERCENTILE;
+        int users = DEFAULT_USERS;
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 < args.length && args[i].startsWith("--")) {
+                String value = args[++i];
+                switch (args[i - 1]) {
+                    case "--costs":
+                        costsFile = Paths.get(value);
+                        break;
+                    case "--sla":
+                        sla = Long.parseLong(value);
+                        break;
+                    case "--percentile":
+                        percentile = Double.parseDouble(value);
+                        break;
+                    case "--users":
+                        users = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + args[i - 1]);
+                }
+            } else {
+                files.add(Paths.get(args[i]));
+            }
+        }
+        if (files.isEmpty()) {
+            files.add(Paths.get("..", "load-data", "total.csv"));
+        }
+
+        ResultAnalysis analysis = new ResultAnalysis(sla);
+        for (Path file : files) {
+            analysis.merge(ResultAnalysis.analyze(file, sla));
+        }
+        CapacityPlanner planner = new CapacityPlanner(readCosts(costsFile), percentile, users);
+        List<Option> options = planner.plan(analysis);
+        print(options, percentile, sla, users);
+        if (cheapestCompliant(options) == null) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Колоночный бинарный формат результатов JMeter (.jtlc).
+ *
+ * Строки делятся на блоки по BLOCK_ROWS. Внутри блока каждая колонка лежит отдельно:
+ * числа - varint (timeStamp - zigzag-разность с предыдущей строкой), строки - номера
+ * в словаре колонки, success - битовая маска. Запросы читают только нужные колонки
+ * и пропускают блоки, не попадающие в интервал времени.
+ *
+ * Раскладка файла:
+ * MAGIC, VERSION | блоки | словари строковых колонок | индекс блоков | хвост:
+ * rowCount, dictionaryOffset, indexOffset, MAGIC.
+ * В индексе для каждого блока: смещение, число строк, min и max timeStamp,
+ * первый timeStamp и длины колонок в порядке COLUMNS.
+ */
+final class ColumnarFormat {
+    static final int MAGIC = 0x4A544C43; // "JTLC"
+    static final int VERSION = 1;
+    static final int BLOCK_ROWS = 1 << 16;
+    static final int HEADER_SIZE = 4 + 4;
+    static final int TRAILER_SIZE = 8 + 8 + 8 + 4;
+
+    // Порядок колонок внутри блока
+    static final String[] NUMERIC_COLUMNS = {
+        "timeStamp", "elapsed", "Latency", "Connect", "IdleTime", "bytes", "sentBytes", "grpThreads", "allThreads"
+    };
+    static final String[] STRING_COLUMNS = {
+        "label", "responseCode", "responseMessage", "threadName", "dataType", "failureMessage", "URL"
+    };
+    static final int COLUMN_COUNT = NUMERIC_COLUMNS.length + STRING_COLUMNS.length + 1;
+
+    static final int TIME_STAMP = 0;
+    static final int ELAPSED = 1;
+    static final int LABEL = NUMERIC_COLUMNS.length;
+    static final int SUCCESS = COLUMN_COUNT - 1;
+
+    private ColumnarFormat() {
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Читает varint с позиции position буфера; позиция сдвигается.
+     */
+    static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     * Растущий буфер колонки одного блока.
+     */
+    static class ColumnBuffer {
+        private byte[] bytes = new byte[4096];
+        private int size;
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void setBit(int index, boolean value) {
+            int byteIndex = index >>> 3;
+            if (byteIndex >= size) {
+                ensure(byteIndex + 1 - size);
+                size = byteIndex + 1;
+            }
+            if (value) {
+                bytes[byteIndex] |= (byte) (1 << (index & 7));
+            }
+        }
+
+        byte[] array() {
+            return bytes;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            Arrays.fill(bytes, 0, size, (byte) 0);
+            size = 0;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Чтение колоночного файла результатов (см. ColumnarFormat) через MappedByteBuffer.
+ * Запросы декодируют только нужные колонки прямо из отображенной памяти, не собирая
+ * строки в объекты, и пропускают блоки вне интервала времени по индексу.
+ * Файлы больше 2 ГБ отображаются несколькими сегментами по границам блоков.
+ */
+public class ColumnarResults implements Closeable {
+    private static final long MAX_SEGMENT = 1L << 30;
+
+    private final FileChannel channel;
+    private final long rowCount;
+    private final String[][] dictionaries = new String[ColumnarFormat.STRING_COLUMNS.length][];
+    private final Block[] blocks;
+
+    private ColumnarResults(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long size = channel.size();
+        if (size < ColumnarFormat.HEADER_SIZE + ColumnarFormat.TRAILER_SIZE) {
+            throw new IOException("Файл не в колоночном формате результатов: " + size + " байт");
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, ColumnarFormat.HEADER_SIZE);
+        if (header.getInt() != ColumnarFormat.MAGIC) {
+            throw new IOException("Файл не в колоночном формате результатов");
+        }
+        int version = header.getInt();
+        if (version != ColumnarFormat.VERSION) {
+            throw new IOException("Версия колоночного формата " + version + " не поддерживается, ожидается "
+                + ColumnarFormat.VERSION + "; пересоздайте файл из CSV");
+        }
+
+        ByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY,
+            size - ColumnarFormat.TRAILER_SIZE, ColumnarFormat.TRAILER_SIZE);
+        rowCount = trailer.getLong();
+        long dictionaryOffset = trailer.getLong();
+        long indexOffset = trailer.getLong();
+        if (trailer.getInt() != ColumnarFormat.MAGIC) {
+            throw new IOException("Файл колоночного формата не дописан: нет хвоста с индексом");
+        }
+
+        ByteBuffer meta = channel.map(FileChannel.MapMode.READ_ONLY,
+            dictionaryOffset, size - ColumnarFormat.TRAILER_SIZE - dictionaryOffset);
+        for (int column = 0; column < dictionaries.length; column++) {
+            String[] values = new String[meta.getInt()];
+            for (int id = 0; id < values.length; id++) {
+                byte[] bytes = new byte[meta.getInt()];
+                meta.get(bytes);
+                values[id] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            dictionaries[column] = values;
+        }
+
+        meta.position((int) (indexOffset - dictionaryOffset));
+        blocks = new Block[meta.getInt()];
+        MappedByteBuffer segment = null;
+        long segmentStart = 0;
+        for (int i = 0; i < blocks.length; i++) {
+            long offset = meta.getLong();
+            int rows = meta.getInt();
+            long min = meta.getLong();
+            long max = meta.getLong();
+            long first = meta.getLong();
+            int[] lengths = new int[ColumnarFormat.COLUMN_COUNT];
+            long length = 0;
+            for (int c = 0; c < lengths.length; c++) {
+                lengths[c] = meta.getInt();
+                length += lengths[c];
+            }
+
+            if (segment == null || offset + length - segmentStart > segment.capacity()) {
+                segmentStart = offset;
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                    Math.min(Math.max(MAX_SEGMENT, length), dictionaryOffset - offset));
+            }
+            blocks[i] = new Block(segment, (int) (offset - segmentStart), rows, min, max, first, lengths);
+        }
+    }
+
+    public static ColumnarResults open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new ColumnarResults(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getMinTimeStamp() {
+        long min = Long.MAX_VALUE;
+        for (Block block : blocks) {
+            min = Math.min(min, block.minTimeStamp);
+        }
+        return min;
+    }
+
+    public long getMaxTimeStamp() {
+        long max = Long.MIN_VALUE;
+        for (Block block : blocks) {
+            max = Math.max(max, block.maxTimeStamp);
+        }
+        return max;
+    }
+
+    /**
+     * Метки в порядке номеров, которые получает RowHandler.
+     */
+    public String[] getLabels() {
+        return dictionaries[0].clone();
+    }
+
+    /**
+     * Обходит строки с timeStamp в [from, to).
+     */
+    public void scan(long from, long to, RowHandler handler) {
+        for (Block block : blocks) {
+            if (block.maxTimeStamp < from || block.minTimeStamp >= to) {
+                continue;
+            }
+            boolean inside = block.minTimeStamp >= from && block.maxTimeStamp < to;
+            ByteBuffer timeStamps = block.column(ColumnarFormat.TIME_STAMP);
+            ByteBuffer elapsed = block.column(ColumnarFormat.ELAPSED);
+            ByteBuffer labels = block.column(ColumnarFormat.LABEL);
+            int successOffset = block.offsets[ColumnarFormat.SUCCESS];
+
+            long timeStamp = block.firstTimeStamp;
+            for (int row = 0; row < block.rows; row++) {
+                timeStamp += ColumnarFormat.unzigzag(ColumnarFormat.readVarLong(timeStamps));
+                long value = ColumnarFormat.unzigzag(ColumnarFormat.readVarLong(elapsed));
+                int label = (int) ColumnarFormat.readVarLong(labels);
+                if (inside || (timeStamp >= from && timeStamp < to)) {
+                    boolean success = (block.segment.get(successOffset + (row >>> 3)) & (1 << (row & 7))) != 0;
+                    handler.accept(timeStamp, value, label, success);
+                }
+            }
+        }
+    }
+
+    /**
+     * Сводка по меткам за интервал [from, to).
+     */
+    public ResultAnalysis analyze(long from, long to, long slaMillis) {
+        ResultAnalysis analysis = new ResultAnalysis(slaMillis);
+        String[] labels = dictionaries[0];
+        LabelStats[] byId = new LabelStats[labels.length];
+        LabelStats total = analysis.getTotal();
+        scan(from, to, (timeStamp, elapsed, label, success) -> {
+            if (byId[label] == null) {
+                byId[label] = analysis.getOrCreateLabel(labels[label]);
+            }
+            byId[label].add(timeStamp, elapsed, success, slaMillis);
+            total.add(timeStamp, elapsed, success, slaMillis);
+        });
+        return analysis;
+    }
+
+    /**
+     * Гистограмма времени отклика метки за интервал [from, to).
+     */
+    public LatencyHistogram histogram(String label, long from, long to) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int id = indexOf(dictionaries[0], label);
+        if (id >= 0) {
+            scan(from, to, (timeStamp, elapsed, labelId, success) -> {
+                if (labelId == id) {
+                    histogram.record(elapsed);
+                }
+            });
+        }
+        return histogram;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public interface RowHandler {
+        void accept(long timeStamp, long elapsed, int labelId, boolean success);
+    }
+
+    private static class Block {
+        final MappedByteBuffer segment;
+        final int rows;
+        final long minTimeStamp;
+        final long maxTimeStamp;
+        final long firstTimeStamp;
+        final int[] offsets = new int[ColumnarFormat.COLUMN_COUNT];
+
+        Block(MappedByteBuffer segment, int offset, int rows, long minTimeStamp, long maxTimeStamp,
+                long firstTimeStamp, int[] lengths) {
+            this.segment = segment;
+            this.rows = rows;
+            this.minTimeStamp = minTimeStamp;
+            this.maxTimeStamp = maxTimeStamp;
+            this.firstTimeStamp = firstTimeStamp;
+            int position = offset;
+            for (int c = 0; c < lengths.length; c++) {
+                offsets[c] = position;
+                position += lengths[c];
+            }
+        }
+
+        ByteBuffer column(int column) {
+            return segment.duplicate().position(offsets[column]);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Консольный доступ к колоночному хранилищу результатов.
+ *
+ * Использование:
+ * ColumnarStore convert файл.csv файл.jtlc
+ * ColumnarStore query файл.jtlc [--from мс] [--to мс] [--label метка] [--sla 890]
+ */
+public class ColumnarStore {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && "convert".equals(args[0])) {
+            convert(Paths.get(args[1]), Paths.get(args[2]));
+        } else if (args.length >= 2 && "query".equals(args[0])) {
+            query(args);
+        } else {
+            System.out.println("Использование: ColumnarStore convert файл.csv файл.jtlc");
+            System.out.println("               ColumnarStore query файл.jtlc [--from мс] [--to мс] [--label метка] "
+                + "[--sla мс]");
+            System.exit(2);
+        }
+    }
+
+    private static void convert(Path csv, Path target) throws IOException {
+        long start = System.nanoTime();
+        long rows = ColumnarWriter.convert(csv, target);
+        long csvSize = Files.size(csv);
+        long size = Files.size(target);
+        System.out.println(String.format("%s: %d строк за %.1f мс, %d -> %d байт (%.1f%%)", target, rows,
+            (System.nanoTime() - start) / 1e6, csvSize, size, size * 100.0 / csvSize));
+    }
+
+    private static void query(String[] args) throws IOException {
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        String label = null;
+        long sla = ResultsAnalyzer.DEFAULT_SLA_MILLIS;
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--from":
+                    from = Long.parseLong(args[i + 1]);
+                    break;
+                case "--to":
+                    to = Long.parseLong(args[i + 1]);
+                    break;
+                case "--label":
+                    label = args[i + 1];
+                    break;
+                case "--sla":
+                    sla = Long.parseLong(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+            }
+        }
+
+        try (ColumnarResults results = ColumnarResults.open(Paths.get(args[1]))) {
+            long start = System.nanoTime();
+            if (label == null) {
+                ResultsAnalyzer.print(results.analyze(from, to, sla));
+            } else {
+                LatencyHistogram histogram = results.histogram(label, from, to);
+                System.out.println(String.format("%s: %d запросов, p50 %d, p95 %d, p99 %d, max %d мс", label,
+                    histogram.getCount(), histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(95),
+                    histogram.getValueAtPercentile(99), histogram.getMax()));
+            }
+            System.out.println(String.format("Запрос по %d строкам: %.1f мс", results.getRowCount(),
+                (System.nanoTime() - start) / 1e6));
+        }
+    }
+}
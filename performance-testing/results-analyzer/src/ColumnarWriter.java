@@ -0,0 +1,186 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Конвертер CSV-результатов JMeter в колоночный формат (см. ColumnarFormat).
+ * Работает потоково: в памяти держится только текущий блок и словари строк.
+ */
+public class ColumnarWriter {
+    private final JMeterCsvReader reader;
+    private final int[] numericColumns = new int[ColumnarFormat.NUMERIC_COLUMNS.length];
+    private final int[] stringColumns = new int[ColumnarFormat.STRING_COLUMNS.length];
+    private final StringTable empty = new StringTable();
+    private final ColumnarFormat.ColumnBuffer[] buffers =
+        new ColumnarFormat.ColumnBuffer[ColumnarFormat.COLUMN_COUNT];
+    private final List<BlockInfo> blocks = new ArrayList<>();
+
+    private ColumnarWriter(JMeterCsvReader reader) {
+        this.reader = reader;
+        for (int i = 0; i < numericColumns.length; i++) {
+            numericColumns[i] = reader.columnIndex(ColumnarFormat.NUMERIC_COLUMNS[i]);
+        }
+        for (int i = 0; i < stringColumns.length; i++) {
+            stringColumns[i] = reader.columnIndex(ColumnarFormat.STRING_COLUMNS[i]);
+        }
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new ColumnarFormat.ColumnBuffer();
+        }
+        empty.idOf("");
+    }
+
+    /**
+     * Конвертирует CSV-файл и возвращает число строк.
+     */
+    public static long convert(Path csv, Path target) throws IOException {
+        try (JMeterCsvReader reader = JMeterCsvReader.open(csv);
+                OutputStream file = Files.newOutputStream(target)) {
+            return new ColumnarWriter(reader).write(file);
+        }
+    }
+
+    private long write(OutputStream file) throws IOException {
+        CountingOutput out = new CountingOutput(file);
+        out.writeInt(ColumnarFormat.MAGIC);
+        out.writeInt(ColumnarFormat.VERSION);
+
+        long rows = 0;
+        int blockRows = 0;
+        long previous = 0;
+        long first = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        while (reader.next()) {
+            long timeStamp = reader.getTimeStamp();
+            if (blockRows == 0) {
+                first = timeStamp;
+                previous = timeStamp;
+            }
+            buffers[ColumnarFormat.TIME_STAMP].writeVarLong(ColumnarFormat.zigzag(timeStamp - previous));
+            previous = timeStamp;
+            min = Math.min(min, timeStamp);
+            max = Math.max(max, timeStamp);
+
+            for (int i = 1; i < numericColumns.length; i++) {
+                buffers[i].writeVarLong(ColumnarFormat.zigzag(reader.getLong(numericColumns[i])));
+            }
+            for (int i = 0; i < stringColumns.length; i++) {
+                int id = stringColumns[i] < 0 ? 0 : reader.getStringId(stringColumns[i]);
+                buffers[ColumnarFormat.LABEL + i].writeVarLong(id);
+            }
+            buffers[ColumnarFormat.SUCCESS].setBit(blockRows, reader.isSuccess());
+
+            rows++;
+            if (++blockRows == ColumnarFormat.BLOCK_ROWS) {
+                flushBlock(out, blockRows, first, min, max);
+                blockRows = 0;
+                min = Long.MAX_VALUE;
+                max = Long.MIN_VALUE;
+            }
+        }
+        if (blockRows > 0) {
+            flushBlock(out, blockRows, first, min, max);
+        }
+
+        long dictionaryOffset = out.position();
+        for (int column : stringColumns) {
+            StringTable table = column < 0 ? empty : reader.getStringTable(column);
+            out.writeInt(table.size());
+            for (int id = 0; id < table.size(); id++) {
+                byte[] bytes = table.get(id).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        long indexOffset = out.position();
+        out.writeInt(blocks.size());
+        for (BlockInfo block : blocks) {
+            out.writeLong(block.offset);
+            out.writeInt(block.rows);
+            out.writeLong(block.minTimeStamp);
+            out.writeLong(block.maxTimeStamp);
+            out.writeLong(block.firstTimeStamp);
+            for (int length : block.lengths) {
+                out.writeInt(length);
+            }
+        }
+
+        out.writeLong(rows);
+        out.writeLong(dictionaryOffset);
+        out.writeLong(indexOffset);
+        out.writeInt(ColumnarFormat.MAGIC);
+        out.flush();
+        return rows;
+    }
+
+    private void flushBlock(CountingOutput out, int rows, long first, long min, long max) throws IOException {
+        int[] lengths = new int[buffers.length];
+        long offset = out.position();
+        for (int i = 0; i < buffers.length; i++) {
+            lengths[i] = buffers[i].size();
+            out.write(buffers[i].array(), 0, buffers[i].size());
+            buffers[i].clear();
+        }
+        blocks.add(new BlockInfo(offset, rows, min, max, first, lengths));
+    }
+
+    private static class BlockInfo {
+        final long offset;
+        final int rows;
+        final long minTimeStamp;
+        final long maxTimeStamp;
+        final long firstTimeStamp;
+        final int[] lengths;
+
+        BlockInfo(long offset, int rows, long minTimeStamp, long maxTimeStamp, long firstTimeStamp, int[] lengths) {
+            this.offset = offset;
+            this.rows = rows;
+            this.minTimeStamp = minTimeStamp;
+            this.maxTimeStamp = maxTimeStamp;
+            this.firstTimeStamp = firstTimeStamp;
+            this.lengths = lengths;
+        }
+    }
+
+    /**
+     * DataOutputStream с 64-битной позицией записи (size() у DataOutputStream - int).
+     */
+    private static class CountingOutput extends DataOutputStream {
+
+        CountingOutput(OutputStream out) {
+            super(new Counter(new BufferedOutputStream(out, 1 << 16)));
+        }
+
+        long position() {
+            return ((Counter) out).count;
+        }
+    }
+
+    private static class Counter extends FilterOutputStream {
+        private long count;
+
+        Counter(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
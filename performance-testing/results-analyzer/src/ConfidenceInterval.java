@@ -0,0 +1,66 @@
+import java.util.Locale;
+
+/**
+ * Доверительный интервал [lower, upper] и способы его построения по результатам прогона.
+ */
+public class ConfidenceInterval {
+    // Двусторонний 95% квантиль нормального распределения
+    public static final double Z_95 = 1.96;
+
+    private final double lower;
+    private final double upper;
+
+    public ConfidenceInterval(double lower, double upper) {
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    /**
+     * Интервал Уилсона для доли successes из n. В отличие от нормального приближения
+     * остается в [0, 1] и осмыслен при долях около 0 и 1 - как раз случай SLA.
+     */
+    public static ConfidenceInterval wilson(long successes, long n, double z) {
+        if (n == 0) {
+            return new ConfidenceInterval(0, 1);
+        }
+        double share = (double) successes / n;
+        double z2 = z * z;
+        double center = (share + z2 / (2 * n)) / (1 + z2 / n);
+        double half = z / (1 + z2 / n) * Math.sqrt(share * (1 - share) / n + z2 / (4.0 * n * n));
+        return new ConfidenceInterval(Math.max(0, center - half), Math.min(1, center + half));
+    }
+
+    /**
+     * Интервал для перцентиля (0-100) без предположений о распределении:
+     * номер наблюдения, попадающего в перцентиль, распределен биномиально,
+     * и границами служат наблюдения с номерами n*q -+ z*sqrt(n*q*(1-q)).
+     */
+    public static ConfidenceInterval percentile(LatencyHistogram histogram, double percentile, double z) {
+        long n = histogram.getCount();
+        if (n == 0) {
+            return new ConfidenceInterval(0, 0);
+        }
+        double q = percentile / 100;
+        double half = z * Math.sqrt(n * q * (1 - q));
+        long lowerRank = Math.max(1, (long) Math.floor(n * q - half));
+        long upperRank = Math.min(n, (long) Math.ceil(n * q + half) + 1);
+        return new ConfidenceInterval(histogram.getValueAtRank(lowerRank), histogram.getValueAtRank(upperRank));
+    }
+
+    public double getLower() {
+        return lower;
+    }
+
+    public double getUpper() {
+        return upper;
+    }
+
+    public boolean contains(double value) {
+        return lower <= value && value <= upper;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "[%.1f, %.1f]", lower, upper);
+    }
+}
@@ -0,0 +1,453 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Потоковое чтение результатов JMeter в формате CSV
+ * (timeStamp,elapsed,label,responseCode,...,Latency,IdleTime,Connect).
+ * Работает как курсор: next() переходит к следующей строке, геттеры разбирают поля
+ * прямо из буфера чтения без создания объектов. Строковые поля с повторяющимися
+ * значениями (метка, поток, URL) декодируются один раз через StringTable.
+ * Значения доступны только до следующего вызова next().
+ *
+ * Порядок колонок берется из заголовка, поэтому поддерживаются и сокращенные
+ * наборы полей из настроек saveservice. Обязательны timeStamp, elapsed, label и success.
+ */
+public class JMeterCsvReader implements Closeable {
+    public static final String[] COLUMNS = {
+        "timeStamp", "elapsed", "label", "responseCode", "responseMessage", "threadName", "dataType",
+        "success", "failureMessage", "bytes", "sentBytes", "grpThreads", "allThreads", "URL",
+        "Latency", "IdleTime", "Connect"
+    };
+
+    static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private static final int NEED_MORE = -1;
+    private static final int END_OF_INPUT = -2;
+
+    private final InputStream in;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private boolean eof;
+
+    private final int columnCount;
+    private final String[] names;
+    private final int[] starts;
+    private final int[] ends;
+    private final boolean[] quoted;
+    private byte[] scratch = new byte[256];
+    private long lineNumber;
+
+    private final int timeStampColumn;
+    private final int elapsedColumn;
+    private final int labelColumn;
+    private final int responseCodeColumn;
+    private final int responseMessageColumn;
+    private final int threadNameColumn;
+    private final int dataTypeColumn;
+    private final int successColumn;
+    private final int failureMessageColumn;
+    private final int bytesColumn;
+    private final int sentBytesColumn;
+    private final int grpThreadsColumn;
+    private final int allThreadsColumn;
+    private final int urlColumn;
+    private final int latencyColumn;
+    private final int idleTimeColumn;
+    private final int connectColumn;
+
+    private final StringTable labels = new StringTable();
+    private final StringTable[] tables;
+
+    public JMeterCsvReader(InputStream in) throws IOException {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    JMeterCsvReader(InputStream in, int bufferSize) throws IOException {
+        this.in = in;
+        this.buffer = new byte[bufferSize];
+
+        int[] headerStarts = new int[64];
+        int[] headerEnds = new int[64];
+        int fields = readRecord(headerStarts, headerEnds, new boolean[64]);
+        if (fields <= 0) {
+            throw new IOException("Пустой файл результатов: нет заголовка");
+        }
+        columnCount = Math.min(fields, headerStarts.length);
+        names = new String[columnCount];
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < columnCount; i++) {
+            names[i] = new String(buffer, headerStarts[i], headerEnds[i] - headerStarts[i],
+                StandardCharsets.UTF_8).trim();
+            header.put(names[i], i);
+        }
+
+        starts = new int[columnCount];
+        ends = new int[columnCount];
+        quoted = new boolean[columnCount];
+        tables = new StringTable[columnCount];
+
+        timeStampColumn = required(header, "timeStamp");
+        elapsedColumn = required(header, "elapsed");
+        labelColumn = required(header, "label");
+        successColumn = required(header, "success");
+        responseCodeColumn = header.getOrDefault("responseCode", -1);
+        responseMessageColumn = header.getOrDefault("responseMessage", -1);
+        threadNameColumn = header.getOrDefault("threadName", -1);
+        dataTypeColumn = header.getOrDefault("dataType", -1);
+        failureMessageColumn = header.getOrDefault("failureMessage", -1);
+        bytesColumn = header.getOrDefault("bytes", -1);
+        sentBytesColumn = header.getOrDefault("sentBytes", -1);
+        grpThreadsColumn = header.getOrDefault("grpThreads", -1);
+        allThreadsColumn = header.getOrDefault("allThreads", -1);
+        urlColumn = header.getOrDefault("URL", -1);
+        latencyColumn = header.getOrDefault("Latency", -1);
+        idleTimeColumn = header.getOrDefault("IdleTime", -1);
+        connectColumn = header.getOrDefault("Connect", -1);
+        tables[labelColumn] = labels;
+    }
+
+    public static JMeterCsvReader open(Path file) throws IOException {
+        return new JMeterCsvReader(Files.newInputStream(file));
+    }
+
+    /**
+     * Переходит к следующей строке результатов. Пустые строки пропускаются.
+     */
+    public boolean next() throws IOException {
+        int fields;
+        do {
+            fields = readRecord(starts, ends, quoted);
+            if (fields == END_OF_INPUT) {
+                return false;
+            }
+        } while (fields == 0);
+
+        // Недостающие в строке колонки считаются пустыми
+        for (int i = fields; i < columnCount; i++) {
+            starts[i] = 0;
+            ends[i] = 0;
+            quoted[i] = false;
+        }
+        return true;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public long getTimeStamp() {
+        return parseLong(timeStampColumn);
+    }
+
+    public long getElapsed() {
+        return parseLong(elapsedColumn);
+    }
+
+    public String getLabel() {
+        return labels.get(getLabelId());
+    }
+
+    /**
+     * Номер метки в порядке появления в файле: удобен как индекс массива вместо поиска по строке.
+     */
+    public int getLabelId() {
+        return idOf(labels, labelColumn);
+    }
+
+    public StringTable getLabels() {
+        return labels;
+    }
+
+    public String getResponseCode() {
+        return string(responseCodeColumn);
+    }
+
+    public String getResponseMessage() {
+        return string(responseMessageColumn);
+    }
+
+    public String getThreadName() {
+        return string(threadNameColumn);
+    }
+
+    public String getDataType() {
+        return string(dataTypeColumn);
+    }
+
+    public boolean isSuccess() {
+        int start = starts[successColumn];
+        return ends[successColumn] > start && (buffer[start] == 't' || buffer[start] == 'T');
+    }
+
+    /**
+     * Текст ошибки assertion. Уникален почти для каждой строки, поэтому не кэшируется.
+     */
+    public String getFailureMessage() {
+        if (failureMessageColumn < 0) {
+            return "";
+        }
+        return decode(failureMessageColumn);
+    }
+
+    public long getBytes() {
+        return parseLong(bytesColumn);
+    }
+
+    public long getSentBytes() {
+        return parseLong(sentBytesColumn);
+    }
+
+    public int getGrpThreads() {
+        return (int) parseLong(grpThreadsColumn);
+    }
+
+    public int getAllThreads() {
+        return (int) parseLong(allThreadsColumn);
+    }
+
+    public String getUrl() {
+        return string(urlColumn);
+    }
+
+    public long getLatency() {
+        return parseLong(latencyColumn);
+    }
+
+    public long getIdleTime() {
+        return parseLong(idleTimeColumn);
+    }
+
+    public long getConnect() {
+        return parseLong(connectColumn);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Номер колонки по имени из заголовка или -1, если колонки нет.
+     */
+    public int columnIndex(String name) {
+        for (int i = 0; i < columnCount; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Числовое значение колонки с номером column (0 для пустого поля).
+     */
+    public long getLong(int column) {
+        return parseLong(column);
+    }
+
+    /**
+     * Номер значения строковой колонки в ее словаре (getStringTable).
+     */
+    public int getStringId(int column) {
+        return idOf(getStringTable(column), column);
+    }
+
+    /**
+     * Словарь значений строковой колонки: номера присваиваются в порядке появления.
+     */
+    public StringTable getStringTable(int column) {
+        if (tables[column] == null) {
+            tables[column] = new StringTable();
+        }
+        return tables[column];
+    }
+
+    private String string(int column) {
+        if (column < 0) {
+            return "";
+        }
+        return getStringTable(column).get(getStringId(column));
+    }
+
+    private int idOf(StringTable table, int column) {
+        if (!quoted[column]) {
+            return table.idOf(buffer, starts[column], ends[column]);
+        }
+        int length = unquote(column);
+        return table.idOf(scratch, 0, length);
+    }
+
+    private String decode(int column) {
+        if (!quoted[column]) {
+            return new String(buffer, starts[column], ends[column] - starts[column], StandardCharsets.UTF_8);
+        }
+        return new String(scratch, 0, unquote(column), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Копирует поле в кавычках в scratch без обрамляющих кавычек, заменяя "" на ".
+     */
+    private int unquote(int column) {
+        int start = starts[column] + 1;
+        int end = ends[column] - 1;
+        if (scratch.length < end - start) {
+            scratch = new byte[Math.max(end - start, scratch.length * 2)];
+        }
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            scratch[length++] = buffer[i];
+            if (buffer[i] == '"') {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    private long parseLong(int column) {
+        if (column < 0) {
+            return 0;
+        }
+        int i = quoted[column] ? starts[column] + 1 : starts[column];
+        int end = quoted[column] ? ends[column] - 1 : ends[column];
+        if (i >= end) {
+            return 0;
+        }
+        boolean negative = buffer[i] == '-';
+        if (negative) {
+            i++;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Строка " + lineNumber + ": не число в колонке "
+                    + names[column] + ": " + decode(column));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Читает одну запись CSV и сохраняет границы полей. Возвращает число полей,
+     * 0 для пустой строки и END_OF_INPUT в конце файла.
+     */
+    private int readRecord(int[] fieldStarts, int[] fieldEnds, boolean[] fieldQuoted) throws IOException {
+        while (true) {
+            int fields = scanRecord(fieldStarts, fieldEnds, fieldQuoted);
+            if (fields != NEED_MORE) {
+                if (fields != END_OF_INPUT) {
+                    lineNumber++;
+                }
+                return fields;
+            }
+            fill();
+        }
+    }
+
+    private int scanRecord(int[] fieldStarts, int[] fieldEnds, boolean[] fieldQuoted) {
+        int i = position;
+        if (i >= limit && eof) {
+            return END_OF_INPUT;
+        }
+
+        int field = 0;
+        int fieldStart = i;
+        boolean inQuotes = false;
+        while (true) {
+            if (i >= limit) {
+                if (!eof) {
+                    return NEED_MORE;
+                }
+                // Последняя строка без перевода строки
+                field = store(field, fieldStart, i, fieldStarts, fieldEnds, fieldQuoted);
+                position = i;
+                return field;
+            }
+
+            byte b = buffer[i];
+            if (inQuotes) {
+                if (b == '"') {
+                    if (i + 1 >= limit && !eof) {
+                        return NEED_MORE;
+                    }
+                    if (i + 1 < limit && buffer[i + 1] == '"') {
+                        i += 2;
+                        continue;
+                    }
+                    inQuotes = false;
+                }
+                i++;
+            } else if (b == '"' && i == fieldStart) {
+                inQuotes = true;
+                i++;
+            } else if (b == ',') {
+                field = store(field, fieldStart, i, fieldStarts, fieldEnds, fieldQuoted);
+                fieldStart = ++i;
+            } else if (b == '\n' || b == '\r') {
+                int lineEnd = i;
+                if (b == '\r') {
+                    if (i + 1 >= limit && !eof) {
+                        return NEED_MORE;
+                    }
+                    if (i + 1 < limit && buffer[i + 1] == '\n') {
+                        i++;
+                    }
+                }
+                if (field > 0 || fieldStart < lineEnd) {
+                    field = store(field, fieldStart, lineEnd, fieldStarts, fieldEnds, fieldQuoted);
+                }
+                position = i + 1;
+                return field;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private int store(int field, int start, int end, int[] fieldStarts, int[] fieldEnds, boolean[] fieldQuoted) {
+        if (field < fieldStarts.length) {
+            fieldStarts[field] = start;
+            fieldEnds[field] = end;
+            fieldQuoted[field] = end - start >= 2 && buffer[start] == '"' && buffer[end - 1] == '"';
+        }
+        return field + 1;
+    }
+
+    /**
+     * Сдвигает недочитанную запись в начало буфера и дочитывает поток.
+     * Если запись не помещается в буфер целиком, буфер увеличивается.
+     */
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        } else if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private static int required(Map<String, Integer> header, String column) throws IOException {
+        Integer index = header.get(column);
+        if (index == null) {
+            throw new IOException("В заголовке результатов нет колонки " + column);
+        }
+        return index;
+    }
+}
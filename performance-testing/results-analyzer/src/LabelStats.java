@@ -0,0 +1,87 @@
+/**
+ * Сводка по одной метке (запросу) JMeter: число запросов и ошибок, гистограмма времени отклика,
+ * интервал времени и нарушения SLA по максимальному времени отклика (DurationAssertion).
+ */
+public class LabelStats {
+    private final String label;
+    private final LatencyHistogram elapsed = new LatencyHistogram();
+    private long errors;
+    private long slaViolations;
+    private long firstStart = Long.MAX_VALUE;
+    private long lastEnd = Long.MIN_VALUE;
+
+    public LabelStats(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Учитывает один запрос: timeStamp - время начала, elapsed - время отклика в мс.
+     */
+    public void add(long timeStamp, long elapsedMillis, boolean success, long slaMillis) {
+        elapsed.record(elapsedMillis);
+        if (!success) {
+            errors++;
+        }
+        if (elapsedMillis > slaMillis) {
+            slaViolations++;
+        }
+        firstStart = Math.min(firstStart, timeStamp);
+        lastEnd = Math.max(lastEnd, timeStamp + elapsedMillis);
+    }
+
+    public void merge(LabelStats other) {
+        elapsed.add(other.elapsed);
+        errors += other.errors;
+        slaViolations += other.slaViolations;
+        firstStart = Math.min(firstStart, other.firstStart);
+        lastEnd = Math.max(lastEnd, other.lastEnd);
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public LatencyHistogram getElapsed() {
+        return elapsed;
+    }
+
+    public long getCount() {
+        return elapsed.getCount();
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getErrorRate() {
+        return getCount() == 0 ? 0 : (double) errors / getCount();
+    }
+
+    /**
+     * Число запросов дольше SLA - то, что отметил бы DurationAssertion.
+     */
+    public long getSlaViolations() {
+        return slaViolations;
+    }
+
+    public boolean isSlaMet() {
+        return slaViolations == 0;
+    }
+
+    public long getFirstStart() {
+        return firstStart;
+    }
+
+    public long getLastEnd() {
+        return lastEnd;
+    }
+
+    /**
+     * Пропускная способность в запросах в секунду, как в отчетах JMeter:
+     * число запросов на интервал от начала первого до конца последнего.
+     */
+    public double getThroughput() {
+        long duration = lastEnd - firstStart;
+        return duration <= 0 ? 0 : getCount() * 1000.0 / duration;
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.Arrays;
+
+/**
+ * Гистограмма времени отклика в миллисекундах с логарифмическими корзинами (в духе HdrHistogram).
+ * Значения до 64 мс хранятся точно, дальше каждая степень двойки делится на 32 корзины,
+ * поэтому погрешность перцентилей не превышает ~1.6% при фиксированном объеме памяти.
+ * Гистограммы складываются через add, что позволяет считать файлы независимо и объединять итог.
+ * Не потокобезопасна: каждый поток пишет в свою гистограмму.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int BUCKETS = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Записывает одно значение в миллисекундах.
+     */
+    public void record(long millis) {
+        record(millis, 1);
+    }
+
+    /**
+     * Записывает значение, встретившееся times раз.
+     */
+    public void record(long millis, long times) {
+        if (times <= 0) {
+            return;
+        }
+        long value = Math.max(0, millis);
+        counts[indexOf(value)] += times;
+        count += times;
+        sum += value * times;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Добавляет к гистограмме значения другой гистограммы.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(this);
+        return copy;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Значение перцентиля (0-100) в миллисекундах.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        return getValueAtRank(Math.max(1, (long) Math.ceil(percentile / 100.0 * count)));
+    }
+
+    /**
+     * Значение с номером rank (от 1) в порядке возрастания.
+     */
+    public long getValueAtRank(long rank) {
+        if (count == 0) {
+            return 0;
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.max(min, Math.min(valueOf(i), max));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Число значений больше limit. Точно для limit меньше 64 мс,
+     * выше - с точностью до ширины корзины.
+     */
+    public long countAbove(long limit) {
+        if (limit >= max) {
+            return 0;
+        }
+        long above = 0;
+        for (int i = indexOf(Math.max(0, limit)) + 1; i < BUCKETS; i++) {
+            above += counts[i];
+        }
+        return above;
+    }
+
+    /**
+     * Обходит непустые корзины по возрастанию значений.
+     */
+    public void forEachBucket(BucketConsumer consumer) {
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                consumer.accept(Math.max(min, Math.min(valueOf(i), max)), counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Число корзин; вместе с bucketOf и bucketValue позволяет хранить счетчики
+     * корзин в другой структуре (например, в AtomicLongArray) с той же точностью.
+     */
+    static int bucketCount() {
+        return BUCKETS;
+    }
+
+    static int bucketOf(long millis) {
+        return indexOf(Math.max(0, millis));
+    }
+
+    static long bucketValue(int index) {
+        return valueOf(index);
+    }
+
+    long countAt(int index) {
+        return counts[index];
+    }
+
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Середина диапазона значений корзины.
+     */
+    private static long valueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int offset = index - LINEAR_LIMIT;
+        int exponent = offset / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int subBucket = offset % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (SUB_BUCKETS + subBucket) * width;
+        return lower + width / 2;
+    }
+
+    public interface BucketConsumer {
+        void accept(long value, long count);
+    }
+}
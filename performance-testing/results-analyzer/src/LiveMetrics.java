@@ -0,0 +1,55 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Метрики идущего прогона: скользящее окно по каждой метке и по всем запросам вместе.
+ * Запись без блокировок, поэтому record можно вызывать из любых потоков -
+ * из читателя растущего CSV или из обработчика запросов генератора нагрузки.
+ */
+public class LiveMetrics {
+    public static final int DEFAULT_WINDOW_SECONDS = 30;
+
+    private final int windowSeconds;
+    private final LongSupplier clock;
+    private final Map<String, RollingWindow> labels = new ConcurrentHashMap<>();
+    private final RollingWindow total;
+
+    public LiveMetrics(int windowSeconds) {
+        this(windowSeconds, System::currentTimeMillis);
+    }
+
+    LiveMetrics(int windowSeconds, LongSupplier clock) {
+        this.windowSeconds = windowSeconds;
+        this.clock = clock;
+        this.total = new RollingWindow(windowSeconds);
+    }
+
+    /**
+     * Учитывает запрос, начатый в timeStamp (как в колонке timeStamp JMeter).
+     * Запрос попадает в окно по времени завершения.
+     */
+    public void record(String label, long timeStamp, long elapsed, boolean success) {
+        long end = timeStamp + elapsed;
+        labels.computeIfAbsent(label, name -> new RollingWindow(windowSeconds)).record(end, elapsed, success);
+        total.record(end, elapsed, success);
+    }
+
+    /**
+     * Снимки окна по меткам в алфавитном порядке; последним идет ResultAnalysis.TOTAL.
+     */
+    public Map<String, RollingWindow.Snapshot> snapshot() {
+        long now = clock.getAsLong();
+        Map<String, RollingWindow.Snapshot> snapshots = new TreeMap<>();
+        labels.forEach((label, window) -> snapshots.put(label, window.snapshot(now)));
+        Map<String, RollingWindow.Snapshot> ordered = new LinkedHashMap<>(snapshots);
+        ordered.put(ResultAnalysis.TOTAL, total.snapshot(now));
+        return ordered;
+    }
+
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+}
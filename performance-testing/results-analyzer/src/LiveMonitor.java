@@ -0,0 +1,191 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Наблюдение за идущим прогоном: метрики скользящего окна по HTTP
+ * (GET http://localhost:порт/metrics, JSON) и в консоли.
+ * Позволяет увидеть насыщение и нарушение SLA, не дожидаясь конца прогона.
+ *
+ * Использование: LiveMonitor [--window 30] [--port 8089] [--interval 5] [--sla 890] файл.csv
+ */
+public class LiveMonitor implements Closeable {
+    public static final int DEFAULT_PORT = 8089;
+
+    private final LiveMetrics metrics;
+    private final long slaMillis;
+    private final HttpServer server;
+
+    /**
+     * Запускает HTTP-сервер на localhost; port 0 - любой свободный порт.
+     */
+    public LiveMonitor(LiveMetrics metrics, int port, long slaMillis) throws IOException {
+        this.metrics = metrics;
+        this.slaMillis = slaMillis;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", this::handle);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Метрики окна в JSON: по каждой метке число запросов, пропускная способность,
+     * перцентили, доля ошибок и выполнение SLA по p99.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append(String.format(Locale.US, "{\"window\":%d,\"sla\":%d,\"labels\":{",
+            metrics.getWindowSeconds(), slaMillis));
+        boolean first = true;
+        for (Map.Entry<String, RollingWindow.Snapshot> entry : metrics.snapshot().entrySet()) {
+            RollingWindow.Snapshot snapshot = entry.getValue();
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            appendString(json, entry.getKey());
+            json.append(String.format(Locale.US,
+                ":{\"count\":%d,\"throughput\":%.3f,\"p50\":%d,\"p95\":%d,\"p99\":%d,\"max\":%d,"
+                    + "\"errorRate\":%.4f,\"slaMet\":%b}",
+                snapshot.getCount(), snapshot.getThroughput(), snapshot.getPercentile(50),
+                snapshot.getPercentile(95), snapshot.getPercentile(99), snapshot.getMax(),
+                snapshot.getErrorRate(), isSlaMet(snapshot)));
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Печатает метрики окна в консоль.
+     */
+    public void print() {
+        System.out.println(String.format("Последние %d с:", metrics.getWindowSeconds()));
+        System.out.println(String.format("%-24s %9s %9s %7s %7s %7s %8s",
+            "label", "samples", "req/s", "p50", "p95", "p99", "errors"));
+        for (Map.Entry<String, RollingWindow.Snapshot> entry : metrics.snapshot().entrySet()) {
+            RollingWindow.Snapshot snapshot = entry.getValue();
+            System.out.println(String.format("%-24s %9d %9.2f %7d %7d %7d %7.2f%%%s",
+                entry.getKey(), snapshot.getCount(), snapshot.getThroughput(), snapshot.getPercentile(50),
+                snapshot.getPercentile(95), snapshot.getPercentile(99), snapshot.getErrorRate() * 100,
+                isSlaMet(snapshot) ? "" : "  p99 > SLA " + slaMillis + " мс"));
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private boolean isSlaMet(RollingWindow.Snapshot snapshot) {
+        return snapshot.getPercentile(99) <= slaMillis;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body = toJson().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Запускает фоновое чтение растущего файла результатов в metrics.
+     * Поток завершается после закрытия возвращенного потока байтов.
+     */
+    public static TailInputStream tail(Path file, LiveMetrics metrics) throws IOException {
+        TailInputStream in = new TailInputStream(file);
+        Thread reader = new Thread(() -> {
+            try (JMeterCsvReader csv = new JMeterCsvReader(in)) {
+                while (csv.next()) {
+                    metrics.record(csv.getLabel(), csv.getTimeStamp(), csv.getElapsed(), csv.isSuccess());
+                }
+            } catch (IOException e) {
+                System.out.println("Чтение " + file + ": " + e.getMessage());
+            }
+        }, "tail " + file.getFileName());
+        reader.setDaemon(true);
+        reader.start();
+        return in;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int window = LiveMetrics.DEFAULT_WINDOW_SECONDS;
+        int port = DEFAULT_PORT;
+        long interval = 5;
+        long sla = ResultsAnalyzer.DEFAULT_SLA_MILLIS;
+        Path file = null;
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 < args.length && args[i].startsWith("--")) {
+                String value = args[++i];
+                switch (args[i - 1]) {
+                    case "--window":
+                        window = Integer.parseInt(value);
+                        break;
+                    case "--port":
+                        port = Integer.parseInt(value);
+                        break;
+                    case "--interval":
+                        interval = Long.parseLong(value);
+                        break;
+                    case "--sla":
+                        sla = Long.parseLong(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + args[i - 1]);
+                }
+            } else {
+                file = Paths.get(args[i]);
+            }
+        }
+        if (file == null) {
+            System.out.println("Использование: LiveMonitor [--window 30] [--port 8089] [--interval 5] "
+                + "[--sla 890] файл.csv");
+            System.exit(2);
+        }
+
+        while (!Files.exists(file)) {
+            System.out.println("Ожидание " + file + "...");
+            Thread.sleep(interval * 1000);
+        }
+        LiveMetrics metrics = new LiveMetrics(window);
+        TailInputStream in = tail(file, metrics);
+        try (LiveMonitor monitor = new LiveMonitor(metrics, port, sla)) {
+            System.out.println("Метрики: http://localhost:" + monitor.getPort() + "/metrics");
+            while (true) {
+                Thread.sleep(interval * 1000);
+                monitor.print();
+            }
+        } finally {
+            in.close();
+        }
+    }
+}
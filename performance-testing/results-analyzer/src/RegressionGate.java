@@ -0,0 +1,228 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Проверка на регрессию производительности: сравнение нового прогона с базовым.
+ *
+ * Перцентиль считается ухудшившимся, если весь 95% бутстреп-интервал его относительного
+ * изменения выше порога и критерий Манна-Уитни отвергает равенство распределений на уровне
+ * alpha. Второе условие отсекает ложные срабатывания по хвосту на малых выборках, где
+ * бутстреп крайних перцентилей ненадежен. Пропускная способность ухудшилась, если весь
+ * ее интервал ниже минус порога. Пороги заданы в процентах и должны быть больше
+ * точности гистограммы (~1.6%). Доля ошибок ухудшилась, если интервал разности долей
+ * целиком выше порога (в процентных пунктах) и z-критерий двух долей отвергает их
+ * равенство на уровне alpha. Метка базового прогона, которой нет в новом, - тоже регрессия.
+ *
+ * Использование: RegressionGate [--p50 10] [--p95 10] [--p99 20] [--throughput 10]
+ * [--errors 1] [--alpha 0.05] [--resamples 1000] [--seed 1] базовый новый
+ * Базовый и новый - файл результатов или каталог с файлами .csv, которые объединяются.
+ * Код возврата 1 при регрессии.
+ */
+public class RegressionGate {
+    private final double[] percentileThresholds;
+    private final double throughputThreshold;
+    private final double errorThreshold;
+    private final double alpha;
+
+    /**
+     * @param percentileThresholds допустимый рост p50, p95, p99 (0.1 - 10%)
+     * @param throughputThreshold допустимое падение пропускной способности (0.1 - 10%)
+     * @param errorThreshold допустимый рост доли ошибок (0.01 - на 1 процентный пункт)
+     */
+    public RegressionGate(double[] percentileThresholds, double throughputThreshold, double errorThreshold,
+            double alpha) {
+        this.percentileThresholds = percentileThresholds;
+        this.throughputThreshold = throughputThreshold;
+        this.errorThreshold = errorThreshold;
+        this.alpha = alpha;
+    }
+
+    /**
+     * Ухудшилась ли метрика delta метки comparison.
+     */
+    public boolean isRegression(ResultComparison.LabelComparison comparison, ResultComparison.Delta delta) {
+        if (ResultComparison.ERRORS.equals(delta.getMetric())) {
+            return delta.getInterval().getLower() > errorThreshold && comparison.getErrorPValue() < alpha;
+        }
+        if (ResultComparison.THROUGHPUT.equals(delta.getMetric())) {
+            return delta.getInterval().getUpper() < -throughputThreshold;
+        }
+        int index = comparison.getDeltas().indexOf(delta);
+        return delta.getChange() > 0
+            && delta.getInterval().getLower() > percentileThresholds[index]
+            && comparison.getPValue() < alpha;
+    }
+
+    public boolean hasRegression(ResultComparison.LabelComparison comparison) {
+        return comparison.isMissing()
+            || comparison.getDeltas().stream().anyMatch(delta -> isRegression(comparison, delta));
+    }
+
+    /**
+     * Сравнивает все метки базового набора и итог по всем запросам. Метка, которой
+     * нет в новом наборе, попадает в результат как отсутствующая (isMissing).
+     */
+    public static List<ResultComparison.LabelComparison> compareAll(ResultAnalysis baseline,
+            ResultAnalysis candidate, ResultComparison comparison) {
+        List<ResultComparison.LabelComparison> results = new ArrayList<>();
+        for (LabelStats stats : baseline.getLabels()) {
+            LabelStats other = candidate.getLabel(stats.getLabel());
+            if (other == null) {
+                results.add(ResultComparison.missing(stats));
+            } else {
+                results.add(comparison.compare(stats, other));
+            }
+        }
+        for (LabelStats stats : candidate.getLabels()) {
+            if (baseline.getLabel(stats.getLabel()) == null) {
+                System.out.println("Метки " + stats.getLabel() + " нет в базовом прогоне");
+            }
+        }
+        results.add(comparison.compare(baseline.getTotal(), candidate.getTotal()));
+        return results;
+    }
+
+    public void print(List<ResultComparison.LabelComparison> comparisons) {
+        System.out.println(String.format("%-24s %-6s %10s %10s %9s %20s %9s %s",
+            "label", "metric", "baseline", "candidate", "change", "95% CI", "p-value", ""));
+        for (ResultComparison.LabelComparison comparison : comparisons) {
+            if (comparison.isMissing()) {
+                System.out.println(String.format("%-24s нет в новом прогоне (%d запросов в базовом) РЕГРЕССИЯ",
+                    comparison.getLabel(), comparison.getBaselineCount()));
+            }
+            for (ResultComparison.Delta delta : comparison.getDeltas()) {
+                // Доля ошибок выводится в процентах, ее изменение - в процентных пунктах
+                boolean errors = ResultComparison.ERRORS.equals(delta.getMetric());
+                double scale = errors ? 100 : 1;
+                System.out.println(String.format(Locale.US, "%-24s %-6s %10.1f %10.1f %+8.1f%% %20s %9.2g %s",
+                    comparison.getLabel(), delta.getMetric(), delta.getBaseline() * scale,
+                    delta.getCandidate() * scale, delta.getChange() * 100,
+                    String.format(Locale.US, "[%+.1f%%, %+.1f%%]", delta.getInterval().getLower() * 100,
+                        delta.getInterval().getUpper() * 100),
+                    errors ? comparison.getErrorPValue() : comparison.getPValue(),
+                    isRegression(comparison, delta) ? "РЕГРЕССИЯ" : ""));
+            }
+        }
+    }
+
+    /**
+     * Читает файл или все .csv каталога в один набор результатов.
+     */
+    static ResultAnalysis read(Path path) throws IOException {
+        List<Path> files;
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> list = Files.list(path)) {
+                files = list.filter(file -> file.getFileName().toString().endsWith(".csv"))
+                    .sorted()
+                    .collect(Collectors.toList());
+            }
+        } else {
+            files = List.of(path);
+        }
+        ResultAnalysis analysis = new ResultAnalysis(ResultsAnalyzer.DEFAULT_SLA_MILLIS);
+        for (Path file : files) {
+            analysis.merge(ResultAnalysis.analyze(file, ResultsAnalyzer.DEFAULT_SLA_MILLIS));
+        }
+        return analysis;
+    }
+
+    public static void main(String[] args) throws IOException {
+        double[] thresholds = {10, 10, 20};
+        double throughput = 10;
+        double errors = 1;
+        double alpha = 0.05;
+        int resamples = ResultComparison.DEFAULT_RESAMPLES;
+        long seed = 1;
+        List<Path> paths = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 < args.length && args[i].startsWith("--")) {
+                String value = args[++i];
+                switch (args[i - 1]) {
+                    case "--p50":
+                        thresholds[0] = Double.parseDouble(value);
+                        break;
+                    case "--p95":
+                        thresholds[1] = Double.parseDouble(value);
+                        break;
+                    case "--p99":
+                        thresholds[2] = Double.parseDouble(value);
+                        break;
+                    case "--throughput":
+                        throughput = Double.parseDouble(value);
+                        break;
+                    case "--errors":
+                        errors = Double.parseDouble(value);
+                        break;
+                    case "--alpha":
+                        alpha = Double.parseDouble(value);
+                        break;
+                    case "--resamples":
+                        resamples = Integer.parseInt(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + args[i - 1]);
+                }
+            } else {
+                paths.add(Paths.get(args[i]));
+            }
+        }
+        if (paths.size() != 2) {
+            System.out.println("Использование: RegressionGate [--p50 10] [--p95 10] [--p99 20] [--throughput 10] "
+                + "[--errors 1] [--alpha 0.05] [--resamples 1000] [--seed 1] базовый новый");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        // Наборы читаются параллельно: на ночных прогонах это несколько гигабайт каждый
+        CompletableFuture<ResultAnalysis> baseline = CompletableFuture.supplyAsync(() -> {
+            try {
+                return read(paths.get(0));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        ResultAnalysis candidate = read(paths.get(1));
+        ResultAnalysis base;
+        try {
+            base = baseline.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+        System.out.println(String.format("Прочитано за %.1f с: %d и %d запросов", (System.nanoTime() - start) / 1e9,
+            base.getTotal().getCount(), candidate.getTotal().getCount()));
+
+        RegressionGate gate = new RegressionGate(
+            new double[] {thresholds[0] / 100, thresholds[1] / 100, thresholds[2] / 100}, throughput / 100,
+            errors / 100, alpha);
+        List<ResultComparison.LabelComparison> comparisons =
+            compareAll(base, candidate, new ResultComparison(resamples, seed));
+        gate.print(comparisons);
+
+        List<String> regressed = comparisons.stream()
+            .filter(gate::hasRegression)
+            .map(ResultComparison.LabelComparison::getLabel)
+            .collect(Collectors.toList());
+        if (regressed.isEmpty()) {
+            System.out.println("Регрессий нет");
+        } else {
+            System.out.println("Регрессия: " + String.join(", ", regressed));
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Однопроходный анализ результатов JMeter: сводки по меткам и по всему файлу.
+ * Память не зависит от размера файла - хранятся только гистограммы и счетчики.
+ * Результаты нескольких файлов объединяются через merge.
+ */
+public class ResultAnalysis {
+    public static final String TOTAL = "TOTAL";
+
+    private final long slaMillis;
+    private final Map<String, LabelStats> labels = new LinkedHashMap<>();
+    private final LabelStats total = new LabelStats(TOTAL);
+    private int maxThreads;
+
+    public ResultAnalysis(long slaMillis) {
+        this.slaMillis = slaMillis;
+    }
+
+    public static ResultAnalysis analyze(Path file, long slaMillis) throws IOException {
+        ResultAnalysis analysis = new ResultAnalysis(slaMillis);
+        try (JMeterCsvReader reader = JMeterCsvReader.open(file)) {
+            analysis.addAll(reader);
+        }
+        return analysis;
+    }
+
+    /**
+     * Дочитывает reader до конца и учитывает все строки.
+     */
+    public void addAll(JMeterCsvReader reader) throws IOException {
+        // Статистика по номеру метки: в цикле нет поиска по строкам
+        List<LabelStats> byId = new ArrayList<>();
+        while (reader.next()) {
+            int id = reader.getLabelId();
+            while (byId.size() <= id) {
+                String label = reader.getLabels().get(byId.size());
+                byId.add(labels.computeIfAbsent(label, LabelStats::new));
+            }
+            long timeStamp = reader.getTimeStamp();
+            long elapsed = reader.getElapsed();
+            boolean success = reader.isSuccess();
+            byId.get(id).add(timeStamp, elapsed, success, slaMillis);
+            total.add(timeStamp, elapsed, success, slaMillis);
+            maxThreads = Math.max(maxThreads, reader.getAllThreads());
+        }
+    }
+
+    public void add(String label, long timeStamp, long elapsed, boolean success) {
+        labels.computeIfAbsent(label, LabelStats::new).add(timeStamp, elapsed, success, slaMillis);
+        total.add(timeStamp, elapsed, success, slaMillis);
+    }
+
+    public void merge(ResultAnalysis other) {
+        for (LabelStats stats : other.labels.values()) {
+            labels.computeIfAbsent(stats.getLabel(), LabelStats::new).merge(stats);
+        }
+        total.merge(other.total);
+        maxThreads = Math.max(maxThreads, other.maxThreads);
+    }
+
+    public long getSlaMillis() {
+        return slaMillis;
+    }
+
+    public Collection<LabelStats> getLabels() {
+        return labels.values();
+    }
+
+    public LabelStats getLabel(String label) {
+        return labels.get(label);
+    }
+
+    /**
+     * Сводка по метке; создается пустой, если метки еще не было.
+     * Общая сводка (getTotal) при этом не обновляется.
+     */
+    public LabelStats getOrCreateLabel(String label) {
+        return labels.computeIfAbsent(label, LabelStats::new);
+    }
+
+    /**
+     * Максимальное число активных потоков JMeter (allThreads) за прогон.
+     */
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public LabelStats getTotal() {
+        return total;
+    }
+}
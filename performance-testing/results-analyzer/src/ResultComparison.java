@@ -0,0 +1,364 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Сравнение двух наборов результатов по метке: изменение p50/p95/p99, пропускной
+ * способности и доли ошибок с доверительными интервалами, критерий Манна-Уитни
+ * для времени отклика и z-критерий двух долей для ошибок.
+ *
+ * Все оценки строятся по гистограммам LatencyHistogram, поэтому исходные файлы читаются
+ * потоком и память не зависит от их размера. Бутстреп по гистограмме - мультиномиальная
+ * выборка того же объема по корзинам, что равносильно выборке с возвращением из исходных
+ * значений с точностью до ширины корзины (~1.6%). Критерий Манна-Уитни считается по тем же
+ * корзинам с поправкой на связанные ранги.
+ */
+public class ResultComparison {
+    public static final double[] PERCENTILES = {50, 95, 99};
+    public static final int DEFAULT_RESAMPLES = 1000;
+    public static final String THROUGHPUT = "req/s";
+    public static final String ERRORS = "errors";
+
+    private final int resamples;
+    private final Random random;
+
+    public ResultComparison(int resamples, long seed) {
+        this.resamples = resamples;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Сравнивает метку в базовом и новом наборе результатов.
+     */
+    public LabelComparison compare(LabelStats baseline, LabelStats candidate) {
+        LatencyHistogram base = baseline.getElapsed();
+        LatencyHistogram next = candidate.getElapsed();
+
+        List<Delta> deltas = new ArrayList<>();
+        double[][] replicates = bootstrap(base, next);
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            double before = percentile(base, PERCENTILES[i]);
+            double after = percentile(next, PERCENTILES[i]);
+            double[] relative = replicates[i];
+            Arrays.sort(relative);
+            deltas.add(new Delta("p" + (long) PERCENTILES[i], before, after,
+                new ConfidenceInterval(quantile(relative, 0.025), quantile(relative, 0.975))));
+        }
+
+        // Число запросов за прогон - пуассоновское, дисперсия отношения - по дельта-методу
+        double before = baseline.getThroughput();
+        double after = candidate.getThroughput();
+        double ratio = before == 0 ? 0 : after / before;
+        double error = ConfidenceInterval.Z_95 * ratio
+            * Math.sqrt(1.0 / Math.max(1, baseline.getCount()) + 1.0 / Math.max(1, candidate.getCount()));
+        deltas.add(new Delta(THROUGHPUT, before, after, new ConfidenceInterval(ratio - error - 1, ratio + error - 1)));
+
+        // Доли меньше единицы, поэтому относительное изменение Delta для них - разность долей
+        double baseErrors = baseline.getErrorRate();
+        double nextErrors = candidate.getErrorRate();
+        double spread = ConfidenceInterval.Z_95 * Math.sqrt(
+            baseErrors * (1 - baseErrors) / Math.max(1, baseline.getCount())
+            + nextErrors * (1 - nextErrors) / Math.max(1, candidate.getCount()));
+        deltas.add(new Delta(ERRORS, baseErrors, nextErrors,
+            new ConfidenceInterval(nextErrors - baseErrors - spread, nextErrors - baseErrors + spread)));
+
+        return new LabelComparison(baseline.getLabel(), base.getCount(), next.getCount(), deltas,
+            mannWhitney(base, next), twoProportions(baseline.getErrors(), baseline.getCount(),
+                candidate.getErrors(), candidate.getCount()));
+    }
+
+    /**
+     * Метка базового прогона, которой нет в новом: без метрик, всегда регрессия.
+     */
+    public static LabelComparison missing(LabelStats baseline) {
+        return new LabelComparison(baseline.getLabel(), baseline.getCount(), 0, List.of(), 1, 1);
+    }
+
+    /**
+     * Бутстреп-реплики относительного изменения перцентилей: [перцентиль][реплика].
+     */
+    private double[][] bootstrap(LatencyHistogram base, LatencyHistogram next) {
+        double[][] relative = new double[PERCENTILES.length][resamples];
+        long[] baseCounts = new long[LatencyHistogram.bucketCount()];
+        long[] nextCounts = new long[LatencyHistogram.bucketCount()];
+        double[] baseValues = new double[PERCENTILES.length];
+        double[] nextValues = new double[PERCENTILES.length];
+        for (int r = 0; r < resamples; r++) {
+            resample(base, baseCounts);
+            resample(next, nextCounts);
+            percentiles(baseCounts, base.getCount(), baseValues);
+            percentiles(nextCounts, next.getCount(), nextValues);
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                relative[i][r] = change(baseValues[i], nextValues[i]);
+            }
+        }
+        return relative;
+    }
+
+    /**
+     * Мультиномиальная выборка объема n по корзинам гистограммы - последовательными биномиальными.
+     */
+    private void resample(LatencyHistogram histogram, long[] counts) {
+        long remaining = histogram.getCount();
+        long remainingSource = histogram.getCount();
+        for (int i = 0; i < counts.length; i++) {
+            long source = histogram.countAt(i);
+            if (source == 0 || remaining == 0) {
+                counts[i] = 0;
+                continue;
+            }
+            long drawn = source == remainingSource ? remaining : binomial(remaining, (double) source / remainingSource);
+            counts[i] = drawn;
+            remaining -= drawn;
+            remainingSource -= source;
+        }
+    }
+
+    private long binomial(long n, double p) {
+        if (p > 0.5) {
+            return n - binomial(n, 1 - p);
+        }
+        if (n < 64) {
+            long successes = 0;
+            for (long i = 0; i < n; i++) {
+                if (random.nextDouble() < p) {
+                    successes++;
+                }
+            }
+            return successes;
+        }
+        double mean = n * p;
+        if (mean < 16) {
+            // Обращение функции распределения: вероятности считаются рекуррентно
+            double q = 1 - p;
+            double probability = Math.exp(n * Math.log(q));
+            double cumulative = probability;
+            double u = random.nextDouble();
+            long k = 0;
+            while (u > cumulative && k < n) {
+                probability *= (double) (n - k) / (k + 1) * p / q;
+                cumulative += probability;
+                k++;
+            }
+            return k;
+        }
+        long k = Math.round(mean + Math.sqrt(mean * (1 - p)) * random.nextGaussian());
+        return Math.max(0, Math.min(n, k));
+    }
+
+    private static void percentiles(long[] counts, long total, double[] values) {
+        int next = 0;
+        long seen = 0;
+        for (int i = 0; i < counts.length && next < PERCENTILES.length; i++) {
+            seen += counts[i];
+            while (next < PERCENTILES.length && seen >= rank(total, PERCENTILES[next])) {
+                values[next++] = LatencyHistogram.bucketValue(i);
+            }
+        }
+    }
+
+    /**
+     * Перцентиль по корзинам - так же, как в бутстреп-репликах, чтобы точечная оценка
+     * и интервал считались одинаково.
+     */
+    private static double percentile(LatencyHistogram histogram, double percentile) {
+        long target = rank(histogram.getCount(), percentile);
+        long seen = 0;
+        for (int i = 0; i < LatencyHistogram.bucketCount(); i++) {
+            seen += histogram.countAt(i);
+            if (seen >= target) {
+                return LatencyHistogram.bucketValue(i);
+            }
+        }
+        return 0;
+    }
+
+    private static long rank(long total, double percentile) {
+        return Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    }
+
+    private static double quantile(double[] sorted, double q) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.max(0, Math.floor(q * sorted.length)))];
+    }
+
+    /**
+     * Относительное изменение; для значений меньше миллисекунды база - 1 мс.
+     */
+    static double change(double before, double after) {
+        return (after - before) / Math.max(1, before);
+    }
+
+    /**
+     * Двусторонний p-value критерия Манна-Уитни (нормальное приближение с поправкой
+     * на связанные ранги). Значения одной корзины считаются равными.
+     */
+    static double mannWhitney(LatencyHistogram base, LatencyHistogram next) {
+        double n1 = base.getCount();
+        double n2 = next.getCount();
+        double n = n1 + n2;
+        if (n1 == 0 || n2 == 0) {
+            return 1;
+        }
+        double u = 0;
+        double ties = 0;
+        double baseBelow = 0;
+        for (int i = 0; i < LatencyHistogram.bucketCount(); i++) {
+            double a = base.countAt(i);
+            double b = next.countAt(i);
+            // Пары (новое значение, базовое значение), где новое больше; равные - наполовину
+            u += b * (baseBelow + a / 2);
+            baseBelow += a;
+            double t = a + b;
+            ties += t * t * t - t;
+        }
+        double variance = n1 * n2 / 12 * ((n + 1) - ties / (n * (n - 1)));
+        if (variance <= 0) {
+            return 1;
+        }
+        double z = (u - n1 * n2 / 2) / Math.sqrt(variance);
+        return Math.min(1, 2 * (1 - normalCdf(Math.abs(z))));
+    }
+
+    /**
+     * Двусторонний p-value z-критерия равенства двух долей (с объединенной долей).
+     */
+    static double twoProportions(long successes1, long n1, long successes2, long n2) {
+        if (n1 == 0 || n2 == 0) {
+            return 1;
+        }
+        double pooled = (double) (successes1 + successes2) / (n1 + n2);
+        double variance = pooled * (1 - pooled) * (1.0 / n1 + 1.0 / n2);
+        if (variance <= 0) {
+            return 1;
+        }
+        double z = ((double) successes2 / n2 - (double) successes1 / n1) / Math.sqrt(variance);
+        return Math.min(1, 2 * (1 - normalCdf(Math.abs(z))));
+    }
+
+    /**
+     * Функция нормального распределения через erf (Abramowitz-Stegun 7.1.26, погрешность 1.5e-7).
+     */
+    static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741
+            + t * (-1.453152027 + t * 1.061405429)))) * Math.exp(-x * x);
+        return z >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+    }
+
+    /**
+     * Изменение одной метрики: значения до и после и интервал относительного изменения.
+     */
+    public static class Delta {
+        private final String metric;
+        private final double baseline;
+        private final double candidate;
+        private final ConfidenceInterval interval;
+
+        Delta(String metric, double baseline, double candidate, ConfidenceInterval interval) {
+            this.metric = metric;
+            this.baseline = baseline;
+            this.candidate = candidate;
+            this.interval = interval;
+        }
+
+        public String getMetric() {
+            return metric;
+        }
+
+        public double getBaseline() {
+            return baseline;
+        }
+
+        public double getCandidate() {
+            return candidate;
+        }
+
+        /**
+         * Относительное изменение: 0.1 - рост на 10%.
+         */
+        public double getChange() {
+            return change(baseline, candidate);
+        }
+
+        /**
+         * 95% интервал относительного изменения.
+         */
+        public ConfidenceInterval getInterval() {
+            return interval;
+        }
+    }
+
+    /**
+     * Результат сравнения одной метки.
+     */
+    public static class LabelComparison {
+        private final String label;
+        private final long baselineCount;
+        private final long candidateCount;
+        private final List<Delta> deltas;
+        private final double pValue;
+        private final double errorPValue;
+
+        LabelComparison(String label, long baselineCount, long candidateCount, List<Delta> deltas, double pValue,
+                double errorPValue) {
+            this.label = label;
+            this.baselineCount = baselineCount;
+            this.candidateCount = candidateCount;
+            this.deltas = deltas;
+            this.pValue = pValue;
+            this.errorPValue = errorPValue;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public long getBaselineCount() {
+            return baselineCount;
+        }
+
+        public long getCandidateCount() {
+            return candidateCount;
+        }
+
+        /**
+         * Изменения p50, p95, p99, пропускной способности (req/s) и доли ошибок (errors)
+         * в этом порядке; пустой список, если метки нет в новом прогоне.
+         */
+        public List<Delta> getDeltas() {
+            return deltas;
+        }
+
+        public Delta getDelta(String metric) {
+            for (Delta delta : deltas) {
+                if (delta.getMetric().equals(metric)) {
+                    return delta;
+                }
+            }
+            throw new IllegalArgumentException("Нет метрики " + metric);
+        }
+
+        /**
+         * p-value критерия Манна-Уитни: различаются ли распределения времени отклика.
+         */
+        public double getPValue() {
+            return pValue;
+        }
+
+        /**
+         * p-value z-критерия двух долей: различается ли доля ошибок.
+         */
+        public double getErrorPValue() {
+            return errorPValue;
+        }
+
+        /**
+         * Метки нет в новом прогоне, хотя в базовом она была.
+         */
+        public boolean isMissing() {
+            return deltas.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Консольный анализ файлов результатов JMeter.
+ * Печатает по каждой метке число запросов, пропускную способность, перцентили
+ * времени отклика, долю ошибок и проверку SLA по максимальному времени отклика.
+ *
+ * Использование: ResultsAnalyzer [--sla мс] файл.csv...
+ * Код возврата 1, если SLA нарушен.
+ */
+public class ResultsAnalyzer {
+    public static final long DEFAULT_SLA_MILLIS = 890;
+
+    public static void main(String[] args) throws IOException {
+        long sla = DEFAULT_SLA_MILLIS;
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--sla".equals(args[i]) && i + 1 < args.length) {
+                sla = Long.parseLong(args[++i]);
+            } else {
+                files.add(Paths.get(args[i]));
+            }
+        }
+        if (files.isEmpty()) {
+            System.out.println("Использование: ResultsAnalyzer [--sla мс] файл.csv...");
+            System.exit(2);
+        }
+
+        ResultAnalysis analysis = new ResultAnalysis(sla);
+        for (Path file : files) {
+            long start = System.nanoTime();
+            analysis.merge(ResultAnalysis.analyze(file, sla));
+            System.out.println(String.format("%s: %.1f мс", file, (System.nanoTime() - start) / 1e6));
+        }
+
+        print(analysis);
+        if (!analysis.getTotal().isSlaMet()) {
+            System.exit(1);
+        }
+    }
+
+    public static void print(ResultAnalysis analysis) {
+        System.out.println(String.format("%-24s %9s %9s %8s %7s %7s %7s %7s %7s %8s %9s",
+            "label", "samples", "req/s", "mean", "p50", "p90", "p95", "p99", "max", "errors", "> SLA"));
+        for (LabelStats stats : analysis.getLabels()) {
+            printRow(stats);
+        }
+        printRow(analysis.getTotal());
+
+        LabelStats total = analysis.getTotal();
+        System.out.println(String.format("SLA %d мс: %s (%d из %d запросов дольше)",
+            analysis.getSlaMillis(), total.isSlaMet() ? "выполнен" : "НАРУШЕН",
+            total.getSlaViolations(), total.getCount()));
+    }
+
+    private static void printRow(LabelStats stats) {
+        LatencyHistogram elapsed = stats.getElapsed();
+        System.out.println(String.format("%-24s %9d %9.2f %8.1f %7d %7d %7d %7d %7d %7.2f%% %9d",
+            stats.getLabel(), stats.getCount(), stats.getThroughput(), elapsed.getMean(),
+            elapsed.getValueAtPercentile(50), elapsed.getValueAtPercentile(90),
+            elapsed.getValueAtPercentile(95), elapsed.getValueAtPercentile(99), elapsed.getMax(),
+            stats.getErrorRate() * 100, stats.getSlaViolations()));
+    }
+}
@@ -0,0 +1,131 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Скользящее окно метрик за последние N секунд без блокировок.
+ * Окно - кольцо посекундных ячеек со счетчиками и гистограммой времени отклика
+ * (корзины как у LatencyHistogram). Запись - несколько атомарных инкрементов,
+ * поэтому окно можно обновлять из многих потоков. Ячейка переиспользуется,
+ * когда ее секунда выходит из окна; записи, попавшие в момент очистки, могут потеряться.
+ * Запрос, опоздавший настолько, что его ячейка уже отдана более поздней секунде,
+ * отбрасывается, а не засчитывается в чужую секунду.
+ */
+public class RollingWindow {
+    private final int seconds;
+    private final Slot[] slots;
+
+    public RollingWindow(int seconds) {
+        this.seconds = seconds;
+        this.slots = new Slot[seconds + 1];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    /**
+     * Учитывает запрос, завершившийся в момент endMillis.
+     */
+    public void record(long endMillis, long elapsedMillis, boolean success) {
+        long second = Math.floorDiv(endMillis, 1000);
+        Slot slot = slots[(int) Math.floorMod(second, (long) slots.length)];
+        slot.rotate(second);
+        if (slot.second.get() != second) {
+            return;
+        }
+        slot.count.increment();
+        if (!success) {
+            slot.errors.increment();
+        }
+        slot.buckets.incrementAndGet(LatencyHistogram.bucketOf(elapsedMillis));
+        slot.max.accumulateAndGet(elapsedMillis, Math::max);
+    }
+
+    /**
+     * Снимок за полные секунды окна, предшествующие секунде nowMillis.
+     */
+    public Snapshot snapshot(long nowMillis) {
+        long current = Math.floorDiv(nowMillis, 1000);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long count = 0;
+        long errors = 0;
+        long max = 0;
+        for (Slot slot : slots) {
+            long second = slot.second.get();
+            if (second >= current || second < current - seconds) {
+                continue;
+            }
+            count += slot.count.sum();
+            errors += slot.errors.sum();
+            max = Math.max(max, slot.max.get());
+            for (int i = 0; i < slot.buckets.length(); i++) {
+                long n = slot.buckets.get(i);
+                if (n != 0) {
+                    histogram.record(LatencyHistogram.bucketValue(i), n);
+                }
+            }
+        }
+        return new Snapshot(seconds, count, errors, max, histogram);
+    }
+
+    private static class Slot {
+        private final AtomicLong second = new AtomicLong(Long.MIN_VALUE);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(LatencyHistogram.bucketCount());
+
+        void rotate(long now) {
+            long previous = second.get();
+            if (previous < now && second.compareAndSet(previous, now)) {
+                count.reset();
+                errors.reset();
+                max.set(0);
+                for (int i = 0; i < buckets.length(); i++) {
+                    if (buckets.get(i) != 0) {
+                        buckets.set(i, 0);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Метрики окна на момент снимка.
+     */
+    public static class Snapshot {
+        private final int seconds;
+        private final long count;
+        private final long errors;
+        private final long max;
+        private final LatencyHistogram histogram;
+
+        Snapshot(int seconds, long count, long errors, long max, LatencyHistogram histogram) {
+            this.seconds = seconds;
+            this.count = count;
+            this.errors = errors;
+            this.max = max;
+            this.histogram = histogram;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getThroughput() {
+            return (double) count / seconds;
+        }
+
+        public double getErrorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+
+        public long getPercentile(double percentile) {
+            return histogram.getValueAtPercentile(percentile);
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+}
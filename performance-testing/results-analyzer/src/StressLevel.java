@@ -0,0 +1,49 @@
+import java.nio.file.Path;
+
+/**
+ * Результаты одного уровня нагрузки стресс-теста (одного файла stressN.csv).
+ */
+public class StressLevel {
+    private final int users;
+    private final Path file;
+    private final ResultAnalysis analysis;
+
+    public StressLevel(int users, Path file, ResultAnalysis analysis) {
+        this.users = users;
+        this.file = file;
+        this.analysis = analysis;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public ResultAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    public LabelStats getTotal() {
+        return analysis.getTotal();
+    }
+
+    /**
+     * Значение метрики времени отклика на этом уровне: max, mean или pNN (например p99).
+     */
+    public double metric(String name) {
+        LatencyHistogram elapsed = getTotal().getElapsed();
+        if ("max".equals(name)) {
+            return elapsed.getMax();
+        }
+        if ("mean".equals(name)) {
+            return elapsed.getMean();
+        }
+        if (name.startsWith("p")) {
+            return elapsed.getValueAtPercentile(Double.parseDouble(name.substring(1)));
+        }
+        throw new IllegalArgumentException("Неизвестная метрика: " + name);
+    }
+}
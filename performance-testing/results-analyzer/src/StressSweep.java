@@ -0,0 +1,292 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Анализ серии стресс-тестов: по одному файлу на уровень нагрузки (stress5.csv ... stress150.csv).
+ * Файлы разбираются параллельно в ForkJoinPool, по задаче на файл; гистограммы уровней
+ * объединяются в общую. По кривой "время отклика - число пользователей" находятся
+ * первый уровень, где метрика (по умолчанию max) превышает лимит, и "колено" -
+ * уровень насыщения пропускной способности.
+ *
+ * Использование: StressSweep [--sla мс] [--metric max|mean|pNN] [--out curve.csv] каталог|файлы...
+ */
+public class StressSweep {
+    public static final String DEFAULT_METRIC = "max";
+
+    private static final Pattern USERS_IN_NAME = Pattern.compile("(\\d+)(?!.*\\d)");
+
+    private final List<StressLevel> levels;
+    private final ResultAnalysis merged;
+    private final long limitMillis;
+    private final String metric;
+
+    private StressSweep(List<StressLevel> levels, ResultAnalysis merged, long limitMillis, String metric) {
+        this.levels = levels;
+        this.merged = merged;
+        this.limitMillis = limitMillis;
+        this.metric = metric;
+    }
+
+    /**
+     * Разбирает файлы уровней параллельно в указанном пуле.
+     */
+    public static StressSweep analyze(List<Path> files, long limitMillis, String metric, ForkJoinPool pool) {
+        List<StressLevel> levels = pool.invoke(new SweepTask(files, limitMillis));
+        levels.sort(Comparator.comparingInt(StressLevel::getUsers));
+
+        ResultAnalysis merged = new ResultAnalysis(limitMillis);
+        levels.forEach(level -> merged.merge(level.getAnalysis()));
+        return new StressSweep(levels, merged, limitMillis, metric);
+    }
+
+    public static StressSweep analyze(List<Path> files, long limitMillis, String metric) {
+        return analyze(files, limitMillis, metric, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Файлы результатов в каталоге: все *.csv, в имени которых есть число пользователей.
+     */
+    public static List<Path> findLevelFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> file.getFileName().toString().endsWith(".csv"))
+                .filter(file -> usersOf(file) > 0)
+                .sorted(Comparator.comparingInt(StressSweep::usersOf))
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Число пользователей уровня - последнее число в имени файла (stress125.csv - 125).
+     */
+    public static int usersOf(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".csv")) {
+            name = name.substring(0, name.length() - ".csv".length());
+        }
+        Matcher matcher = USERS_IN_NAME.matcher(name);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    public List<StressLevel> getLevels() {
+        return levels;
+    }
+
+    public ResultAnalysis getMerged() {
+        return merged;
+    }
+
+    /**
+     * Первый уровень, на котором метрика превышает лимит, или null, если лимит не превышен.
+     */
+    public StressLevel getFirstBreach() {
+        for (StressLevel level : levels) {
+            if (level.metric(metric) > limitMillis) {
+                return level;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Последний уровень перед первым превышением лимита, или null, если превышен уже первый.
+     */
+    public StressLevel getLastPassing() {
+        StressLevel passing = null;
+        for (StressLevel level : levels) {
+            if (level.metric(metric) > limitMillis) {
+                break;
+            }
+            passing = level;
+        }
+        return passing;
+    }
+
+    /**
+     * "Колено" кривой - уровень, после которого пропускная способность перестает расти,
+     * а время отклика растет за счет очередей. Ищется методом Kneedle по кривой
+     * "пропускная способность - пользователи": после нормировки осей выбирается уровень,
+     * наиболее удаленный вверх от прямой между крайними точками.
+     * Возвращает null, если уровней меньше трех или кривая не выгнута.
+     */
+    public StressLevel getKnee() {
+        if (levels.size() < 3) {
+            return null;
+        }
+        double minX = levels.get(0).getUsers();
+        double maxX = levels.get(levels.size() - 1).getUsers();
+        double minY = Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (StressLevel level : levels) {
+            double y = level.getTotal().getThroughput();
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        if (maxX == minX || maxY == minY) {
+            return null;
+        }
+
+        StressLevel knee = null;
+        double best = 0;
+        for (StressLevel level : levels) {
+            double x = (level.getUsers() - minX) / (maxX - minX);
+            double y = (level.getTotal().getThroughput() - minY) / (maxY - minY);
+            if (y - x > best) {
+                best = y - x;
+                knee = level;
+            }
+        }
+        return knee;
+    }
+
+    /**
+     * Сохраняет кривую "время отклика - нагрузка" в CSV.
+     */
+    public void writeCurve(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("users,samples,throughput,mean,p50,p90,p95,p99,max,errorRate,slaViolations");
+            for (StressLevel level : levels) {
+                LabelStats total = level.getTotal();
+                LatencyHistogram elapsed = total.getElapsed();
+                out.println(String.format(Locale.ROOT, "%d,%d,%.3f,%.1f,%d,%d,%d,%d,%d,%.4f,%d",
+                    level.getUsers(), total.getCount(), total.getThroughput(), elapsed.getMean(),
+                    elapsed.getValueAtPercentile(50), elapsed.getValueAtPercentile(90),
+                    elapsed.getValueAtPercentile(95), elapsed.getValueAtPercentile(99), elapsed.getMax(),
+                    total.getErrorRate(), total.getSlaViolations()));
+            }
+        }
+    }
+
+    public void print() {
+        System.out.println(String.format("%7s %9s %9s %8s %7s %7s %7s %7s %8s",
+            "users", "samples", "req/s", "mean", "p50", "p95", "p99", "max", "errors"));
+        for (StressLevel level : levels) {
+            LabelStats total = level.getTotal();
+            LatencyHistogram elapsed = total.getElapsed();
+            System.out.println(String.format("%7d %9d %9.2f %8.1f %7d %7d %7d %7d %7.2f%%",
+                level.getUsers(), total.getCount(), total.getThroughput(), elapsed.getMean(),
+                elapsed.getValueAtPercentile(50), elapsed.getValueAtPercentile(95),
+                elapsed.getValueAtPercentile(99), elapsed.getMax(), total.getErrorRate() * 100));
+        }
+
+        LatencyHistogram all = merged.getTotal().getElapsed();
+        System.out.println(String.format("Все уровни: %d запросов, p50 %d, p99 %d, max %d мс",
+            all.getCount(), all.getValueAtPercentile(50), all.getValueAtPercentile(99), all.getMax()));
+
+        StressLevel knee = getKnee();
+        System.out.println(knee == null ? "Колено кривой не найдено" : String.format(
+            "Колено кривой: %d пользователей (%.2f req/s, p99 %.0f мс)",
+            knee.getUsers(), knee.getTotal().getThroughput(), knee.metric("p99")));
+        StressLevel breach = getFirstBreach();
+        StressLevel passing = getLastPassing();
+        if (breach == null) {
+            System.out.println(String.format("%s не превышает %d мс ни на одном уровне", metric, limitMillis));
+        } else {
+            System.out.println(String.format("%s превышает %d мс начиная с %d пользователей (%.0f мс)%s",
+                metric, limitMillis, breach.getUsers(), breach.metric(metric),
+                passing == null ? "" : ", последний допустимый уровень - " + passing.getUsers()));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        long limit = ResultsAnalyzer.DEFAULT_SLA_MILLIS;
+        String metric = DEFAULT_METRIC;
+        Path out = null;
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--sla".equals(args[i]) && i + 1 < args.length) {
+                limit = Long.parseLong(args[++i]);
+            } else if ("--metric".equals(args[i]) && i + 1 < args.length) {
+                metric = args[++i];
+            } else if ("--out".equals(args[i]) && i + 1 < args.length) {
+                out = Paths.get(args[++i]);
+            } else {
+                Path path = Paths.get(args[i]);
+                files.addAll(Files.isDirectory(path) ? findLevelFiles(path) : List.of(path));
+            }
+        }
+        if (files.isEmpty()) {
+            System.out.println("Использование: StressSweep [--sla мс] [--metric max|mean|pNN] [--out curve.csv] "
+                + "каталог|файлы...");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        StressSweep sweep = analyze(files, limit, metric);
+        System.out.println(String.format("Разобрано файлов: %d за %.1f мс (потоков: %d)", files.size(),
+            (System.nanoTime() - start) / 1e6, ForkJoinPool.commonPool().getParallelism()));
+        sweep.print();
+        if (out != null) {
+            sweep.writeCurve(out);
+            System.out.println("Кривая сохранена: " + out);
+        }
+    }
+
+    /**
+     * Задача на всю серию: порождает по подзадаче на файл и собирает уровни.
+     */
+    private static class SweepTask extends RecursiveTask<List<StressLevel>> {
+        private final List<Path> files;
+        private final long limitMillis;
+
+        SweepTask(List<Path> files, long limitMillis) {
+            this.files = files;
+            this.limitMillis = limitMillis;
+        }
+
+        @Override
+        protected List<StressLevel> compute() {
+            List<LevelTask> tasks = new ArrayList<>();
+            for (Path file : files) {
+                tasks.add(new LevelTask(file, limitMillis));
+            }
+            invokeAll(tasks);
+
+            List<StressLevel> levels = new ArrayList<>();
+            for (LevelTask task : tasks) {
+                levels.add(task.join());
+            }
+            return levels;
+        }
+    }
+
+    private static class LevelTask extends RecursiveTask<StressLevel> {
+        private final Path file;
+        private final long limitMillis;
+
+        LevelTask(Path file, long limitMillis) {
+            this.file = file;
+            this.limitMillis = limitMillis;
+        }
+
+        @Override
+        protected StressLevel compute() {
+            try {
+                ResultAnalysis analysis = ResultAnalysis.analyze(file, limitMillis);
+                int users = usersOf(file);
+                if (users <= 0) {
+                    // В имени нет числа пользователей - берем максимум активных потоков
+                    users = analysis.getMaxThreads();
+                }
+                return new StressLevel(users, file, analysis);
+            } catch (IOException e) {
+                throw new UncheckedIOException(file.toString(), e);
+            }
+        }
+    }
+}
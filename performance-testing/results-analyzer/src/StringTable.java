@@ -0,0 +1,89 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Словарь строк, который ищет значение прямо по байтам буфера.
+ * Повторяющиеся значения (метки, потоки, URL) декодируются в String только один раз,
+ * а каждой строке присваивается номер в порядке появления.
+ */
+public class StringTable {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private byte[][] keys = new byte[INITIAL_CAPACITY][];
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private String[] values = new String[16];
+    private int size;
+
+    /**
+     * Номер строки, записанной в bytes[start, end), с добавлением новой строки в словарь.
+     */
+    public int idOf(byte[] bytes, int start, int end) {
+        int mask = keys.length - 1;
+        int slot = hash(bytes, start, end) & mask;
+        while (keys[slot] != null) {
+            if (Arrays.equals(keys[slot], 0, keys[slot].length, bytes, start, end)) {
+                return ids[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        byte[] key = Arrays.copyOfRange(bytes, start, end);
+        keys[slot] = key;
+        ids[slot] = size;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = new String(key, StandardCharsets.UTF_8);
+        size++;
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    /**
+     * Номер строки value, с добавлением новой строки в словарь.
+     */
+    public int idOf(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return idOf(bytes, 0, bytes.length);
+    }
+
+    public String intern(byte[] bytes, int start, int end) {
+        return values[idOf(bytes, start, end)];
+    }
+
+    public String get(int id) {
+        return values[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash() {
+        byte[][] oldKeys = keys;
+        int[] oldIds = ids;
+        keys = new byte[oldKeys.length * 2][];
+        ids = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = hash(oldKeys[i], 0, oldKeys[i].length) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                ids[slot] = oldIds[i];
+            }
+        }
+    }
+
+    private static int hash(byte[] bytes, int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,69 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Поток байтов растущего файла, как tail -f: в конце файла чтение не завершается,
+ * а ждет дописанных данных. Конец потока наступает только после close.
+ * Поверх него JMeterCsvReader читает результаты JMeter прямо во время прогона:
+ * недописанная строка просто дочитывается, когда появится ее продолжение.
+ */
+public class TailInputStream extends InputStream {
+    public static final long DEFAULT_POLL_MILLIS = 200;
+
+    private final InputStream in;
+    private final long pollMillis;
+    private volatile boolean closed;
+
+    public TailInputStream(Path file) throws IOException {
+        this(file, DEFAULT_POLL_MILLIS);
+    }
+
+    public TailInputStream(Path file, long pollMillis) throws IOException {
+        this.in = Files.newInputStream(file);
+        this.pollMillis = pollMillis;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        int read = read(one, 0, 1);
+        return read < 0 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        while (!closed) {
+            int read;
+            try {
+                read = in.read(bytes, offset, length);
+            } catch (IOException e) {
+                if (closed) {
+                    // Файл закрыли из другого потока посреди чтения
+                    break;
+                }
+                throw e;
+            }
+            if (read > 0) {
+                return read;
+            }
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Чтение файла прервано", e);
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        in.close();
+    }
+}
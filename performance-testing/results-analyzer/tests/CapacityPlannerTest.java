@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CapacityPlannerTest {
+    private static final Path LOAD_DATA = Paths.get("..", "load-data");
+
+    @Test
+    void wilsonIntervalForZeroAndAllSuccesses() {
+        ConfidenceInterval none = ConfidenceInterval.wilson(0, 200, ConfidenceInterval.Z_95);
+        assertEquals(0, none.getLower(), 1e-12);
+        assertEquals(0.0188, none.getUpper(), 1e-4);
+
+        ConfidenceInterval half = ConfidenceInterval.wilson(50, 100, ConfidenceInterval.Z_95);
+        assertEquals(0.404, half.getLower(), 1e-3);
+        assertEquals(0.596, half.getUpper(), 1e-3);
+    }
+
+    @Test
+    void picksCheapestConfigurationWhosePercentileIsWithinSla() {
+        Map<String, Long> costs = new LinkedHashMap<>();
+        costs.put("conf #3 req", 3900L);
+        costs.put("conf #1 req", 2700L);
+        costs.put("conf #2 req", 3300L);
+
+        ResultAnalysis analysis = new ResultAnalysis(890);
+        for (int i = 0; i < 1000; i++) {
+            long timeStamp = i * 100L;
+            // #1 - 5% медленных запросов, #2 - ни одного, #3 - 0.6%: для p99 данных мало
+            analysis.add("conf #1 req", timeStamp, i % 20 == 0 ? 1200 : 400, true);
+            analysis.add("conf #2 req", timeStamp, 300 + i % 100, true);
+            analysis.add("conf #3 req", timeStamp, i % 167 == 0 ? 1000 : 200, true);
+        }
+
+        List<CapacityPlanner.Option> options = new CapacityPlanner(costs, 99, 5).plan(analysis);
+        assertEquals(List.of("conf #1 req", "conf #2 req", "conf #3 req"),
+            options.stream().map(CapacityPlanner.Option::getLabel).toList());
+        assertEquals(CapacityPlanner.Status.FAIL, options.get(0).getStatus());
+        assertEquals(CapacityPlanner.Status.PASS, options.get(1).getStatus());
+        assertEquals(CapacityPlanner.Status.INCONCLUSIVE, options.get(2).getStatus());
+        assertEquals("conf #2 req", CapacityPlanner.cheapestCompliant(options).getLabel());
+
+        CapacityPlanner.Option chosen = options.get(1);
+        assertEquals(1.0, chosen.getCompliance(), 1e-12);
+        assertTrue(chosen.getMetricInterval().contains(chosen.getMetric()));
+        // Запас больше измеренной нагрузки: p99 ~400 мс при SLA 890 мс
+        assertTrue(chosen.getHeadroomUsers() > 5, String.valueOf(chosen.getHeadroomUsers()));
+        assertTrue(options.get(0).getHeadroomUsers() < 5, String.valueOf(options.get(0).getHeadroomUsers()));
+    }
+
+    @Test
+    void noConfigurationMeetsMaxLatencySlaOnRecordedLoad() throws Exception {
+        Map<String, Long> costs = CapacityPlanner.readCosts(LOAD_DATA.resolve("costs.csv"));
+        assertEquals(3300L, costs.get("conf #2 req"));
+
+        ResultAnalysis analysis = ResultAnalysis.analyze(LOAD_DATA.resolve("total.csv"), 890);
+        List<CapacityPlanner.Option> options =
+            new CapacityPlanner(costs, CapacityPlanner.DEFAULT_PERCENTILE, CapacityPlanner.DEFAULT_USERS)
+                .plan(analysis);
+        assertEquals(3, options.size());
+        assertNull(CapacityPlanner.cheapestCompliant(options));
+        assertEquals(2540, options.get(1).getMetric());
+        assertEquals(0.215, options.get(1).getCompliance(), 1e-9);
+    }
+}
@@ -0,0 +1,94 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ColumnarResultsTest {
+    private static final Path LOAD_DATA = Paths.get("..", "load-data", "total.csv");
+
+    @Test
+    void answersSameAsCsvAnalysis(@TempDir Path dir) throws IOException {
+        Path columnar = dir.resolve("total.jtlc");
+        assertEquals(600, ColumnarWriter.convert(LOAD_DATA, columnar));
+        assertTrue(Files.size(columnar) * 3 < Files.size(LOAD_DATA), "размер " + Files.size(columnar));
+
+        ResultAnalysis expected = ResultAnalysis.analyze(LOAD_DATA, 890);
+        try (ColumnarResults results = ColumnarResults.open(columnar)) {
+            ResultAnalysis actual = results.analyze(Long.MIN_VALUE, Long.MAX_VALUE, 890);
+
+            assertEquals(600, results.getRowCount());
+            for (LabelStats stats : expected.getLabels()) {
+                LabelStats other = actual.getLabel(stats.getLabel());
+                assertEquals(stats.getCount(), other.getCount());
+                assertEquals(stats.getErrors(), other.getErrors());
+                assertEquals(stats.getElapsed().getValueAtPercentile(99), other.getElapsed().getValueAtPercentile(99));
+                assertEquals(stats.getThroughput(), other.getThroughput(), 1e-9);
+            }
+            assertEquals(expected.getLabel("conf #2 req").getElapsed().getMax(),
+                results.histogram("conf #2 req", Long.MIN_VALUE, Long.MAX_VALUE).getMax());
+        }
+    }
+
+    @Test
+    void filtersByTimeRangeAcrossBlocks(@TempDir Path dir) throws IOException {
+        // Больше одного блока и неупорядоченные timeStamp, как у параллельных потоков JMeter
+        int rows = ColumnarFormat.BLOCK_ROWS * 2 + 100;
+        StringBuilder csv = new StringBuilder("timeStamp,elapsed,label,success,threadName\n");
+        for (int i = 0; i < rows; i++) {
+            long timeStamp = 1_000_000L + i * 10L + (i % 2 == 0 ? 7 : -7);
+            csv.append(timeStamp).append(',').append(i % 1000).append(",req ").append(i % 3)
+                .append(',').append(i % 5 != 0).append(",thread ").append(i % 7).append('\n');
+        }
+        Path source = dir.resolve("results.csv");
+        Files.writeString(source, csv);
+        Path columnar = dir.resolve("results.jtlc");
+        ColumnarWriter.convert(source, columnar);
+
+        long from = 1_000_000L + 65_000 * 10L;
+        long to = 1_000_000L + 140_000 * 10L;
+        long[] expected = new long[2];
+        try (JMeterCsvReader reader = JMeterCsvReader.open(source)) {
+            while (reader.next()) {
+                if (reader.getTimeStamp() >= from && reader.getTimeStamp() < to) {
+                    expected[0]++;
+                    expected[1] += reader.isSuccess() ? 0 : 1;
+                }
+            }
+        }
+
+        try (ColumnarResults results = ColumnarResults.open(columnar)) {
+            ResultAnalysis analysis = results.analyze(from, to, 890);
+            assertEquals(expected[0], analysis.getTotal().getCount());
+            assertEquals(expected[1], analysis.getTotal().getErrors());
+            assertEquals(3, analysis.getLabels().size());
+            assertEquals(1_000_003L, results.getMinTimeStamp());
+        }
+    }
+
+    @Test
+    void rejectsOtherFormatsAndVersions(@TempDir Path dir) throws IOException {
+        Path columnar = dir.resolve("total.jtlc");
+        ColumnarWriter.convert(LOAD_DATA, columnar);
+
+        IOException csv = assertThrows(IOException.class, () -> ColumnarResults.open(LOAD_DATA));
+        assertTrue(csv.getMessage().contains("не в колоночном формате"), csv.getMessage());
+
+        // Версия - второе число заголовка после MAGIC
+        byte[] bytes = Files.readAllBytes(columnar);
+        bytes[7] = (byte) (ColumnarFormat.VERSION + 1);
+        Path newer = Files.write(dir.resolve("newer.jtlc"), bytes);
+        IOException version = assertThrows(IOException.class, () -> ColumnarResults.open(newer));
+        assertTrue(version.getMessage().contains("Версия"), version.getMessage());
+
+        Path truncated = Files.write(dir.resolve("truncated.jtlc"), Arrays.copyOf(bytes, 20));
+        assertThrows(IOException.class, () -> ColumnarResults.open(truncated));
+    }
+}
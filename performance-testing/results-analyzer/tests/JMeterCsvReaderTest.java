@@ -0,0 +1,84 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JMeterCsvReaderTest {
+    private static final String HEADER = String.join(",", JMeterCsvReader.COLUMNS) + "\n";
+
+    @Test
+    void readsQuotedFailureMessage() throws IOException {
+        String csv = HEADER
+            + "1743781105852,1046,conf #2 req,200,OK,conf #2 users 2-1,text,false,"
+            + "\"It took 1,046 milliseconds, \"\"too long\"\"\",231,157,1,3,http://localhost/?conf=2,1046,0,0\n";
+
+        try (JMeterCsvReader reader = reader(csv, 64)) {
+            assertTrue(reader.next());
+            assertEquals(1743781105852L, reader.getTimeStamp());
+            assertEquals(1046, reader.getElapsed());
+            assertEquals("conf #2 req", reader.getLabel());
+            assertFalse(reader.isSuccess());
+            assertEquals("It took 1,046 milliseconds, \"too long\"", reader.getFailureMessage());
+            assertEquals(231, reader.getBytes());
+            assertEquals("http://localhost/?conf=2", reader.getUrl());
+            assertEquals(1046, reader.getLatency());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void readsRecordsAcrossBufferBoundaries() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER.replace("\n", "\r\n"));
+        for (int i = 0; i < 1000; i++) {
+            csv.append(1000 + i).append(',').append(i).append(",conf #").append(i % 3)
+                .append(" req,200,OK,t,text,true,,231,158,1,1,http://localhost/,").append(i).append(",0,1\r\n");
+        }
+        csv.append("\r\n");
+
+        try (JMeterCsvReader reader = reader(csv.toString(), 16)) {
+            String first = null;
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(reader.next());
+                assertEquals(1000 + i, reader.getTimeStamp());
+                assertEquals(i, reader.getElapsed());
+                assertEquals("conf #" + (i % 3) + " req", reader.getLabel());
+                assertTrue(reader.isSuccess());
+                assertEquals(1, reader.getConnect());
+                if (i == 0) {
+                    first = reader.getLabel();
+                } else if (i % 3 == 0) {
+                    assertSame(first, reader.getLabel());
+                }
+            }
+            assertFalse(reader.next());
+            assertEquals(3, reader.getLabels().size());
+        }
+    }
+
+    @Test
+    void mapsColumnsByHeader() throws IOException {
+        String csv = "label,success,elapsed,timeStamp\nlogin,true,15,100\nlogout,false,7,200";
+
+        try (JMeterCsvReader reader = reader(csv, 8)) {
+            assertTrue(reader.next());
+            assertEquals("login", reader.getLabel());
+            assertEquals(15, reader.getElapsed());
+            assertEquals("", reader.getUrl());
+            assertTrue(reader.next());
+            assertEquals("logout", reader.getLabel());
+            assertEquals(200, reader.getTimeStamp());
+            assertFalse(reader.isSuccess());
+            assertFalse(reader.next());
+        }
+    }
+
+    private static JMeterCsvReader reader(String csv, int bufferSize) throws IOException {
+        return new JMeterCsvReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), bufferSize);
+    }
+}
@@ -0,0 +1,56 @@
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void percentilesStayWithinBucketError() {
+        Random random = new Random(42);
+        long[] values = new long[100_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) (Math.exp(random.nextGaussian() + 6));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[] {50, 90, 95, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            assertEquals(exact, histogram.getValueAtPercentile(percentile), exact * 0.02 + 1,
+                "p" + percentile);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values[0], histogram.getMin());
+    }
+
+    @Test
+    void mergedHistogramEqualsSingleHistogram() {
+        LatencyHistogram whole = new LatencyHistogram();
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (long value = 1; value <= 5000; value += 7) {
+            whole.record(value);
+            (value % 2 == 0 ? first : second).record(value);
+        }
+        first.add(second);
+
+        assertEquals(whole.getCount(), first.getCount());
+        assertEquals(whole.getMean(), first.getMean(), 1e-9);
+        assertEquals(whole.getValueAtPercentile(95), first.getValueAtPercentile(95));
+        assertEquals(whole.countAbove(890), first.countAbove(890));
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 0; value < 64; value++) {
+            histogram.record(value);
+        }
+        assertEquals(31, histogram.getValueAtPercentile(50));
+        assertEquals(13, histogram.countAbove(50));
+    }
+}
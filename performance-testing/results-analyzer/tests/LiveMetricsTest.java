@@ -0,0 +1,121 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveMetricsTest {
+    private static final String HEADER = "timeStamp,elapsed,label,responseCode,success\n";
+
+    @Test
+    void windowKeepsOnlyLastSeconds() {
+        AtomicLong now = new AtomicLong(100_000);
+        LiveMetrics metrics = new LiveMetrics(10, now::get);
+        // 1 запрос в секунду в течение 30 секунд, медленные - только в первые 19
+        for (int second = 70; second < 100; second++) {
+            metrics.record("conf #2 req", second * 1000L, second < 89 ? 1500 : 50, second != 95);
+        }
+
+        RollingWindow.Snapshot snapshot = metrics.snapshot().get("conf #2 req");
+        // Окно - полные секунды [90, 100): запросы, завершившиеся в 90.05..99.05
+        assertEquals(10, snapshot.getCount());
+        assertEquals(1.0, snapshot.getThroughput(), 1e-9);
+        assertEquals(50, snapshot.getPercentile(99));
+        assertEquals(0.1, snapshot.getErrorRate(), 1e-9);
+    }
+
+    @Test
+    void lateRecordsDoNotLandInNewerSecond() {
+        RollingWindow window = new RollingWindow(10);
+        window.record(99_500, 50, true);
+        // Секунда 88 делит ячейку с 99 и давно вышла из окна
+        window.record(88_500, 5000, false);
+
+        RollingWindow.Snapshot snapshot = window.snapshot(100_000);
+        assertEquals(1, snapshot.getCount());
+        assertEquals(50, snapshot.getMax());
+        assertEquals(0, snapshot.getErrorRate(), 1e-9);
+    }
+
+    @Test
+    void concurrentRecordsAreNotLost() throws InterruptedException {
+        AtomicLong now = new AtomicLong(61_000);
+        LiveMetrics metrics = new LiveMetrics(30, now::get);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    metrics.record("req", 59_000 + i % 1000, i % 700, true);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Map<String, RollingWindow.Snapshot> snapshot = metrics.snapshot();
+        assertEquals(40_000, snapshot.get("req").getCount());
+        assertEquals(40_000, snapshot.get(ResultAnalysis.TOTAL).getCount());
+        assertEquals(699, snapshot.get("req").getMax());
+    }
+
+    @Test
+    void tailsGrowingFileAndServesJson(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("results.csv");
+        Files.writeString(file, HEADER);
+        long start = System.currentTimeMillis() - 5000;
+        LiveMetrics metrics = new LiveMetrics(30);
+
+        try (TailInputStream in = LiveMonitor.tail(file, metrics);
+                LiveMonitor monitor = new LiveMonitor(metrics, 0, 890)) {
+            StringBuilder rows = new StringBuilder();
+            for (int i = 0; i < 20; i++) {
+                rows.append(start + i * 100).append(',').append(i == 0 ? 1000 : 200)
+                    .append(",\"conf #1 req\",200,true\n");
+            }
+            // Последняя строка дописывается частями, как при буферизованной записи JMeter
+            rows.append(start + 2000).append(",300,conf #3");
+            append(file, rows.toString());
+            Thread.sleep(300);
+            append(file, " req,500,false\n");
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (metrics.snapshot().get(ResultAnalysis.TOTAL).getCount() < 21
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+
+            Map<String, RollingWindow.Snapshot> snapshot = metrics.snapshot();
+            assertEquals(20, snapshot.get("conf #1 req").getCount());
+            assertEquals(1, snapshot.get("conf #3 req").getCount());
+            assertEquals(1.0, snapshot.get("conf #3 req").getErrorRate(), 1e-9);
+
+            String json;
+            try (InputStream body = URI.create("http://localhost:" + monitor.getPort() + "/metrics")
+                    .toURL().openStream()) {
+                json = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            assertTrue(json.startsWith("{\"window\":30,\"sla\":890,\"labels\":{\"conf #1 req\":{\"count\":20,"), json);
+            assertTrue(json.contains("\"p99\":1000,\"max\":1000,\"errorRate\":0.0000,\"slaMet\":false"), json);
+            assertTrue(json.contains("\"TOTAL\":{\"count\":21,"), json);
+        }
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,136 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegressionGateTest {
+    private final RegressionGate gate = new RegressionGate(new double[] {0.1, 0.1, 0.2}, 0.1, 0.01, 0.05);
+
+    @Test
+    void sameDistributionIsNotRegression() {
+        ResultAnalysis baseline = run(new Random(1), 20_000, 1.0, 0);
+        ResultAnalysis candidate = run(new Random(2), 20_000, 1.0, 0);
+
+        List<ResultComparison.LabelComparison> comparisons =
+            RegressionGate.compareAll(baseline, candidate, new ResultComparison(300, 1));
+        assertEquals(List.of("conf #2 req", ResultAnalysis.TOTAL),
+            comparisons.stream().map(ResultComparison.LabelComparison::getLabel).toList());
+        for (ResultComparison.LabelComparison comparison : comparisons) {
+            assertFalse(gate.hasRegression(comparison), comparison.getLabel());
+            for (ResultComparison.Delta delta : comparison.getDeltas()) {
+                assertTrue(delta.getInterval().contains(0), delta.getMetric() + " " + delta.getInterval());
+            }
+        }
+    }
+
+    @Test
+    void slowerRunIsRegression() {
+        ResultAnalysis baseline = run(new Random(1), 20_000, 1.0, 0);
+        ResultAnalysis candidate = run(new Random(2), 20_000, 1.3, 0);
+
+        ResultComparison.LabelComparison comparison = new ResultComparison(300, 1)
+            .compare(baseline.getTotal(), candidate.getTotal());
+        assertTrue(gate.hasRegression(comparison));
+        ResultComparison.Delta p95 = comparison.getDelta("p95");
+        assertTrue(p95.getInterval().contains(0.3), p95.getInterval().toString());
+        assertTrue(comparison.getPValue() < 1e-6);
+        assertFalse(gate.isRegression(comparison, comparison.getDelta("req/s")));
+    }
+
+    @Test
+    void fewSlowOutliersInSmallRunAreNotRegression() {
+        ResultAnalysis baseline = run(new Random(1), 100, 1.0, 0);
+        ResultAnalysis candidate = run(new Random(2), 100, 1.0, 2);
+
+        ResultComparison.LabelComparison comparison = new ResultComparison(300, 1)
+            .compare(baseline.getTotal(), candidate.getTotal());
+        // p99 вырос, но распределения в целом не различаются
+        assertTrue(comparison.getDelta("p99").getChange() > 0.2);
+        assertTrue(comparison.getPValue() > 0.05);
+        assertFalse(gate.hasRegression(comparison));
+    }
+
+    @Test
+    void missingLabelIsRegression() {
+        ResultAnalysis baseline = run(new Random(1), 1_000, 1.0, 0);
+        baseline.add("conf #2 upload", 1_000_000L, 400, true);
+        ResultAnalysis candidate = run(new Random(2), 1_000, 1.0, 0);
+
+        List<ResultComparison.LabelComparison> comparisons =
+            RegressionGate.compareAll(baseline, candidate, new ResultComparison(300, 1));
+        ResultComparison.LabelComparison upload = comparisons.stream()
+            .filter(comparison -> comparison.getLabel().equals("conf #2 upload"))
+            .findFirst().orElseThrow();
+        assertTrue(upload.isMissing());
+        assertTrue(gate.hasRegression(upload));
+    }
+
+    @Test
+    void moreErrorsIsRegression() {
+        ResultAnalysis baseline = new ResultAnalysis(890);
+        ResultAnalysis candidate = new ResultAnalysis(890);
+        ResultAnalysis noisy = new ResultAnalysis(890);
+        for (int i = 0; i < 5_000; i++) {
+            baseline.add("req", 1_000_000L + i * 100L, 400, i % 100 != 0);
+            candidate.add("req", 1_000_000L + i * 100L, 400, i % 20 != 0);
+            noisy.add("req", 1_000_000L + i * 100L, 400, i % 90 != 0);
+        }
+
+        ResultComparison.LabelComparison comparison = new ResultComparison(300, 1)
+            .compare(baseline.getTotal(), candidate.getTotal());
+        ResultComparison.Delta errors = comparison.getDelta(ResultComparison.ERRORS);
+        assertEquals(0.04, errors.getChange(), 1e-9);
+        assertTrue(comparison.getErrorPValue() < 1e-6);
+        assertTrue(gate.isRegression(comparison, errors));
+
+        // Рост на десятую долю пункта меньше порога и статистически не значим
+        ResultComparison.LabelComparison small = new ResultComparison(300, 1)
+            .compare(baseline.getTotal(), noisy.getTotal());
+        assertTrue(small.getErrorPValue() > 0.05);
+        assertFalse(gate.hasRegression(small));
+    }
+
+    @Test
+    void twoProportionsMatchesNormalTail() {
+        assertEquals(1.0, ResultComparison.twoProportions(10, 1000, 10, 1000), 1e-7);
+        // 50% против 56%: z = 0.06 / sqrt(0.53 * 0.47 * 2 / 1000) = 2.69
+        assertEquals(0.0072, ResultComparison.twoProportions(500, 1000, 560, 1000), 5e-4);
+        assertEquals(1.0, ResultComparison.twoProportions(0, 1000, 0, 1000), 1e-7);
+    }
+
+    @Test
+    void mannWhitneyMatchesNormalTail() {
+        assertEquals(0.975, ResultComparison.normalCdf(1.96), 1e-4);
+        assertEquals(0.5, ResultComparison.normalCdf(0), 1e-7);
+
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        for (int i = 0; i < 40; i++) {
+            a.record(i);
+            b.record(i);
+        }
+        assertEquals(1.0, ResultComparison.mannWhitney(a, b), 1e-7);
+        b.reset();
+        for (int i = 0; i < 40; i++) {
+            b.record(i + 40);
+        }
+        assertTrue(ResultComparison.mannWhitney(a, b) < 1e-10);
+    }
+
+    /**
+     * Прогон с логнормальным временем отклика около 400 мс, умноженным на scale,
+     * и outliers запросами по 5 секунд. Запросы идут 10 в секунду.
+     */
+    private static ResultAnalysis run(Random random, int samples, double scale, int outliers) {
+        ResultAnalysis analysis = new ResultAnalysis(890);
+        for (int i = 0; i < samples; i++) {
+            long elapsed = i < outliers ? 5000 : Math.round(scale * 400 * Math.exp(0.3 * random.nextGaussian()));
+            analysis.add("conf #2 req", 1_000_000L + i * 100L, elapsed, true);
+        }
+        return analysis;
+    }
+}
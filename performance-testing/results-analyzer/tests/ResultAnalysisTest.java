@@ -0,0 +1,28 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class ResultAnalysisTest {
+    private static final Path LOAD_DATA = Paths.get("..", "load-data", "total.csv");
+
+    @Test
+    void summarizesLoadTestPerConfiguration() throws IOException {
+        ResultAnalysis analysis = ResultAnalysis.analyze(LOAD_DATA, 890);
+
+        assertEquals(600, analysis.getTotal().getCount());
+        assertEquals(3, analysis.getLabels().size());
+        long sum = analysis.getLabels().stream().mapToLong(LabelStats::getCount).sum();
+        assertEquals(600, sum);
+        assertFalse(analysis.getTotal().isSlaMet());
+
+        // Каждая строка с assertion-ошибкой в файле - запрос дольше 890 мс
+        for (LabelStats stats : analysis.getLabels()) {
+            assertEquals(stats.getErrors(), stats.getSlaViolations(), stats.getLabel());
+        }
+    }
+}
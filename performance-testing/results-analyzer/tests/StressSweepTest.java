@@ -0,0 +1,66 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class StressSweepTest {
+
+    @Test
+    void findsFirstBreachAndKnee(@TempDir Path dir) throws IOException {
+        // Пропускная способность растет до 40 пользователей, дальше - только время отклика
+        writeLevel(dir, 10, 400, 100);
+        writeLevel(dir, 20, 450, 50);
+        writeLevel(dir, 40, 600, 25);
+        writeLevel(dir, 80, 1200, 25);
+        writeLevel(dir, 160, 2400, 25);
+
+        List<Path> files = StressSweep.findLevelFiles(dir);
+        StressSweep sweep = StressSweep.analyze(files, 890, "max", new ForkJoinPool(4));
+
+        assertEquals(5, sweep.getLevels().size());
+        assertEquals(80, sweep.getFirstBreach().getUsers());
+        assertEquals(40, sweep.getLastPassing().getUsers());
+        assertEquals(40, sweep.getKnee().getUsers());
+        assertEquals(5 * 100, sweep.getMerged().getTotal().getCount());
+    }
+
+    @Test
+    void reportsNoBreachUnderLimit(@TempDir Path dir) throws IOException {
+        writeLevel(dir, 5, 100, 100);
+        writeLevel(dir, 10, 200, 50);
+
+        StressSweep sweep = StressSweep.analyze(StressSweep.findLevelFiles(dir), 890, "p99");
+
+        assertNull(sweep.getFirstBreach());
+        assertEquals(10, sweep.getLastPassing().getUsers());
+        assertNull(sweep.getKnee());
+    }
+
+    @Test
+    void readsRepositoryStressData() throws IOException {
+        List<Path> files = StressSweep.findLevelFiles(Paths.get("..", "stress-data"));
+
+        assertEquals(14, files.size());
+        assertEquals(5, StressSweep.usersOf(files.get(0)));
+        assertEquals(150, StressSweep.usersOf(files.get(files.size() - 1)));
+    }
+
+    /**
+     * 100 запросов с временем отклика elapsed, идущих каждые interval мс.
+     */
+    private static void writeLevel(Path dir, int users, long elapsed, long interval) throws IOException {
+        StringBuilder csv = new StringBuilder("timeStamp,elapsed,label,success,allThreads\n");
+        for (int i = 0; i < 100; i++) {
+            csv.append(i * interval).append(',').append(elapsed).append(",req,true,").append(users).append('\n');
+        }
+        Files.writeString(dir.resolve("stress" + users + ".csv"), csv);
+    }
+}